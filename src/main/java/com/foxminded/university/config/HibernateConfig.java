@@ -7,6 +7,7 @@ import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
@@ -15,6 +16,8 @@ import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import com.foxminded.university.config.logging.StatementCounter;
+
 @Configuration
 @EnableTransactionManagement
 public class HibernateConfig {
@@ -22,6 +25,7 @@ public class HibernateConfig {
     DataSource dataSource;
     
     @Bean
+    @DependsOn("schemaMigrator")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
        LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
        em.setDataSource(dataSource);
@@ -53,8 +57,21 @@ public class HibernateConfig {
         hibernateProperties.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         hibernateProperties.setProperty("hibernate.max_fetch_depth", "3");
         hibernateProperties.setProperty("hibernate.jdbc.fetch_size", "50");
-        hibernateProperties.setProperty("hibernate.jdbc.batch_size", "10");
-        hibernateProperties.setProperty("hibernate.show_sql", "true");
+        /* Sequence ids let inserts go out in JDBC batches; ordering groups the statements by table. */
+        hibernateProperties.setProperty("hibernate.jdbc.batch_size", "50");
+        hibernateProperties.setProperty("hibernate.order_inserts", "true");
+        hibernateProperties.setProperty("hibernate.order_updates", "true");
+        /* Statements are counted per request and test; their SQL is logged at DEBUG instead of printed. */
+        hibernateProperties.setProperty("hibernate.session_factory.statement_inspector", 
+                                        StatementCounter.class.getName());
+        /* Local second-level cache for reference entities and their queries, with region statistics. */
+        hibernateProperties.setProperty("hibernate.cache.use_second_level_cache", "true");
+        hibernateProperties.setProperty("hibernate.cache.use_query_cache", "true");
+        hibernateProperties.setProperty("hibernate.cache.region.factory_class", "jcache");
+        hibernateProperties.setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        hibernateProperties.setProperty("hibernate.javax.cache.missing_cache_strategy", "create");
+        hibernateProperties.setProperty("hibernate.generate_statistics", "true");
+        hibernateProperties.setProperty("hibernate.session.events.log", "false");
         return hibernateProperties;
     }
 }
@@ -0,0 +1,137 @@
+package com.foxminded.university.config;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/*
+ * Applies classpath:db/migration/<database>/V<version>__<description>.sql scripts
+ * that are newer than the last version recorded in schema_version. Every script
+ * runs in its own transaction together with its history row, and is sent to the
+ * database as one batch so PL/pgSQL blocks stay intact.
+ */
+@Component
+public class SchemaMigrator {
+    private static final String MIGRATIONS_LOCATION = "classpath:db/migration/";
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @PostConstruct
+    public void migrate() {
+        String database = getDatabaseName();
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_version("
+                             + "version integer PRIMARY KEY, "
+                             + "description text NOT NULL, "
+                             + "installed_on timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        int currentVersion = getCurrentVersion();
+
+        for (Migration migration : findMigrations(database)) {
+            if (migration.version > currentVersion) {
+                apply(migration);
+                currentVersion = migration.version;
+            }
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info("Schema of {} database is at version {}", database, currentVersion);
+        }
+    }
+
+    public int getCurrentVersion() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(version), 0) FROM schema_version", Integer.class);
+    }
+
+    /* Another instance applying the same version fails on the history row and rolls back its copy. */
+    private void apply(Migration migration) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Apply schema migration {} ({})", migration.version, migration.description);
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update("INSERT INTO schema_version (version, description) VALUES (?, ?)",
+                                    migration.version, migration.description);
+                Connection connection = DataSourceUtils.getConnection(dataSource);
+                ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.script, "UTF-8"),
+                        false, false, ScriptUtils.DEFAULT_COMMENT_PREFIX, ScriptUtils.EOF_STATEMENT_SEPARATOR,
+                        ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER, ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER);
+                return null;
+            });
+        } catch (DuplicateKeyException ex) {
+            if (logger.isInfoEnabled()) {
+                logger.info("Schema migration {} was applied concurrently", migration.version);
+            }
+        }
+    }
+
+    private List<Migration> findMigrations(String database) {
+        List<Migration> migrations = new ArrayList<>();
+        try {
+            Resource[] scripts = new PathMatchingResourcePatternResolver()
+                                 .getResources(MIGRATIONS_LOCATION + database + "/V*__*.sql");
+            for (Resource script : scripts) {
+                Matcher matcher = MIGRATION_NAME.matcher(script.getFilename());
+                if (matcher.matches()) {
+                    migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2), script));
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot read schema migrations for " + database, ex);
+        }
+        migrations.sort(Comparator.comparingInt(migration -> migration.version));
+        return migrations;
+    }
+
+    private String getDatabaseName() {
+        try (Connection connection = dataSource.getConnection()) {
+            String productName = connection.getMetaData().getDatabaseProductName();
+            return productName.toLowerCase().replace(" ", "");
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot detect database for schema migrations", ex);
+        }
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final Resource script;
+
+        private Migration(int version, String description, Resource script) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+        }
+    }
+}
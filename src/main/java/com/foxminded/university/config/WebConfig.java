@@ -5,15 +5,20 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.WebContentInterceptor;
 import org.thymeleaf.extras.java8time.dialect.Java8TimeDialect;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import org.thymeleaf.spring5.templateresolver.SpringResourceTemplateResolver;
 import org.thymeleaf.spring5.view.ThymeleafViewResolver;
 import org.thymeleaf.templatemode.TemplateMode;
 
+import com.foxminded.university.controller.web.RequestLogInterceptor;
+
 @Configuration
 @EnableWebMvc
 @ComponentScan(basePackages = { "com.foxminded" })
@@ -34,6 +39,19 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/webfonts/**").addResourceLocations("/WEB-INF/webfonts/");
     }
     
+    /*
+     * Pages answered with ETags are revalidated on every visit instead of being reused heuristically.
+     * Requests other than static files are summarized in one log line each.
+     */
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        WebContentInterceptor interceptor = new WebContentInterceptor();
+        interceptor.addCacheMapping(CacheControl.noCache(), "/timetable", "/teacherstimetable", "/student", "/teacher");
+        registry.addInterceptor(interceptor);
+        registry.addInterceptor(new RequestLogInterceptor())
+                .excludePathPatterns("/img/**", "/css/**", "/js/**", "/fonts/**", "/webfonts/**");
+    }
+    
     @Bean
     public SpringResourceTemplateResolver templateResolver(){
         SpringResourceTemplateResolver templateResolver = new SpringResourceTemplateResolver();
@@ -0,0 +1,77 @@
+package com.foxminded.university.config.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/*
+ * AsyncAppender that counts the events it drops, both those discarded by level
+ * near the queue limit and those that find the queue full. Once the queue has
+ * room again, the number dropped since the last report is logged as a warning.
+ * Dropping is only expected with neverBlock set; otherwise a full queue blocks
+ * the caller as usual. With neverBlock the capacity check and the offer share one
+ * lock, so an offer never fails uncounted; events are prepared before taking it.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong reportedCount = new AtomicLong();
+    private final Object offerLock = new Object();
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        reportDrops();
+        if (isNeverBlock()) {
+            preprocess(event);
+        }
+        if (enqueue(event) == false) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            droppedCount.incrementAndGet();
+        }
+        return discardable;
+    }
+
+    private void reportDrops() {
+        long dropped = droppedCount.get();
+        long reported = reportedCount.get();
+        if (dropped > reported && getRemainingCapacity() > getDiscardingThreshold()
+                && reportedCount.compareAndSet(reported, dropped)) {
+            LoggerContext loggerContext = (LoggerContext) getContext();
+            LoggingEvent warning = new LoggingEvent(CountingAsyncAppender.class.getName(),
+                                                    loggerContext.getLogger(CountingAsyncAppender.class), Level.WARN,
+                                                    "Appender {} dropped {} log events ({} in total)", null,
+                                                    new Object[] {getName(), dropped - reported, dropped});
+            if (enqueue(warning) == false) {
+                reportedCount.compareAndSet(dropped, reported);
+            }
+        }
+    }
+
+    private boolean enqueue(ILoggingEvent event) {
+        if (isNeverBlock() == false) {
+            super.append(event);
+            return true;
+        }
+        synchronized (offerLock) {
+            if (getRemainingCapacity() == 0) {
+                return false;
+            }
+            super.append(event);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.foxminded.university.config.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/*
+ * Keeps INFO and lower messages of the configured packages off the appenders.
+ * While a request is handled they are added to its RequestLog, which is written
+ * as one line at the end. Outside of requests the first message of each pattern
+ * and then every sampleEvery-th one is let through. Warnings and errors always
+ * pass. Level checks without a message are left alone, so guarded calls still
+ * reach the filter with their pattern.
+ */
+public class ReadPathLogFilter extends TurboFilter {
+    private final List<String> packages = new ArrayList<>();
+    private final Map<String, AtomicLong> countsByPattern = new ConcurrentHashMap<>();
+
+    private int sampleEvery = 100;
+
+    public void addPackage(String packageName) {
+        packages.add(packageName + ".");
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (format == null || level == null || level.isGreaterOrEqual(Level.WARN)
+                || level.isGreaterOrEqual(logger.getEffectiveLevel()) == false || isFiltered(logger) == false) {
+            return FilterReply.NEUTRAL;
+        }
+
+        RequestLog requestLog = RequestLog.current();
+        if (requestLog != null) {
+            requestLog.add(logger.getName(), format);
+            return FilterReply.DENY;
+        }
+        long count = countsByPattern.computeIfAbsent(format, key -> new AtomicLong()).getAndIncrement();
+        return count % sampleEvery == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isFiltered(Logger logger) {
+        for (String packageName : packages) {
+            if (logger.getName().startsWith(packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package com.foxminded.university.config.logging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/*
+ * Messages logged by one thread while it handles a request. They are counted by
+ * logger and message pattern and written out as a single summary line when the
+ * request completes. Only the first patterns are kept apart; later ones are
+ * counted as "other".
+ */
+public final class RequestLog {
+    private static final int MAX_PATTERNS = 20;
+    private static final String OTHER = "other";
+
+    private static final ThreadLocal<RequestLog> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Integer> countsByPattern = new LinkedHashMap<>();
+    private int eventCount;
+
+    private RequestLog() {
+    }
+
+    public static void start() {
+        CURRENT.set(new RequestLog());
+    }
+
+    /* Null outside of a request. */
+    public static RequestLog current() {
+        return CURRENT.get();
+    }
+
+    public static RequestLog finish() {
+        RequestLog requestLog = CURRENT.get();
+        CURRENT.remove();
+        return requestLog;
+    }
+
+    void add(String loggerName, String pattern) {
+        eventCount++;
+        String key = loggerName.substring(loggerName.lastIndexOf('.') + 1) + ": " + pattern;
+        if (countsByPattern.containsKey(key) || countsByPattern.size() < MAX_PATTERNS) {
+            countsByPattern.merge(key, 1, Integer::sum);
+        } else {
+            countsByPattern.merge(OTHER, 1, Integer::sum);
+        }
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /* Patterns with their counts, e.g. "TeachersService: Get teacher by id ({}) x2; ...". */
+    public String getSummary() {
+        StringJoiner output = new StringJoiner("; ");
+        countsByPattern.forEach((pattern, count) -> output.add(count == 1 ? pattern : pattern + " x" + count));
+        return output.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.foxminded.university.config.logging;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Sees every statement Hibernate prepares. It records the statement in the
+ * current StatementLog and logs its SQL at DEBUG under the "sql" logger, which
+ * replaces hibernate.show_sql. The SQL itself is never changed.
+ */
+public class StatementCounter implements StatementInspector {
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger("com.foxminded.university.sql");
+
+    @Override
+    public String inspect(String sql) {
+        StatementLog.record(sql);
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        return sql;
+    }
+}
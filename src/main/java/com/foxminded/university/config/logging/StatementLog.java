@@ -0,0 +1,83 @@
+package com.foxminded.university.config.logging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/*
+ * SQL statements sent by one thread within a scope, such as a request or a
+ * test. Scopes nest: a statement counts in the current scope and in every
+ * enclosing one. Statements are also counted by shape, the SQL with its
+ * literals and IN lists collapsed, so one query run again and again for each
+ * row of an earlier result (an N+1 pattern) shows up as one shape with a
+ * high count.
+ */
+public final class StatementLog {
+    private static final Pattern STRING_LITERALS = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERALS = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern PARAMETER_LISTS = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final ThreadLocal<StatementLog> CURRENT = new ThreadLocal<>();
+
+    private final StatementLog parent;
+    private final Map<String, Integer> countsByShape = new LinkedHashMap<>();
+    private int count;
+
+    private StatementLog(StatementLog parent) {
+        this.parent = parent;
+    }
+
+    public static StatementLog start() {
+        StatementLog statementLog = new StatementLog(CURRENT.get());
+        CURRENT.set(statementLog);
+        return statementLog;
+    }
+
+    /* Closes the current scope and makes the enclosing one current again. */
+    public static StatementLog finish() {
+        StatementLog statementLog = CURRENT.get();
+        if (statementLog != null) {
+            if (statementLog.parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(statementLog.parent);
+            }
+        }
+        return statementLog;
+    }
+
+    static void record(String sql) {
+        StatementLog statementLog = CURRENT.get();
+        if (statementLog == null) {
+            return;
+        }
+        String shape = getShape(sql);
+        for (; statementLog != null; statementLog = statementLog.parent) {
+            statementLog.count++;
+            statementLog.countsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /* Shapes sent at least minCount times, with their counts, in the order first seen. */
+    public Map<String, Integer> getRepeatedShapes(int minCount) {
+        Map<String, Integer> output = new LinkedHashMap<>();
+        countsByShape.forEach((shape, shapeCount) -> {
+            if (shapeCount >= minCount) {
+                output.put(shape, shapeCount);
+            }
+        });
+        return output;
+    }
+
+    static String getShape(String sql) {
+        String shape = STRING_LITERALS.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERALS.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LISTS.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,69 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.foxminded.university.model.ContentVersion;
+
+/*
+ * Change counters per entity type and per group or teacher timetable. A version is
+ * the time of the last committed write in milliseconds, raised by one when two
+ * writes fall into the same millisecond, so it also serves as Last-Modified.
+ * Counters start at the startup time, which invalidates tags of a previous run.
+ */
+@Component
+public class ChangeTracker {
+    private final long startupVersion = System.currentTimeMillis();
+
+    private final Map<Class<?>, AtomicLong> versionsByType = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> versionsByGroup = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> versionsByTeacher = new ConcurrentHashMap<>();
+
+    public void onChanged(Class<?> entityType) {
+        AfterCommit.run(() -> bump(versionsByType, entityType));
+    }
+
+    public void onGroupChanged(int groupId) {
+        AfterCommit.run(() -> bump(versionsByGroup, groupId));
+    }
+
+    public void onTeacherChanged(int teacherId) {
+        AfterCommit.run(() -> bump(versionsByTeacher, teacherId));
+    }
+
+    public long getVersion(Class<?> entityType) {
+        return get(versionsByType, entityType);
+    }
+
+    public long getGroupVersion(int groupId) {
+        return get(versionsByGroup, groupId);
+    }
+
+    public long getTeacherVersion(int teacherId) {
+        return get(versionsByTeacher, teacherId);
+    }
+
+    /* Versions must be read before the content they describe is loaded. */
+    public ContentVersion getContentVersion(String resource, long... versions) {
+        StringBuilder tag = new StringBuilder(resource);
+        long lastModified = startupVersion;
+        for (long version : versions) {
+            tag.append('-').append(Long.toHexString(version));
+            lastModified = Math.max(lastModified, version);
+        }
+        return new ContentVersion(tag.toString(), lastModified);
+    }
+
+    private <K> void bump(Map<K, AtomicLong> versions, K key) {
+        versions.computeIfAbsent(key, k -> new AtomicLong(startupVersion))
+                .updateAndGet(version -> Math.max(version + 1, System.currentTimeMillis()));
+    }
+
+    private <K> long get(Map<K, AtomicLong> versions, K key) {
+        AtomicLong version = versions.get(key);
+        return version == null ? startupVersion : version.get();
+    }
+}
@@ -0,0 +1,198 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/*
+ * Student counts per group, per faculty and in total. They are loaded with two
+ * queries on first use and then kept current by the repositories after every
+ * committed student or group write, so reading a count never touches the
+ * database. Writers are serialized; readers only read the counters.
+ */
+@Component
+public class EnrolmentStatistics extends LazyLoadedCache {
+    private static final int NO_FACULTY = 0;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    private final Map<Integer, AtomicInteger> studentsByGroup = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> studentsByFaculty = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> facultyByGroup = new ConcurrentHashMap<>();
+    private final AtomicInteger studentsCount = new AtomicInteger();
+
+    /* Raised when a load starts and again when it ends, so it is odd while one runs. */
+    private final AtomicLong loads = new AtomicLong();
+
+    @Autowired
+    public EnrolmentStatistics(PlatformTransactionManager transactionManager) {
+        super(transactionManager);
+    }
+
+    public int getStudentsCount() {
+        ensureLoaded();
+        return studentsCount.get();
+    }
+
+    public int getStudentsCountByGroup(int groupId) {
+        ensureLoaded();
+        return get(studentsByGroup, groupId);
+    }
+
+    public int getStudentsCountByFaculty(int facultyId) {
+        ensureLoaded();
+        return get(studentsByFaculty, facultyId);
+    }
+
+    public int getGroupsCount() {
+        ensureLoaded();
+        return facultyByGroup.size();
+    }
+
+    public void onStudentsAdded(Integer groupId, int count) {
+        countAfterCommit(() -> addStudents(groupId, count));
+    }
+
+    public void onStudentDeleted(Integer groupId) {
+        countAfterCommit(() -> addStudents(groupId, -1));
+    }
+
+    public void onStudentMoved(Integer fromGroupId, Integer toGroupId) {
+        if (Objects.equals(fromGroupId, toGroupId) == false) {
+            countAfterCommit(() -> moveStudent(fromGroupId, toGroupId));
+        }
+    }
+
+    public void onGroupSaved(int groupId, Integer facultyId) {
+        AfterCommit.run(() -> setGroupFaculty(groupId, facultyId == null ? NO_FACULTY : facultyId));
+    }
+
+    public void onGroupDeleted(int groupId) {
+        AfterCommit.run(() -> removeGroup(groupId));
+    }
+
+    @Override
+    protected void load() {
+        loads.incrementAndGet();
+        try {
+            count();
+        } finally {
+            loads.incrementAndGet();
+        }
+    }
+
+    private void count() {
+        studentsByGroup.clear();
+        studentsByFaculty.clear();
+        facultyByGroup.clear();
+        studentsCount.set(0);
+
+        entityManager.createQuery("SELECT g.id, f.id FROM Group g LEFT JOIN g.faculty f", Object[].class)
+                     .getResultList()
+                     .forEach(row -> facultyByGroup.put((Integer) row[0],
+                                                        row[1] == null ? NO_FACULTY : (Integer) row[1]));
+        entityManager.createQuery("SELECT s.group.id, COUNT(s) FROM Student s GROUP BY s.group.id", Object[].class)
+                     .getResultList()
+                     .forEach(row -> {
+                         int count = ((Long) row[1]).intValue();
+                         studentsCount.addAndGet(count);
+                         if (row[0] != null) {
+                             count(studentsByGroup, (Integer) row[0], count);
+                             count(studentsByFaculty, getFaculty((Integer) row[0]), count);
+                         }
+                     });
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Enrolment statistics loaded ({} students, {} groups)", studentsCount.get(),
+                        facultyByGroup.size());
+        }
+    }
+
+    /*
+     * Unlike the other caches, counts change by deltas, and a delta must not be added to a
+     * load that already counted its write. When a load ran between the write and its commit
+     * callback, the order of the two is unknown, so the counts are loaded again instead.
+     */
+    private void countAfterCommit(Runnable delta) {
+        long loadsAtWrite = loads.get();
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                if (isLoaded() == false) {
+                    return;
+                }
+                if (loads.get() == loadsAtWrite && loadsAtWrite % 2 == 0) {
+                    delta.run();
+                } else {
+                    invalidate();
+                }
+            }
+        });
+    }
+
+    private void addStudents(Integer groupId, int count) {
+        studentsCount.addAndGet(count);
+        if (groupId != null) {
+            count(studentsByGroup, groupId, count);
+            count(studentsByFaculty, getFaculty(groupId), count);
+        }
+    }
+
+    private void moveStudent(Integer fromGroupId, Integer toGroupId) {
+        if (fromGroupId != null) {
+            count(studentsByGroup, fromGroupId, -1);
+            count(studentsByFaculty, getFaculty(fromGroupId), -1);
+        }
+        if (toGroupId != null) {
+            count(studentsByGroup, toGroupId, 1);
+            count(studentsByFaculty, getFaculty(toGroupId), 1);
+        }
+    }
+
+    private synchronized void setGroupFaculty(int groupId, int facultyId) {
+        if (isLoaded() == false) {
+            return;
+        }
+        Integer previousFacultyId = facultyByGroup.put(groupId, facultyId);
+        int groupCount = get(studentsByGroup, groupId);
+        if (previousFacultyId != null && previousFacultyId != facultyId && groupCount > 0) {
+            count(studentsByFaculty, previousFacultyId, -groupCount);
+            count(studentsByFaculty, facultyId, groupCount);
+        }
+    }
+
+    /* Groups with students cannot be deleted, so no count changes. */
+    private synchronized void removeGroup(int groupId) {
+        if (isLoaded() == false) {
+            return;
+        }
+        facultyByGroup.remove(groupId);
+        studentsByGroup.remove(groupId);
+    }
+
+    private int getFaculty(int groupId) {
+        return facultyByGroup.getOrDefault(groupId, NO_FACULTY);
+    }
+
+    private void count(Map<Integer, AtomicInteger> counts, int key, int delta) {
+        counts.computeIfAbsent(key, k -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    private int get(Map<Integer, AtomicInteger> counts, int key) {
+        AtomicInteger count = counts.get(key);
+        return count == null ? 0 : count.get();
+    }
+}
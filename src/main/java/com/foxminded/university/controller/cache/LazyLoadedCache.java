@@ -0,0 +1,54 @@
+package com.foxminded.university.controller.cache;
+
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/*
+ * An in-memory copy of database state, loaded in one read-only transaction on
+ * first use and kept current afterwards by the subclass. Loading and updates
+ * synchronize on the cache; updates are skipped while it is not loaded, since
+ * the next load reads them from the database anyway.
+ */
+public abstract class LazyLoadedCache {
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean loaded;
+
+    protected LazyLoadedCache(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /* Loaded at startup, so the first request does not pay for it. */
+    @EventListener(ContextRefreshedEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    /* For writes made behind the application's back; the next read loads the cache again. */
+    public void invalidate() {
+        loaded = false;
+    }
+
+    protected boolean isLoaded() {
+        return loaded;
+    }
+
+    protected void ensureLoaded() {
+        if (loaded == false) {
+            synchronized (this) {
+                if (loaded == false) {
+                    transactionTemplate.execute(status -> {
+                        load();
+                        return null;
+                    });
+                    loaded = true;
+                }
+            }
+        }
+    }
+
+    protected abstract void load();
+}
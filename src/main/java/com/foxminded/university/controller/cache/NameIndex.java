@@ -0,0 +1,231 @@
+package com.foxminded.university.controller.cache;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.foxminded.university.model.PersonMatch;
+
+/*
+ * First and last names searchable by word prefix and with typos. Words are kept
+ * in a sorted dictionary, so all words with a prefix are one range of it, and in
+ * a trigram index that narrows typo matches down to words sharing a trigram
+ * before their edit distance is computed. Every query word has to match a word
+ * of the name; names with better matches come first.
+ */
+public class NameIndex {
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.8f;
+    private static final float ONE_TYPO = 0.6f;
+    private static final float TWO_TYPOS = 0.4f;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String PADDING = "$$";
+
+    private static final Comparator<PersonMatch> BY_NAME = Comparator
+            .comparing(PersonMatch::getLastName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(PersonMatch::getFirstName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparingInt(PersonMatch::getId);
+
+    private final Map<Integer, PersonMatch> people = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Set<Integer>> words = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> wordsByTrigram = new ConcurrentHashMap<>();
+
+    public int size() {
+        return people.size();
+    }
+
+    public synchronized void put(int id, String firstName, String lastName) {
+        remove(id);
+        PersonMatch person = new PersonMatch(id, firstName, lastName);
+        for (String word : getWords(person)) {
+            Set<Integer> ids = words.get(word);
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                words.put(word, ids);
+                for (String trigram : getTrigrams(word)) {
+                    wordsByTrigram.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(word);
+                }
+            }
+            ids.add(id);
+        }
+        people.put(id, person);
+    }
+
+    public synchronized void remove(int id) {
+        PersonMatch person = people.remove(id);
+        if (person == null) {
+            return;
+        }
+        for (String word : getWords(person)) {
+            Set<Integer> ids = words.get(word);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                words.remove(word);
+                for (String trigram : getTrigrams(word)) {
+                    wordsByTrigram.computeIfPresent(trigram, (key, trigramWords) -> {
+                        trigramWords.remove(word);
+                        return trigramWords.isEmpty() ? null : trigramWords;
+                    });
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        people.clear();
+        words.clear();
+        wordsByTrigram.clear();
+    }
+
+    public List<PersonMatch> search(String query, int limit) {
+        List<String> queryWords = normalize(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, Float> scores = null;
+        for (String queryWord : queryWords) {
+            Map<Integer, Float> wordScores = new HashMap<>();
+            match(queryWord).forEach((word, score) -> {
+                Set<Integer> ids = words.get(word);
+                if (ids != null) {
+                    ids.forEach(id -> wordScores.merge(id, score, Math::max));
+                }
+            });
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                scores.keySet().retainAll(wordScores.keySet());
+                scores.replaceAll((id, score) -> score + wordScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        Map<Integer, Float> totals = scores;
+        Comparator<PersonMatch> byScore = Comparator.comparing(person -> totals.get(person.getId()));
+        return totals.keySet().stream()
+                     .map(people::get)
+                     .filter(Objects::nonNull)
+                     .sorted(byScore.reversed().thenComparing(BY_NAME))
+                     .limit(limit)
+                     .collect(Collectors.toList());
+    }
+
+    /* Indexed words matching one query word, with the score of the match. */
+    private Map<String, Float> match(String queryWord) {
+        Map<String, Float> output = new HashMap<>();
+        for (String word : words.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false).keySet()) {
+            output.put(word, word.length() == queryWord.length() ? EXACT : PREFIX);
+        }
+
+        int maxTypos = getMaxTypos(queryWord);
+        if (maxTypos == 0) {
+            return output;
+        }
+        Set<String> candidates = new HashSet<>();
+        for (String trigram : getTrigrams(queryWord)) {
+            candidates.addAll(wordsByTrigram.getOrDefault(trigram, Collections.emptySet()));
+        }
+        for (String word : candidates) {
+            if (output.containsKey(word) == false) {
+                int typos = getDistance(queryWord, word, maxTypos);
+                if (word.length() > queryWord.length()) {
+                    typos = Math.min(typos, getDistance(queryWord, word.substring(0, queryWord.length()), maxTypos));
+                }
+                if (typos <= maxTypos) {
+                    output.put(word, typos == 1 ? ONE_TYPO : TWO_TYPOS);
+                }
+            }
+        }
+        return output;
+    }
+
+    private static int getMaxTypos(String word) {
+        if (word.length() < 4) {
+            return 0;
+        }
+        return word.length() < 8 ? 1 : 2;
+    }
+
+    /* Optimal string alignment distance; anything above the limit is reported as limit + 1. */
+    static int getDistance(String first, String second, int limit) {
+        if (Math.abs(first.length() - second.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        int[] next = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            current[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            next[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(current[j] + 1, next[j - 1] + 1), current[j - 1] + cost);
+                if (i > 1 && j > 1 && first.charAt(i - 1) == second.charAt(j - 2)
+                              && first.charAt(i - 2) == second.charAt(j - 1)) {
+                    distance = Math.min(distance, previous[j - 2] + 1);
+                }
+                next[j] = distance;
+                rowMinimum = Math.min(rowMinimum, distance);
+            }
+            if (rowMinimum > limit) {
+                return limit + 1;
+            }
+            int[] oldest = previous;
+            previous = current;
+            current = next;
+            next = oldest;
+        }
+        return Math.min(current[second.length()], limit + 1);
+    }
+
+    private static Set<String> getWords(PersonMatch person) {
+        Set<String> output = new LinkedHashSet<>(normalize(person.getFirstName()));
+        output.addAll(normalize(person.getLastName()));
+        return output;
+    }
+
+    private static List<String> getTrigrams(String word) {
+        String padded = PADDING + word + PADDING;
+        List<String> output = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            output.add(padded.substring(i, i + 3));
+        }
+        return output;
+    }
+
+    /* Lower case words with accents stripped, so accented letters match their plain form. */
+    static List<String> normalize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> output = new ArrayList<>();
+        for (String word : SEPARATORS.split(plain.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty() == false) {
+                output.add(word);
+            }
+        }
+        return output;
+    }
+}
@@ -0,0 +1,102 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.foxminded.university.model.PersonMatch;
+import com.foxminded.university.model.Student;
+import com.foxminded.university.model.Teacher;
+
+/*
+ * Name indexes of students and teachers for typeahead search. They are built at
+ * startup with one query each and kept current by the repositories after every
+ * committed write, so a search never touches the database.
+ */
+@Component
+public class PersonDirectory extends LazyLoadedCache {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    private final NameIndex students = new NameIndex();
+    private final NameIndex teachers = new NameIndex();
+
+    @Autowired
+    public PersonDirectory(PlatformTransactionManager transactionManager) {
+        super(transactionManager);
+    }
+
+    public List<PersonMatch> searchStudents(String query, int limit) {
+        ensureLoaded();
+        return students.search(query, limit);
+    }
+
+    public List<PersonMatch> searchTeachers(String query, int limit) {
+        ensureLoaded();
+        return teachers.search(query, limit);
+    }
+
+    /* Names are copied at write time, before the entities can change again. */
+    public void onStudentsSaved(List<Student> savedStudents) {
+        List<PersonMatch> entries = new ArrayList<>(savedStudents.size());
+        savedStudents.forEach(student -> entries.add(new PersonMatch(student.getId(), student.getFirstName(),
+                                                                     student.getLastName())));
+        AfterCommit.run(() -> put(students, entries));
+    }
+
+    public void onStudentDeleted(int studentId) {
+        AfterCommit.run(() -> remove(students, studentId));
+    }
+
+    public void onTeachersSaved(List<Teacher> savedTeachers) {
+        List<PersonMatch> entries = new ArrayList<>(savedTeachers.size());
+        savedTeachers.forEach(teacher -> entries.add(new PersonMatch(teacher.getId(), teacher.getFirstName(),
+                                                                     teacher.getLastName())));
+        AfterCommit.run(() -> put(teachers, entries));
+    }
+
+    public void onTeacherDeleted(int teacherId) {
+        AfterCommit.run(() -> remove(teachers, teacherId));
+    }
+
+    @Override
+    protected void load() {
+        students.clear();
+        teachers.clear();
+
+        entityManager.createQuery("SELECT s.id, s.firstName, s.lastName FROM Student s", Object[].class)
+                     .getResultList()
+                     .forEach(row -> students.put((Integer) row[0], (String) row[1], (String) row[2]));
+        entityManager.createQuery("SELECT t.id, t.firstName, t.lastName FROM Teacher t", Object[].class)
+                     .getResultList()
+                     .forEach(row -> teachers.put((Integer) row[0], (String) row[1], (String) row[2]));
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Person directory loaded ({} students, {} teachers)", students.size(), teachers.size());
+        }
+    }
+
+    private synchronized void put(NameIndex index, List<PersonMatch> entries) {
+        if (isLoaded() == false) {
+            return;
+        }
+        entries.forEach(entry -> index.put(entry.getId(), entry.getFirstName(), entry.getLastName()));
+    }
+
+    private synchronized void remove(NameIndex index, int id) {
+        if (isLoaded() == false) {
+            return;
+        }
+        index.remove(id);
+    }
+}
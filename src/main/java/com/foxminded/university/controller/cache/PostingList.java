@@ -0,0 +1,89 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Immutable list of lesson ids ordered by epoch day. Every entry packs the day
+ * into the high and the lesson id into the low 32 bits of a long.
+ */
+final class PostingList {
+    static final PostingList EMPTY = new PostingList(new long[0]);
+
+    private final long[] entries;
+
+    private PostingList(long[] entries) {
+        this.entries = entries;
+    }
+
+    static long entry(int epochDay, int lessonId) {
+        return ((long) epochDay << 32) | (lessonId & 0xFFFFFFFFL);
+    }
+
+    static PostingList of(List<Long> entries) {
+        long[] sorted = new long[entries.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = entries.get(i);
+        }
+        Arrays.sort(sorted);
+        return new PostingList(sorted);
+    }
+
+    static PostingList merge(PostingList... lists) {
+        int size = 0;
+        for (PostingList list : lists) {
+            size += list.entries.length;
+        }
+        long[] merged = new long[size];
+        int position = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.entries, 0, merged, position, list.entries.length);
+            position += list.entries.length;
+        }
+        Arrays.sort(merged);
+        return new PostingList(merged);
+    }
+
+    PostingList with(long entry) {
+        int index = Arrays.binarySearch(entries, entry);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[entries.length + 1];
+        System.arraycopy(entries, 0, updated, 0, insertAt);
+        updated[insertAt] = entry;
+        System.arraycopy(entries, insertAt, updated, insertAt + 1, entries.length - insertAt);
+        return new PostingList(updated);
+    }
+
+    PostingList without(long entry) {
+        int index = Arrays.binarySearch(entries, entry);
+        if (index < 0) {
+            return this;
+        }
+        long[] updated = new long[entries.length - 1];
+        System.arraycopy(entries, 0, updated, 0, index);
+        System.arraycopy(entries, index + 1, updated, index, entries.length - index - 1);
+        return new PostingList(updated);
+    }
+
+    int[] range(int fromDay, int toDay) {
+        int from = lowerBound(entry(fromDay, 0));
+        int to = lowerBound(entry(toDay + 1, 0));
+        int[] lessonIds = new int[Math.max(0, to - from)];
+        for (int i = from; i < to; i++) {
+            lessonIds[i - from] = (int) entries[i];
+        }
+        return lessonIds;
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    private int lowerBound(long key) {
+        int index = Arrays.binarySearch(entries, key);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,524 @@
+package com.foxminded.university.controller.cache;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+
+@Component
+public class ScheduleIndex extends LazyLoadedCache {
+    private static final int[] NO_IDS = new int[0];
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    private final Map<Integer, LessonEntry> lessons = new ConcurrentHashMap<>();
+    private final Map<Long, int[]> lessonsBySlot = new ConcurrentHashMap<>();
+    private final Map<Integer, PostingList> lessonsByCourse = new ConcurrentHashMap<>();
+    private final Map<Integer, PostingList> lessonsByTeacher = new ConcurrentHashMap<>();
+    private final Map<Integer, PostingList> lessonsByGroup = new ConcurrentHashMap<>();
+    private final Map<Integer, PostingList> lessonsByClassroom = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Integer> teacherByCourse = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> groupsByCourse = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> coursesByGroup = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> groupByStudent = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> capacityByClassroom = new ConcurrentHashMap<>();
+
+    /* Bumped when names or numbers shown next to lessons change; part of every checksum. */
+    private final AtomicLong referenceVersion = new AtomicLong();
+
+    /* Values shown on timetable pages; dropped on every write that can change them. */
+    private final Map<Integer, LessonSnapshot> lessonSnapshots = new ConcurrentHashMap<>();
+    private final AtomicLong snapshotGeneration = new AtomicLong();
+
+    private final AtomicLong snapshotHits = new AtomicLong();
+    private final AtomicLong snapshotMisses = new AtomicLong();
+    private final AtomicLong snapshotEvictions = new AtomicLong();
+
+    @Autowired
+    public ScheduleIndex(PlatformTransactionManager transactionManager) {
+        super(transactionManager);
+    }
+
+    public int[] getLessonIdsByTeacher(int teacherId, DateInterval dateInterval) {
+        ensureLoaded();
+        return range(lessonsByTeacher, teacherId, dateInterval);
+    }
+
+    public int[] getLessonIdsByGroup(int groupId, DateInterval dateInterval) {
+        ensureLoaded();
+        return range(lessonsByGroup, groupId, dateInterval);
+    }
+
+    public int[] getLessonIdsByClassroom(int classroomId, DateInterval dateInterval) {
+        ensureLoaded();
+        return range(lessonsByClassroom, classroomId, dateInterval);
+    }
+
+    public int[] getLessonIdsBySlot(LocalDate date, int timeslotId) {
+        ensureLoaded();
+        return lessonsBySlot.getOrDefault(slotKey((int) date.toEpochDay(), timeslotId), NO_IDS).clone();
+    }
+
+    public int[] getGroupIdsByCourse(int courseId) {
+        ensureLoaded();
+        return groupsByCourse.getOrDefault(courseId, NO_IDS).clone();
+    }
+
+    public int[] getAssignedCourseIds() {
+        ensureLoaded();
+        return groupsByCourse.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    public Integer getGroupIdByStudent(int studentId) {
+        ensureLoaded();
+        return groupByStudent.get(studentId);
+    }
+
+    public long getChecksumByGroup(int groupId, DateInterval dateInterval) {
+        ensureLoaded();
+        return checksum(range(lessonsByGroup, groupId, dateInterval));
+    }
+
+    public long getChecksumByTeacher(int teacherId, DateInterval dateInterval) {
+        ensureLoaded();
+        return checksum(range(lessonsByTeacher, teacherId, dateInterval));
+    }
+
+    public Integer getTeacherIdByCourse(int courseId) {
+        ensureLoaded();
+        return teacherByCourse.get(courseId);
+    }
+
+    public Integer getClassroomCapacity(int classroomId) {
+        ensureLoaded();
+        return capacityByClassroom.get(classroomId);
+    }
+
+    public Integer getCourseIdByLesson(int lessonId) {
+        ensureLoaded();
+        LessonEntry entry = lessons.get(lessonId);
+        return entry == null ? null : entry.courseId;
+    }
+
+    public SlotOccupancy getOccupancy(LocalDate date, int timeslotId, int excludedLessonId) {
+        ensureLoaded();
+        SlotOccupancy occupancy = new SlotOccupancy();
+        for (int lessonId : lessonsBySlot.getOrDefault(slotKey((int) date.toEpochDay(), timeslotId), NO_IDS)) {
+            LessonEntry entry = lessons.get(lessonId);
+            if (entry != null && lessonId != excludedLessonId) {
+                occupancy.occupy(teacherByCourse.getOrDefault(entry.courseId, 0),
+                                 groupsByCourse.getOrDefault(entry.courseId, NO_IDS), entry.classroomId);
+            }
+        }
+        return occupancy;
+    }
+
+    /* Every call gets its own Lesson instances, so a caller cannot change what the next one sees. */
+    public List<Lesson> getLessons(int[] lessonIds, Function<List<Integer>, List<Lesson>> loader) {
+        List<Lesson> output = new ArrayList<>(lessonIds.length);
+        List<Integer> missing = new ArrayList<>();
+        for (int lessonId : lessonIds) {
+            LessonSnapshot snapshot = lessonSnapshots.get(lessonId);
+            if (snapshot == null) {
+                missing.add(lessonId);
+            } else {
+                output.add(snapshot.toLesson());
+            }
+        }
+        snapshotHits.addAndGet(output.size());
+        if (missing.isEmpty()) {
+            return output;
+        }
+
+        snapshotMisses.addAndGet(missing.size());
+        long generation = snapshotGeneration.get();
+        List<Lesson> loadedLessons = loader.apply(missing);
+        boolean unchanged = snapshotGeneration.get() == generation;
+        for (Lesson lesson : loadedLessons) {
+            if (unchanged) {
+                lessonSnapshots.putIfAbsent(lesson.getId(), new LessonSnapshot(lesson));
+            }
+            output.add(lesson);
+        }
+        return output;
+    }
+
+    public long getSnapshotHitCount() {
+        return snapshotHits.get();
+    }
+
+    public long getSnapshotMissCount() {
+        return snapshotMisses.get();
+    }
+
+    public long getSnapshotEvictionCount() {
+        return snapshotEvictions.get();
+    }
+
+    public void onLessonSaved(Lesson lesson) {
+        LessonEntry entry = new LessonEntry(lesson.getId(), (int) lesson.getDate().toEpochDay(),
+                lesson.getTime().getId(), lesson.getCourse().getId(), lesson.getClassroom().getId());
+        AfterCommit.run(() -> replaceLesson(entry));
+    }
+
+    public void onLessonsSaved(List<Lesson> savedLessons) {
+        List<LessonEntry> entries = new ArrayList<>(savedLessons.size());
+        for (Lesson lesson : savedLessons) {
+            entries.add(new LessonEntry(lesson.getId(), (int) lesson.getDate().toEpochDay(),
+                    lesson.getTime().getId(), lesson.getCourse().getId(), lesson.getClassroom().getId()));
+        }
+        AfterCommit.run(() -> entries.forEach(this::replaceLesson));
+    }
+
+    public void onLessonDeleted(int lessonId) {
+        AfterCommit.run(() -> removeLesson(lessonId));
+    }
+
+    public void onLessonsDeleted(List<Integer> lessonIds) {
+        List<Integer> removedIds = new ArrayList<>(lessonIds);
+        AfterCommit.run(() -> removedIds.forEach(this::removeLesson));
+    }
+
+    public void onCourseSaved(int courseId, int teacherId) {
+        AfterCommit.run(() -> setCourseTeacher(courseId, teacherId));
+    }
+
+    public void onCourseAssigned(int groupId, int courseId) {
+        AfterCommit.run(() -> setGroupCourse(groupId, courseId, true));
+    }
+
+    public void onCourseUnassigned(int groupId, int courseId) {
+        AfterCommit.run(() -> setGroupCourse(groupId, courseId, false));
+    }
+
+    /* Pairs of group id and course id. */
+    public void onCoursesAssigned(List<int[]> groupCourses) {
+        List<int[]> pairs = new ArrayList<>(groupCourses);
+        AfterCommit.run(() -> pairs.forEach(pair -> setGroupCourse(pair[0], pair[1], true)));
+    }
+
+    public void onCoursesUnassigned(List<int[]> groupCourses) {
+        List<int[]> pairs = new ArrayList<>(groupCourses);
+        AfterCommit.run(() -> pairs.forEach(pair -> setGroupCourse(pair[0], pair[1], false)));
+    }
+
+    public void onStudentSaved(int studentId, int groupId) {
+        AfterCommit.run(() -> groupByStudent.put(studentId, groupId));
+    }
+
+    public void onStudentDeleted(int studentId) {
+        AfterCommit.run(() -> groupByStudent.remove(studentId));
+    }
+
+    public void onClassroomSaved(int classroomId, int capacity) {
+        AfterCommit.run(() -> capacityByClassroom.put(classroomId, capacity));
+    }
+
+    public void onClassroomDeleted(int classroomId) {
+        AfterCommit.run(() -> capacityByClassroom.remove(classroomId));
+    }
+
+    public void onReferenceDataChanged() {
+        AfterCommit.run(() -> {
+            referenceVersion.incrementAndGet();
+            clearSnapshots();
+        });
+    }
+
+    public synchronized void reload() {
+        invalidate();
+        ensureLoaded();
+    }
+
+    @Override
+    protected void load() {
+        lessons.clear();
+        lessonsBySlot.clear();
+        lessonsByCourse.clear();
+        lessonsByTeacher.clear();
+        lessonsByGroup.clear();
+        lessonsByClassroom.clear();
+        teacherByCourse.clear();
+        groupsByCourse.clear();
+        coursesByGroup.clear();
+        groupByStudent.clear();
+        capacityByClassroom.clear();
+        referenceVersion.incrementAndGet();
+        clearSnapshots();
+
+        entityManager.createQuery("SELECT c.id, c.teacher.id FROM Course c", Object[].class)
+                     .getResultList()
+                     .forEach(row -> teacherByCourse.put((Integer) row[0], (Integer) row[1]));
+        entityManager.createQuery("SELECT g.id, c.id FROM Group g JOIN g.courses c", Object[].class)
+                     .getResultList()
+                     .forEach(row -> {
+                         groupsByCourse.merge((Integer) row[1], new int[] {(Integer) row[0]}, ScheduleIndex::union);
+                         coursesByGroup.merge((Integer) row[0], new int[] {(Integer) row[1]}, ScheduleIndex::union);
+                     });
+
+        entityManager.createQuery("SELECT s.id, s.group.id FROM Student s", Object[].class)
+                     .getResultList()
+                     .forEach(row -> groupByStudent.put((Integer) row[0], (Integer) row[1]));
+        entityManager.createQuery("SELECT c.id, c.capacity FROM Classroom c", Object[].class)
+                     .getResultList()
+                     .forEach(row -> capacityByClassroom.put((Integer) row[0], (Integer) row[1]));
+
+        Map<Integer, List<Long>> courseEntries = new HashMap<>();
+        Map<Integer, List<Long>> classroomEntries = new HashMap<>();
+        List<Object[]> rows = entityManager
+                .createQuery("SELECT l.id, l.date, l.time.id, l.course.id, l.classroom.id FROM Lesson l", Object[].class)
+                .getResultList();
+        for (Object[] row : rows) {
+            LessonEntry entry = new LessonEntry((Integer) row[0], (int) ((LocalDate) row[1]).toEpochDay(),
+                                                (Integer) row[2], (Integer) row[3], (Integer) row[4]);
+            lessons.put(entry.id, entry);
+            lessonsBySlot.merge(slotKey(entry.day, entry.timeslotId), new int[] {entry.id}, ScheduleIndex::union);
+            courseEntries.computeIfAbsent(entry.courseId, id -> new ArrayList<>()).add(entry.posting());
+            classroomEntries.computeIfAbsent(entry.classroomId, id -> new ArrayList<>()).add(entry.posting());
+        }
+        courseEntries.forEach((courseId, entries) -> lessonsByCourse.put(courseId, PostingList.of(entries)));
+        classroomEntries.forEach((classroomId, entries) -> lessonsByClassroom.put(classroomId, PostingList.of(entries)));
+        teacherByCourse.values().stream().distinct().forEach(this::rebuildTeacher);
+        coursesByGroup.keySet().forEach(this::rebuildGroup);
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Schedule index loaded ({} lessons, {} courses)", lessons.size(), teacherByCourse.size());
+        }
+    }
+
+    private synchronized void replaceLesson(LessonEntry entry) {
+        removeLesson(entry.id);
+        if (isLoaded() == false) {
+            return;
+        }
+        long posting = entry.posting();
+        lessons.put(entry.id, entry);
+        lessonsBySlot.merge(slotKey(entry.day, entry.timeslotId), new int[] {entry.id}, ScheduleIndex::union);
+        addPosting(lessonsByCourse, entry.courseId, posting);
+        addPosting(lessonsByClassroom, entry.classroomId, posting);
+        Integer teacherId = teacherByCourse.get(entry.courseId);
+        if (teacherId != null) {
+            addPosting(lessonsByTeacher, teacherId, posting);
+        }
+        for (int groupId : groupsByCourse.getOrDefault(entry.courseId, NO_IDS)) {
+            addPosting(lessonsByGroup, groupId, posting);
+        }
+    }
+
+    private synchronized void removeLesson(int lessonId) {
+        if (lessonSnapshots.remove(lessonId) != null) {
+            snapshotEvictions.incrementAndGet();
+        }
+        snapshotGeneration.incrementAndGet();
+        LessonEntry entry = lessons.remove(lessonId);
+        if (entry == null) {
+            return;
+        }
+        long posting = entry.posting();
+        lessonsBySlot.computeIfPresent(slotKey(entry.day, entry.timeslotId), (key, ids) -> {
+            int[] remaining = Arrays.stream(ids).filter(id -> id != lessonId).toArray();
+            return remaining.length == 0 ? null : remaining;
+        });
+        removePosting(lessonsByCourse, entry.courseId, posting);
+        removePosting(lessonsByClassroom, entry.classroomId, posting);
+        Integer teacherId = teacherByCourse.get(entry.courseId);
+        if (teacherId != null) {
+            removePosting(lessonsByTeacher, teacherId, posting);
+        }
+        for (int groupId : groupsByCourse.getOrDefault(entry.courseId, NO_IDS)) {
+            removePosting(lessonsByGroup, groupId, posting);
+        }
+    }
+
+    private void addPosting(Map<Integer, PostingList> postings, int key, long posting) {
+        postings.compute(key, (id, list) -> (list == null ? PostingList.EMPTY : list).with(posting));
+    }
+
+    private void removePosting(Map<Integer, PostingList> postings, int key, long posting) {
+        postings.computeIfPresent(key, (id, list) -> list.without(posting));
+    }
+
+    private synchronized void setCourseTeacher(int courseId, int teacherId) {
+        if (isLoaded() == false) {
+            return;
+        }
+        Integer previousTeacherId = teacherByCourse.put(courseId, teacherId);
+        if (previousTeacherId != null && previousTeacherId != teacherId) {
+            rebuildTeacher(previousTeacherId);
+        }
+        rebuildTeacher(teacherId);
+    }
+
+    private synchronized void setGroupCourse(int groupId, int courseId, boolean assigned) {
+        if (isLoaded() == false) {
+            return;
+        }
+        if (assigned) {
+            groupsByCourse.merge(courseId, new int[] {groupId}, ScheduleIndex::union);
+            coursesByGroup.merge(groupId, new int[] {courseId}, ScheduleIndex::union);
+        } else {
+            groupsByCourse.computeIfPresent(courseId, (key, ids) -> without(ids, groupId));
+            coursesByGroup.computeIfPresent(groupId, (key, ids) -> without(ids, courseId));
+        }
+        rebuildGroup(groupId);
+    }
+
+    private void rebuildTeacher(int teacherId) {
+        List<PostingList> courseLists = new ArrayList<>();
+        teacherByCourse.forEach((courseId, courseTeacherId) -> {
+            if (courseTeacherId == teacherId) {
+                courseLists.add(lessonsByCourse.getOrDefault(courseId, PostingList.EMPTY));
+            }
+        });
+        lessonsByTeacher.put(teacherId, PostingList.merge(courseLists.toArray(new PostingList[0])));
+    }
+
+    private void rebuildGroup(int groupId) {
+        int[] courseIds = coursesByGroup.getOrDefault(groupId, NO_IDS);
+        PostingList[] courseLists = new PostingList[courseIds.length];
+        for (int i = 0; i < courseIds.length; i++) {
+            courseLists[i] = lessonsByCourse.getOrDefault(courseIds[i], PostingList.EMPTY);
+        }
+        lessonsByGroup.put(groupId, PostingList.merge(courseLists));
+    }
+
+    private synchronized void clearSnapshots() {
+        snapshotGeneration.incrementAndGet();
+        snapshotEvictions.addAndGet(lessonSnapshots.size());
+        lessonSnapshots.clear();
+    }
+
+    private int[] range(Map<Integer, PostingList> postings, int key, DateInterval dateInterval) {
+        return postings.getOrDefault(key, PostingList.EMPTY)
+                       .range((int) dateInterval.getStartDate().toEpochDay(),
+                              (int) dateInterval.getEndDate().toEpochDay());
+    }
+
+    private long checksum(int[] lessonIds) {
+        long checksum = referenceVersion.get();
+        for (int lessonId : lessonIds) {
+            LessonEntry entry = lessons.get(lessonId);
+            if (entry != null) {
+                checksum = 31 * checksum + entry.hash();
+            }
+        }
+        return checksum;
+    }
+
+    private static long slotKey(int epochDay, int timeslotId) {
+        return ((long) epochDay << 32) | (timeslotId & 0xFFFFFFFFL);
+    }
+
+    private static int[] union(int[] first, int[] second) {
+        return IntStream.concat(Arrays.stream(first), Arrays.stream(second)).distinct().toArray();
+    }
+
+    private static int[] without(int[] ids, int value) {
+        int[] remaining = Arrays.stream(ids).filter(id -> id != value).toArray();
+        return remaining.length == 0 ? null : remaining;
+    }
+
+    private static final class LessonSnapshot {
+        private final int id;
+        private final int version;
+        private final LocalDate date;
+        private final int timeslotId;
+        private final String timeslotDescription;
+        private final int courseId;
+        private final String courseName;
+        private final String courseDescription;
+        private final int classroomId;
+        private final String classroomNumber;
+        private final int classroomCapacity;
+
+        private LessonSnapshot(Lesson lesson) {
+            this.id = lesson.getId();
+            this.version = lesson.getVersion();
+            this.date = lesson.getDate();
+            this.timeslotId = lesson.getTime().getId();
+            this.timeslotDescription = lesson.getTime().getDescription();
+            this.courseId = lesson.getCourse().getId();
+            this.courseName = lesson.getCourse().getName();
+            this.courseDescription = lesson.getCourse().getDescription();
+            this.classroomId = lesson.getClassroom().getId();
+            this.classroomNumber = lesson.getClassroom().getNumber();
+            this.classroomCapacity = lesson.getClassroom().getCapacity();
+        }
+
+        private Lesson toLesson() {
+            Timeslot time = new Timeslot();
+            time.setId(timeslotId);
+            time.setDescription(timeslotDescription);
+            Course course = new Course();
+            course.setId(courseId);
+            course.setName(courseName);
+            course.setDescription(courseDescription);
+            Classroom classroom = new Classroom();
+            classroom.setId(classroomId);
+            classroom.setNumber(classroomNumber);
+            classroom.setCapacity(classroomCapacity);
+
+            Lesson lesson = new Lesson();
+            lesson.setId(id);
+            lesson.setVersion(version);
+            lesson.setDate(date);
+            lesson.setTime(time);
+            lesson.setCourse(course);
+            lesson.setClassroom(classroom);
+            return lesson;
+        }
+    }
+
+    private static final class LessonEntry {
+        private final int id;
+        private final int day;
+        private final int timeslotId;
+        private final int courseId;
+        private final int classroomId;
+
+        private LessonEntry(int id, int day, int timeslotId, int courseId, int classroomId) {
+            this.id = id;
+            this.day = day;
+            this.timeslotId = timeslotId;
+            this.courseId = courseId;
+            this.classroomId = classroomId;
+        }
+
+        private long posting() {
+            return PostingList.entry(day, id);
+        }
+
+        private long hash() {
+            long hash = id;
+            hash = 31 * hash + day;
+            hash = 31 * hash + timeslotId;
+            hash = 31 * hash + courseId;
+            return 31 * hash + classroomId;
+        }
+    }
+}
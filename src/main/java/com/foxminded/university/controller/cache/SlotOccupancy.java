@@ -0,0 +1,29 @@
+package com.foxminded.university.controller.cache;
+
+import java.util.BitSet;
+
+public class SlotOccupancy {
+    private final BitSet teachers = new BitSet();
+    private final BitSet groups = new BitSet();
+    private final BitSet classrooms = new BitSet();
+
+    void occupy(int teacherId, int[] groupIds, int classroomId) {
+        teachers.set(teacherId);
+        for (int groupId : groupIds) {
+            groups.set(groupId);
+        }
+        classrooms.set(classroomId);
+    }
+
+    public boolean isTeacherBusy(int teacherId) {
+        return teachers.get(teacherId);
+    }
+
+    public boolean isGroupBusy(int groupId) {
+        return groups.get(groupId);
+    }
+
+    public boolean isClassroomBusy(int classroomId) {
+        return classrooms.get(classroomId);
+    }
+}
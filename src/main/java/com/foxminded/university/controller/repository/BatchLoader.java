@@ -0,0 +1,56 @@
+package com.foxminded.university.controller.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+ * Collects keys through load() and fetches the values of all of them with one
+ * batch query on dispatch(). Loaded values are kept for the lifetime of the
+ * loader, so a key is queried at most once.
+ */
+public class BatchLoader<K, V> {
+    private final Function<Collection<K>, Map<K, List<V>>> batchFunction;
+    private final Map<K, List<V>> values = new HashMap<>();
+    private final Map<K, List<Consumer<List<V>>>> pending = new LinkedHashMap<>();
+
+    public BatchLoader(Function<Collection<K>, Map<K, List<V>>> batchFunction) {
+        this.batchFunction = batchFunction;
+    }
+
+    public synchronized void load(K key, Consumer<List<V>> callback) {
+        pending.computeIfAbsent(key, k -> new ArrayList<>()).add(callback);
+    }
+
+    public synchronized Map<K, List<V>> loadMany(Collection<K> keys) {
+        Map<K, List<V>> output = new LinkedHashMap<>();
+        keys.forEach(key -> load(key, keyValues -> output.put(key, keyValues)));
+        dispatch();
+        return output;
+    }
+
+    public synchronized void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<K> missingKeys = new ArrayList<>();
+        for (K key : pending.keySet()) {
+            if (values.containsKey(key) == false) {
+                missingKeys.add(key);
+            }
+        }
+        if (missingKeys.isEmpty() == false) {
+            Map<K, List<V>> loaded = batchFunction.apply(missingKeys);
+            missingKeys.forEach(key -> values.put(key,
+                    Collections.unmodifiableList(loaded.getOrDefault(key, Collections.emptyList()))));
+        }
+        pending.forEach((key, callbacks) -> callbacks.forEach(callback -> callback.accept(values.get(key))));
+        pending.clear();
+    }
+}
@@ -0,0 +1,36 @@
+package com.foxminded.university.controller.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/*
+ * Hands out one BatchLoader per name and web request, so lookups made while
+ * rendering a page share the loaded values. Outside of a request every call
+ * gets a new loader.
+ */
+@Component
+public class BatchLoaders {
+    private static final String ATTRIBUTE_PREFIX = BatchLoaders.class.getName() + ".";
+
+    @SuppressWarnings("unchecked")
+    public <K, V> BatchLoader<K, V> get(String name, Function<Collection<K>, Map<K, List<V>>> batchFunction) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new BatchLoader<>(batchFunction);
+        }
+        String attributeName = ATTRIBUTE_PREFIX + name;
+        BatchLoader<K, V> loader = (BatchLoader<K, V>) attributes.getAttribute(attributeName,
+                                                                     RequestAttributes.SCOPE_REQUEST);
+        if (loader == null) {
+            loader = new BatchLoader<>(batchFunction);
+            attributes.setAttribute(attributeName, loader, RequestAttributes.SCOPE_REQUEST);
+        }
+        return loader;
+    }
+}
@@ -1,14 +1,19 @@
 package com.foxminded.university.controller.repository;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
+import com.foxminded.university.controller.cache.ScheduleIndex;
 import com.foxminded.university.model.*;
 
 import java.util.List;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 
+import org.hibernate.annotations.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,15 +25,69 @@ public class ClassroomRepository {
     @PersistenceContext 
     EntityManager entityManager;
     
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
+    @Autowired
+    ChangeTracker changeTracker;
+    
     @Transactional(readOnly=true) 
     public List<Classroom> getAll() {
         if (logger.isDebugEnabled()) { logger.debug("Get all classrooms"); }
         
         return entityManager
                .createQuery("FROM Classroom c ORDER BY c.number ASC", Classroom.class)
+               .setHint(QueryHints.CACHEABLE, true)
+               .getResultList();
+    }
+    
+    @Transactional(readOnly=true) 
+    public List<ClassroomView> getAllViews() {
+        if (logger.isDebugEnabled()) { logger.debug("Get all classroom views"); }
+        
+        return entityManager
+               .createQuery("SELECT NEW com.foxminded.university.model.ClassroomView(c.id, c.number, c.capacity) "
+                          + "FROM Classroom c ORDER BY c.number ASC", ClassroomView.class)
+               .setHint(QueryHints.CACHEABLE, true)
                .getResultList();
     }
     
+    /* Ordered by (number, id) with a missing number read as "", so numberless classrooms come first on every database. */
+    @Transactional(readOnly=true) 
+    public KeysetPage<ClassroomView> getViewPage(String after, int size) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get page of classroom views after {} (size = {})", after, size);
+        }
+        
+        KeysetCursor cursor = KeysetCursor.parse(after, true);
+        TypedQuery<ClassroomView> query;
+        if (cursor == null) {
+            query = entityManager
+                    .createQuery("SELECT NEW com.foxminded.university.model.ClassroomView(c.id, c.number, c.capacity) "
+                               + "FROM Classroom c ORDER BY COALESCE(c.number, ''), c.id", ClassroomView.class);
+        } else {
+            query = entityManager
+                    .createQuery("SELECT NEW com.foxminded.university.model.ClassroomView(c.id, c.number, c.capacity) "
+                               + "FROM Classroom c "
+                               + "WHERE COALESCE(c.number, '') >= :number "
+                               + "AND (COALESCE(c.number, '') > :number OR c.id > :classroomId) "
+                               + "ORDER BY COALESCE(c.number, ''), c.id", ClassroomView.class)
+                    .setParameter("number", cursor.getValue())
+                    .setParameter("classroomId", cursor.getId());
+        }
+        List<ClassroomView> classrooms = query
+                                         .setMaxResults(size + 1)
+                                         .getResultList();
+        
+        String nextCursor = null;
+        if (classrooms.size() > size) {
+            classrooms = classrooms.subList(0, size);
+            ClassroomView last = classrooms.get(size - 1);
+            nextCursor = KeysetCursor.of(last.getNumber() == null ? "" : last.getNumber(), last.getId());
+        }
+        return new KeysetPage<>(classrooms, after, nextCursor);
+    }
+    
     @Transactional(readOnly=true)
     public Classroom getById(int id) {
         if (logger.isDebugEnabled()) {
@@ -54,6 +113,8 @@ public class ClassroomRepository {
         }
         
         entityManager.persist(classroom);
+        scheduleIndex.onClassroomSaved(classroom.getId(), classroom.getCapacity());
+        changeTracker.onChanged(Classroom.class);
     }
     
     public void delete(Classroom classroom) {
@@ -61,15 +122,31 @@ public class ClassroomRepository {
             logger.debug("Delete classroom with ID = {}", classroom.getId());
         }
 
-        entityManager.createQuery("DELETE FROM Classroom c WHERE c.id = :classroomId")
-        .setParameter("classroomId", classroom.getId())
-        .executeUpdate();
+        Classroom currentClassroom = entityManager.find(Classroom.class, classroom.getId());
+        if (currentClassroom != null) {
+            entityManager.remove(currentClassroom);
+            entityManager.flush();
+        }
+        scheduleIndex.onClassroomDeleted(classroom.getId());
+        changeTracker.onChanged(Classroom.class);
     }
     
-    public void update(Classroom classroom) {
+    public int update(Classroom classroom) {
         if (logger.isDebugEnabled()) {
             logger.debug("Update classroom with ID = {}", classroom.getId());
         }
-        entityManager.merge(classroom);
+        int updated = entityManager
+                      .createQuery("UPDATE Classroom c SET c.number = :number, c.capacity = :capacity "
+                                 + "WHERE c.id = :classroomId")
+                      .setParameter("number", classroom.getNumber())
+                      .setParameter("capacity", classroom.getCapacity())
+                      .setParameter("classroomId", classroom.getId())
+                      .executeUpdate();
+        if (updated > 0) {
+            scheduleIndex.onClassroomSaved(classroom.getId(), classroom.getCapacity());
+            scheduleIndex.onReferenceDataChanged();
+            changeTracker.onChanged(Classroom.class);
+        }
+        return updated;
     }
 }
@@ -1,17 +1,26 @@
 package com.foxminded.university.controller.repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
+import com.foxminded.university.controller.cache.ScheduleIndex;
 import com.foxminded.university.model.Course;
+import com.foxminded.university.model.CourseView;
 import com.foxminded.university.model.Group;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Teacher;
 
 @Transactional
@@ -22,12 +31,42 @@ public class CourseRepository {
     @PersistenceContext 
     EntityManager entityManager;
     
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
+    @Autowired
+    ChangeTracker changeTracker;
+    
     @Transactional
     public void add(Course course) {        
         if (logger.isDebugEnabled()) {
                 logger.debug("Inset new course ({}, {}, {})", course.getName(), course.getDescription(), course.getTeacher().getId());
             }
         entityManager.persist(course);
+        scheduleIndex.onCourseSaved(course.getId(), course.getTeacher().getId());
+        changeTracker.onChanged(Course.class);
+    }
+    
+    @Transactional(readOnly=true)
+    public KeysetPage<CourseView> getViewPage(String after, int size) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get page of course views after {} (size = {})", after, size);
+        }
+        
+        KeysetCursor cursor = KeysetCursor.parse(after, false);
+        List<CourseView> courses = entityManager
+             .createQuery("SELECT NEW com.foxminded.university.model.CourseView(c.id, c.name, c.description) "
+                        + "FROM Course c WHERE c.id > :courseId ORDER BY c.id", CourseView.class)
+             .setParameter("courseId", cursor == null ? 0 : cursor.getId())
+             .setMaxResults(size + 1)
+             .getResultList();
+        
+        String nextCursor = null;
+        if (courses.size() > size) {
+            courses = courses.subList(0, size);
+            nextCursor = KeysetCursor.of(courses.get(size - 1).getId());
+        }
+        return new KeysetPage<>(courses, after, nextCursor);
     }
     
     @Transactional(readOnly=true)
@@ -44,6 +83,22 @@ public class CourseRepository {
     }
     
     
+    @Transactional(readOnly=true)
+    public Map<Integer, List<Course>> getByTeachers(Collection<Integer> teacherIds) {
+        if (logger.isDebugEnabled()) { 
+            logger.debug("Query courses by {} teachers", teacherIds.size());
+        }
+        
+        Map<Integer, List<Course>> output = new HashMap<>();
+        entityManager
+        .createQuery("SELECT c.teacher.id, c FROM Course c "
+                   + "WHERE c.teacher.id IN :teacherIds ORDER BY c.id", Object[].class)
+        .setParameter("teacherIds", teacherIds)
+        .getResultList()
+        .forEach(row -> output.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Course) row[1]));
+        return output;
+    }
+    
     @Transactional(readOnly=true)
     public List<Course> getByGroup(Group group) {
         if (logger.isDebugEnabled()) { 
@@ -88,13 +143,29 @@ public class CourseRepository {
         .createQuery("DELETE FROM Course c WHERE c.id = :courseId")
         .setParameter("courseId", course.getId())
         .executeUpdate();
+        changeTracker.onChanged(Course.class);
     }
 
     @Transactional
-    public void update(Course course) {
+    public int update(Course course) {
         if (logger.isDebugEnabled()) {
-            logger.debug("Delete course with id = {}", course.getId());
+            logger.debug("Update course with id = {}", course.getId());
+        }
+        int updated = entityManager
+                      .createQuery("UPDATE Course c SET c.name = :name, c.description = :description, "
+                                 + "c.teacher = :teacher, c.version = c.version + 1 "
+                                 + "WHERE c.id = :courseId AND c.version = :version")
+                      .setParameter("name", course.getName())
+                      .setParameter("description", course.getDescription())
+                      .setParameter("teacher", entityManager.getReference(Teacher.class, course.getTeacher().getId()))
+                      .setParameter("courseId", course.getId())
+                      .setParameter("version", course.getVersion())
+                      .executeUpdate();
+        if (updated > 0) {
+            scheduleIndex.onCourseSaved(course.getId(), course.getTeacher().getId());
+            scheduleIndex.onReferenceDataChanged();
+            changeTracker.onChanged(Course.class);
         }
-        entityManager.merge(course);
+        return updated;
     }
 }
@@ -5,11 +5,14 @@ import java.util.List;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.annotations.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
 import com.foxminded.university.model.Faculty;
 
 @Repository
@@ -19,12 +22,16 @@ public class FacultyRepository {
     @PersistenceContext 
     EntityManager entityManager;
     
+    @Autowired
+    ChangeTracker changeTracker;
+    
     @Transactional
     public void add(Faculty faculty) {        
         if (logger.isDebugEnabled()) {
             logger.debug("Create new faculty ({}, {})", faculty.getShortName(), faculty.getFullName());
         }
         entityManager.persist(faculty);
+        changeTracker.onChanged(Faculty.class);
     }
     
     @Transactional(readOnly=true)
@@ -34,7 +41,9 @@ public class FacultyRepository {
         }
         
         return entityManager
-               .createQuery("from Faculty f ORDER BY f.id", Faculty.class).getResultList();
+               .createQuery("from Faculty f ORDER BY f.id", Faculty.class)
+               .setHint(QueryHints.CACHEABLE, true)
+               .getResultList();
     }
     
     @Transactional(readOnly=true)
@@ -52,18 +61,30 @@ public class FacultyRepository {
             logger.debug("Delete faculty, id = {}", faculty.getId());
         }
         
-        entityManager
-        .createQuery("DELETE FROM Faculty f WHERE f.id = :facultyId")
-        .setParameter("facultyId", faculty.getId())
-        .executeUpdate();
+        Faculty currentFaculty = entityManager.find(Faculty.class, faculty.getId());
+        if (currentFaculty != null) {
+            entityManager.remove(currentFaculty);
+            entityManager.flush();
+        }
+        changeTracker.onChanged(Faculty.class);
     }
     
     @Transactional
-    public void update(Faculty faculty) {
+    public int update(Faculty faculty) {
         if (logger.isDebugEnabled()) {
             logger.debug("Update faculty with id = {}", faculty.getId());
         } 
         
-        entityManager.merge(faculty);
+        int updated = entityManager
+                      .createQuery("UPDATE Faculty f SET f.shortName = :shortName, f.fullName = :fullName "
+                                 + "WHERE f.id = :facultyId")
+                      .setParameter("shortName", faculty.getShortName())
+                      .setParameter("fullName", faculty.getFullName())
+                      .setParameter("facultyId", faculty.getId())
+                      .executeUpdate();
+        if (updated > 0) {
+            changeTracker.onChanged(Faculty.class);
+        }
+        return updated;
     }
 }
@@ -1,27 +1,53 @@
 package com.foxminded.university.controller.repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
+import com.foxminded.university.controller.cache.EnrolmentStatistics;
+import com.foxminded.university.controller.cache.ScheduleIndex;
 import com.foxminded.university.model.Course;
+import com.foxminded.university.model.CourseView;
 import com.foxminded.university.model.Faculty;
 import com.foxminded.university.model.Group;
+import com.foxminded.university.model.GroupSummary;
+import com.foxminded.university.model.GroupView;
 import com.foxminded.university.model.Student;
+import com.foxminded.university.model.StudentView;
 
 @Repository
 public class GroupRepository {
+    private static final String GROUPS_COURSES = "groups_courses";
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     @PersistenceContext 
     EntityManager entityManager;
     
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
+    @Autowired
+    ChangeTracker changeTracker;
+    
+    @Autowired
+    EnrolmentStatistics enrolmentStatistics;
+    
     @Transactional
     public void add(Group group) {
         if (logger.isDebugEnabled()) {
@@ -29,6 +55,8 @@ public class GroupRepository {
         }
         
         entityManager.persist(group);
+        enrolmentStatistics.onGroupSaved(group.getId(), group.getFaculty().getId());
+        changeTracker.onChanged(Group.class);
     }
     
     @Transactional(readOnly=true)
@@ -40,6 +68,74 @@ public class GroupRepository {
                .getResultList();
     }
     
+    @Transactional(readOnly=true)
+    public List<Group> getAll(String entityGraph) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get all groups ({})", entityGraph);
+        }
+        
+        return entityManager
+               .createQuery("SELECT DISTINCT g FROM Group g ORDER BY g.id", Group.class)
+               .setHint(GraphSemantic.FETCH.getJpaHintName(), entityManager.getEntityGraph(entityGraph))
+               .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)
+               .getResultList();
+    }
+    
+    @Transactional(readOnly=true)
+    public List<GroupSummary> getSummaries() {
+        logger.debug("Get group summaries");
+        
+        return entityManager
+               .createQuery("SELECT NEW com.foxminded.university.model.GroupSummary(g.id, g.groupName, "
+                          + "COALESCE(f.id, 0)) FROM Group g LEFT JOIN g.faculty f ORDER BY g.id", GroupSummary.class)
+               .getResultList();
+    }
+    
+    /* Rows of one group are adjacent, so each view is completed before the next one starts. */
+    @Transactional(readOnly=true)
+    public List<GroupView> getViewsWithCourses() {
+        logger.debug("Get group views with courses");
+        
+        List<GroupView> output = new ArrayList<>();
+        List<CourseView> courses = new ArrayList<>();
+        for (Object[] row : entityManager
+             .createQuery("SELECT g.id, g.groupName, c.id, c.name, c.description "
+                        + "FROM Group g LEFT JOIN g.courses c ORDER BY g.id, c.id", Object[].class)
+             .getResultList()) {
+            int groupId = (Integer) row[0];
+            if (output.isEmpty() || output.get(output.size() - 1).getId() != groupId) {
+                courses = new ArrayList<>();
+                output.add(new GroupView(groupId, (String) row[1], courses, Collections.emptyList()));
+            }
+            if (row[2] != null) {
+                courses.add(new CourseView((Integer) row[2], (String) row[3], (String) row[4]));
+            }
+        }
+        return output;
+    }
+    
+    @Transactional(readOnly=true)
+    public List<GroupView> getViewsWithStudents() {
+        logger.debug("Get group views with students");
+        
+        List<GroupView> output = new ArrayList<>();
+        List<StudentView> students = new ArrayList<>();
+        for (Object[] row : entityManager
+             .createQuery("SELECT g.id, g.groupName, s.id, s.firstName, s.lastName "
+                        + "FROM Group g LEFT JOIN g.students s ORDER BY g.id, s.id", Object[].class)
+             .getResultList()) {
+            int groupId = (Integer) row[0];
+            if (output.isEmpty() || output.get(output.size() - 1).getId() != groupId) {
+                students = new ArrayList<>();
+                output.add(new GroupView(groupId, (String) row[1], Collections.emptyList(), students));
+            }
+            if (row[2] != null) {
+                students.add(new StudentView((Integer) row[2], (String) row[3], (String) row[4]));
+            }
+        }
+        return output;
+    }
+    
     @Transactional(readOnly=true)
     public Group getById(int id) {
         if (logger.isDebugEnabled()) {
@@ -49,6 +145,17 @@ public class GroupRepository {
         return entityManager.find(Group.class, id);
     }
     
+    @Transactional(readOnly=true)
+    public Group getById(int id, String entityGraph) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get group by id ({}, {})", id, entityGraph);
+        }
+        
+        return entityManager.find(Group.class, id,
+                                  Collections.singletonMap(GraphSemantic.FETCH.getJpaHintName(),
+                                                           entityManager.getEntityGraph(entityGraph)));
+    }
+    
     @Transactional(readOnly=true)
     public List<Group> getByFaculty(Faculty faculty) {
         if (logger.isDebugEnabled()) {
@@ -62,6 +169,16 @@ public class GroupRepository {
                .getResultList();
     }
     
+    @Transactional(readOnly=true)
+    public List<Group> getAllWithCourses() {
+        logger.debug("Get all groups with courses");
+        
+        return entityManager
+               .createQuery("SELECT DISTINCT g FROM Group g LEFT JOIN FETCH g.courses c ORDER BY g.id, c.id", Group.class)
+               .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)
+               .getResultList();
+    }
+    
     @Transactional(readOnly=true)
     public Group getByStudent(Student student) {
         if (logger.isDebugEnabled()) {
@@ -74,6 +191,19 @@ public class GroupRepository {
                .getSingleResult();
     }
     
+    @Transactional(readOnly=true)
+    public Group getByStudent(Student student, String entityGraph) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get group by student (id = {}, {})", student.getId(), entityGraph);
+        }
+        
+        return entityManager
+               .createQuery("SELECT g FROM Group g JOIN g.students s WHERE s.id = :studentId", Group.class)
+               .setParameter("studentId", student.getId())
+               .setHint(GraphSemantic.FETCH.getJpaHintName(), entityManager.getEntityGraph(entityGraph))
+               .getSingleResult();
+    }
+    
     @Transactional
     public void delete(Group group) {
         if (logger.isDebugEnabled()) {
@@ -84,45 +214,117 @@ public class GroupRepository {
         .createQuery("DELETE FROM Group g WHERE g.id = :groupId")
         .setParameter("groupId", group.getId())
         .executeUpdate();
+        enrolmentStatistics.onGroupDeleted(group.getId());
+        changeTracker.onChanged(Group.class);
     }
     
     @Transactional
-    public void update(Group group) {
+    public int update(Group group) {
         if (logger.isDebugEnabled()) {
             logger.debug("Update group with id {}", group.getId());
         }
         
-        entityManager.merge(group);
+        Integer facultyId = group.getFaculty() == null ? null : group.getFaculty().getId();
+        int updated = entityManager
+                      .createQuery("UPDATE Group g SET g.groupName = :groupName, g.faculty = :faculty, "
+                                 + "g.version = g.version + 1 WHERE g.id = :groupId AND g.version = :version")
+                      .setParameter("groupName", group.getGroupName())
+                      .setParameter("faculty", facultyId == null ? null 
+                                                                 : entityManager.getReference(Faculty.class, facultyId))
+                      .setParameter("groupId", group.getId())
+                      .setParameter("version", group.getVersion())
+                      .executeUpdate();
+        if (updated > 0) {
+            enrolmentStatistics.onGroupSaved(group.getId(), facultyId);
+            changeTracker.onChanged(Group.class);
+        }
+        return updated;
     }
     
     @Transactional
     public void assignCourseToGroup(Group group, Course course) {
+        assignCourses(Collections.singletonList(group.getId()), Collections.singletonList(course.getId()));
+    }
+    
+    @Transactional
+    public void deleteGroupsCourse(int groupId, int courseId) {
+        unassignCourses(Collections.singletonList(groupId), Collections.singletonList(courseId));
+    }
+    
+    /*
+     * Assigns every course to every group with one INSERT ... SELECT that skips
+     * pairs already assigned and ids that do not exist, then reads the assigned
+     * pairs back for the schedule index. No group or course is loaded. Returns
+     * the number of new assignments.
+     */
+    @Transactional
+    public int assignCourses(Collection<Integer> groupIds, Collection<Integer> courseIds) {
         if (logger.isDebugEnabled()) {
-            logger.debug("Assign course (id = {}) to group (id = {})", course.getId(), group.getId());
+            logger.debug("Assign courses {} to groups {}", courseIds, groupIds);
+        }
+        if (groupIds.isEmpty() || courseIds.isEmpty()) {
+            return 0;
         }
         
-        Group currentGroup = getById(group.getId());
-        Course currentCourse = entityManager.find(Course.class, course.getId());
-        currentGroup.getCourses().add(currentCourse);
+        int assigned = entityManager
+                       .createNativeQuery("INSERT INTO groups_courses (group_id, course_id) "
+                                        + "SELECT g.group_id, c.course_id FROM groups g CROSS JOIN courses c "
+                                        + "WHERE g.group_id IN (:groupIds) AND c.course_id IN (:courseIds) "
+                                        + "AND NOT EXISTS (SELECT 1 FROM groups_courses gc "
+                                        + "WHERE gc.group_id = g.group_id AND gc.course_id = c.course_id)")
+                       .unwrap(NativeQuery.class)
+                       .addSynchronizedQuerySpace(GROUPS_COURSES)
+                       .setParameterList("groupIds", groupIds)
+                       .setParameterList("courseIds", courseIds)
+                       .executeUpdate();
+        if (assigned > 0) {
+            List<int[]> groupCourses = new ArrayList<>();
+            for (Object row : entityManager
+                 .createNativeQuery("SELECT group_id, course_id FROM groups_courses "
+                                  + "WHERE group_id IN (:groupIds) AND course_id IN (:courseIds)")
+                 .setParameter("groupIds", groupIds)
+                 .setParameter("courseIds", courseIds)
+                 .getResultList()) {
+                Object[] columns = (Object[]) row;
+                groupCourses.add(new int[] {((Number) columns[0]).intValue(), ((Number) columns[1]).intValue()});
+            }
+            scheduleIndex.onCoursesAssigned(groupCourses);
+            onGroupCoursesChanged(groupIds);
+        }
+        return assigned;
     }
     
+    /* Removes every pair of the given groups and courses with one DELETE; returns the number removed. */
     @Transactional
-    public void deleteGroupsCourse(int groupId, int courseId) {
+    public int unassignCourses(Collection<Integer> groupIds, Collection<Integer> courseIds) {
         if (logger.isDebugEnabled()) {
-            logger.debug("Delete groups course: groupId = {}, courseId = {}", groupId, courseId);
+            logger.debug("Unassign courses {} from groups {}", courseIds, groupIds);
+        }
+        if (groupIds.isEmpty() || courseIds.isEmpty()) {
+            return 0;
         }
         
-        Group group = getById(groupId);
-        int courseIndex = getCourseIndex(group, courseId);
-        if (courseIndex >= 0) {
-            group.getCourses().remove(courseIndex);
+        int unassigned = entityManager
+                         .createNativeQuery("DELETE FROM groups_courses "
+                                          + "WHERE group_id IN (:groupIds) AND course_id IN (:courseIds)")
+                         .unwrap(NativeQuery.class)
+                         .addSynchronizedQuerySpace(GROUPS_COURSES)
+                         .setParameterList("groupIds", groupIds)
+                         .setParameterList("courseIds", courseIds)
+                         .executeUpdate();
+        if (unassigned > 0) {
+            List<int[]> groupCourses = new ArrayList<>();
+            groupIds.forEach(groupId -> courseIds.forEach(courseId -> groupCourses.add(new int[] {groupId, courseId})));
+            scheduleIndex.onCoursesUnassigned(groupCourses);
+            onGroupCoursesChanged(groupIds);
         }
+        return unassigned;
     }
     
-    private int getCourseIndex(Group group, int courseId) {
-        for (int i = 0; i < group.getCourses().size(); i++) {
-            if (group.getCourses().get(i).getId() == courseId) { return i; }
+    private void onGroupCoursesChanged(Collection<Integer> groupIds) {
+        changeTracker.onChanged(Group.class);
+        for (int groupId : new HashSet<>(groupIds)) {
+            changeTracker.onGroupChanged(groupId);
         }
-        return -1;
     }
 }
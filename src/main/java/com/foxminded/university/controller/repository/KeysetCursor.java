@@ -0,0 +1,58 @@
+package com.foxminded.university.controller.repository;
+
+/*
+ * Sort key of the last row of a page: an optional leading value and the row id,
+ * written as "<value>,<id>" or "<id>". Only the id is known to be numeric, so the
+ * split is at the last comma. A cursor that cannot be read starts from the first
+ * page.
+ */
+final class KeysetCursor {
+    private final String value;
+    private final int id;
+
+    private KeysetCursor(String value, int id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    static String of(int id) {
+        return Integer.toString(id);
+    }
+
+    static String of(Object value, int id) {
+        return value + "," + id;
+    }
+
+    static KeysetCursor parse(String cursor, boolean withValue) {
+        if (cursor == null) {
+            return null;
+        }
+        int separator = cursor.lastIndexOf(',');
+        if (withValue == (separator < 0)) {
+            return null;
+        }
+        try {
+            return new KeysetCursor(withValue ? cursor.substring(0, separator) : null,
+                                    Integer.parseInt(cursor.substring(separator + 1)));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    static KeysetCursor parseNumeric(String cursor) {
+        KeysetCursor output = parse(cursor, true);
+        return output == null || output.value.matches("-?\\d{1,9}") == false ? null : output;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    int getValueAsInt() {
+        return Integer.parseInt(value);
+    }
+
+    int getId() {
+        return id;
+    }
+}
@@ -1,22 +1,41 @@
 package com.foxminded.university.controller.repository;
 
+import java.util.Collections;
+import java.util.List;
+
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.graph.GraphSemantic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
+import com.foxminded.university.controller.cache.ScheduleIndex;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.LessonSeries;
+import com.foxminded.university.model.Timeslot;
 
 @Repository
 public class LessonRepository {
+    private static final int BATCH_SIZE = 50;
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     @PersistenceContext 
     EntityManager entityManager;
     
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
+    @Autowired
+    ChangeTracker changeTracker;
+    
     @Transactional
     public void add(Lesson lesson) {
         if (logger.isDebugEnabled()) {
@@ -25,8 +44,28 @@ public class LessonRepository {
         }
         
         entityManager.persist(lesson);
+        scheduleIndex.onLessonSaved(lesson);
+        trackTimetableChanges(lesson.getCourse().getId());
     } 
     
+    @Transactional
+    public void addAll(List<Lesson> lessons) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Insert {} new lessons", lessons.size());
+        }
+        
+        for (int i = 0; i < lessons.size(); i++) {
+            entityManager.persist(lessons.get(i));
+            if ((i + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        scheduleIndex.onLessonsSaved(lessons);
+        lessons.stream().map(lesson -> lesson.getCourse().getId()).distinct()
+               .forEach(this::trackTimetableChanges);
+    }
+    
     @Transactional(readOnly=true)
     public Lesson getById(int id) {
         if (logger.isDebugEnabled()) {
@@ -36,22 +75,163 @@ public class LessonRepository {
         return entityManager.find(Lesson.class, id);
     }
     
+    @Transactional(readOnly=true)
+    public Lesson getById(int id, String entityGraph) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get lesson by id ({}, {})", id, entityGraph);
+        }
+        
+        return entityManager.find(Lesson.class, id,
+                                  Collections.singletonMap(GraphSemantic.FETCH.getJpaHintName(),
+                                                           entityManager.getEntityGraph(entityGraph)));
+    }
+    
+    /* The old course comes from the schedule index, so the lesson is not loaded first. */
     @Transactional
-    public void update(Lesson lesson) {
+    public int update(Lesson lesson) {
         if (logger.isDebugEnabled()) {
             logger.debug("Update lesson with id = {}", lesson.getId());
         }
         
-        entityManager.merge(lesson);
+        Integer previousCourseId = scheduleIndex.getCourseIdByLesson(lesson.getId());
+        int updated = entityManager
+                      .createQuery("UPDATE Lesson l SET l.date = :date, l.time = :time, l.course = :course, "
+                                 + "l.classroom = :classroom, l.series = NULL, l.version = l.version + 1 "
+                                 + "WHERE l.id = :lessonId AND l.version = :version")
+                      .setParameter("date", lesson.getDate())
+                      .setParameter("time", entityManager.getReference(Timeslot.class, lesson.getTime().getId()))
+                      .setParameter("course", entityManager.getReference(Course.class, lesson.getCourse().getId()))
+                      .setParameter("classroom", entityManager.getReference(Classroom.class, 
+                                                                           lesson.getClassroom().getId()))
+                      .setParameter("lessonId", lesson.getId())
+                      .setParameter("version", lesson.getVersion())
+                      .executeUpdate();
+        if (updated > 0) {
+            if (previousCourseId != null) {
+                trackTimetableChanges(previousCourseId);
+            }
+            scheduleIndex.onLessonSaved(lesson);
+            trackTimetableChanges(lesson.getCourse().getId());
+        }
+        return updated;
     }
     
     @Transactional
     public void delete(Lesson lesson) {
         if (logger.isDebugEnabled()) {
-            logger.debug("Update lesson with id = {}", lesson.getId());
+            logger.debug("Delete lesson with id = {}", lesson.getId());
         }
 
+        Lesson currentLesson = entityManager.find(Lesson.class, lesson.getId());
+        if (currentLesson != null) {
+            trackTimetableChanges(currentLesson.getCourse().getId());
+        }
         entityManager.createQuery("DELETE FROM Lesson l WHERE l.id = :lessonId")
         .setParameter("lessonId", lesson.getId()).executeUpdate();
+        scheduleIndex.onLessonDeleted(lesson.getId());
+    }
+    
+    @Transactional(readOnly=true)
+    public LessonSeries getSeriesById(int id) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get lesson series by id ({})", id);
+        }
+        
+        return entityManager.find(LessonSeries.class, id);
+    }
+    
+    @Transactional(readOnly=true)
+    public List<Lesson> getBySeries(int seriesId) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get lessons of series ({})", seriesId);
+        }
+        
+        return entityManager
+               .createQuery("SELECT l FROM Lesson l WHERE l.series.id = :seriesId ORDER BY l.date", Lesson.class)
+               .setParameter("seriesId", seriesId)
+               .getResultList();
+    }
+    
+    @Transactional
+    public void addSeries(LessonSeries series, List<Lesson> lessons) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Insert new lesson series ({} - {}, {} lessons)", series.getStartDate(), 
+                         series.getEndDate(), lessons.size());
+        }
+        
+        entityManager.persist(series);
+        lessons.forEach(lesson -> lesson.setSeries(series));
+        addAll(lessons);
+    }
+    
+    /* 
+     * Moves the series and every lesson still in it with one UPDATE each. The given
+     * lessons are the occurrences with their new values, for the schedule index.
+     */
+    @Transactional
+    public int updateSeries(LessonSeries series, List<Lesson> lessons) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Update lesson series with id = {}", series.getId());
+        }
+        
+        LessonSeries currentSeries = entityManager.find(LessonSeries.class, series.getId());
+        if (currentSeries == null) {
+            return 0;
+        }
+        int previousCourseId = currentSeries.getCourse().getId();
+        entityManager.createQuery("UPDATE LessonSeries s SET s.time = :time, s.course = :course, "
+                                + "s.classroom = :classroom WHERE s.id = :seriesId")
+                     .setParameter("time", series.getTime())
+                     .setParameter("course", series.getCourse())
+                     .setParameter("classroom", series.getClassroom())
+                     .setParameter("seriesId", series.getId())
+                     .executeUpdate();
+        int updated = entityManager
+                      .createQuery("UPDATE Lesson l SET l.time = :time, l.course = :course, "
+                                 + "l.classroom = :classroom, l.version = l.version + 1 "
+                                 + "WHERE l.series.id = :seriesId")
+                      .setParameter("time", series.getTime())
+                      .setParameter("course", series.getCourse())
+                      .setParameter("classroom", series.getClassroom())
+                      .setParameter("seriesId", series.getId())
+                      .executeUpdate();
+        scheduleIndex.onLessonsSaved(lessons);
+        trackTimetableChanges(previousCourseId);
+        trackTimetableChanges(series.getCourse().getId());
+        return updated;
+    }
+    
+    @Transactional
+    public int deleteSeries(int seriesId) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Delete lesson series with id = {}", seriesId);
+        }
+        
+        LessonSeries series = entityManager.find(LessonSeries.class, seriesId);
+        if (series == null) {
+            return 0;
+        }
+        List<Integer> lessonIds = entityManager
+                .createQuery("SELECT l.id FROM Lesson l WHERE l.series.id = :seriesId", Integer.class)
+                .setParameter("seriesId", seriesId)
+                .getResultList();
+        int deleted = entityManager.createQuery("DELETE FROM Lesson l WHERE l.series.id = :seriesId")
+                                   .setParameter("seriesId", seriesId)
+                                   .executeUpdate();
+        entityManager.remove(series);
+        scheduleIndex.onLessonsDeleted(lessonIds);
+        trackTimetableChanges(series.getCourse().getId());
+        return deleted;
+    }
+    
+    private void trackTimetableChanges(int courseId) {
+        changeTracker.onChanged(Lesson.class);
+        for (int groupId : scheduleIndex.getGroupIdsByCourse(courseId)) {
+            changeTracker.onGroupChanged(groupId);
+        }
+        Integer teacherId = scheduleIndex.getTeacherIdByCourse(courseId);
+        if (teacherId != null) {
+            changeTracker.onTeacherChanged(teacherId);
+        }
     }
 }
@@ -1,14 +1,29 @@
 package com.foxminded.university.controller.repository;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
+import com.foxminded.university.controller.cache.EnrolmentStatistics;
+import com.foxminded.university.controller.cache.PersonDirectory;
+import com.foxminded.university.controller.cache.ScheduleIndex;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.GroupView;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Student;
+import com.foxminded.university.model.StudentView;
 
 @Repository
 public class StudentRepository {
@@ -17,13 +32,80 @@ public class StudentRepository {
     @PersistenceContext 
     EntityManager entityManager;
     
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
+    @Autowired
+    ChangeTracker changeTracker;
+    
+    @Autowired
+    EnrolmentStatistics enrolmentStatistics;
+    
+    @Autowired
+    PersonDirectory personDirectory;
+    
     @Transactional(readOnly=true)
-    public int getCount() {
+    public long getCount() {
         if (logger.isDebugEnabled()) {
             logger.debug("Get count of students");
         }
-        return (int)entityManager
-               .createQuery("SELECT COUNT(*) FROM Student s").getSingleResult();
+        return entityManager
+               .createQuery("SELECT COUNT(s) FROM Student s", Long.class).getSingleResult();
+    }
+    
+    @Transactional(readOnly=true)
+    public Map<Integer, Integer> getCountsByGroup() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get count of students per group");
+        }
+        Map<Integer, Integer> output = new HashMap<>();
+        entityManager
+        .createQuery("SELECT s.group.id, COUNT(s) FROM Student s GROUP BY s.group.id", Object[].class)
+        .getResultList()
+        .forEach(row -> output.put((Integer) row[0], ((Long) row[1]).intValue()));
+        return output;
+    }
+    
+    /* 
+     * Students of all groups ordered by (group id, student id), empty groups included.
+     * A group split over two pages appears on both.
+     */
+    @Transactional(readOnly=true)
+    public KeysetPage<GroupView> getViewPage(String after, int size) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get page of students after {} (size = {})", after, size);
+        }
+        
+        KeysetCursor cursor = KeysetCursor.parseNumeric(after);
+        List<Object[]> rows = entityManager
+             .createQuery("SELECT g.id, g.groupName, s.id, s.firstName, s.lastName "
+                        + "FROM Group g LEFT JOIN g.students s "
+                        + "WHERE g.id >= :groupId AND (g.id > :groupId OR s.id > :studentId) "
+                        + "ORDER BY g.id, s.id", Object[].class)
+             .setParameter("groupId", cursor == null ? 0 : cursor.getValueAsInt())
+             .setParameter("studentId", cursor == null ? 0 : cursor.getId())
+             .setMaxResults(size + 1)
+             .getResultList();
+        
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            Object[] last = rows.get(size - 1);
+            nextCursor = KeysetCursor.of(last[0], last[2] == null ? 0 : (Integer) last[2]);
+        }
+        List<GroupView> output = new ArrayList<>();
+        List<StudentView> students = new ArrayList<>();
+        for (Object[] row : rows) {
+            int groupId = (Integer) row[0];
+            if (output.isEmpty() || output.get(output.size() - 1).getId() != groupId) {
+                students = new ArrayList<>();
+                output.add(new GroupView(groupId, (String) row[1], Collections.emptyList(), students));
+            }
+            if (row[2] != null) {
+                students.add(new StudentView((Integer) row[2], (String) row[3], (String) row[4]));
+            }
+        }
+        return new KeysetPage<>(output, after, nextCursor);
     }
     
     @Transactional
@@ -33,6 +115,30 @@ public class StudentRepository {
         }
         
         entityManager.persist(student);
+        scheduleIndex.onStudentSaved(student.getId(), student.getGroup().getId());
+        enrolmentStatistics.onStudentsAdded(student.getGroup().getId(), 1);
+        personDirectory.onStudentsSaved(Collections.singletonList(student));
+        changeTracker.onChanged(Student.class);
+    }
+    
+    /* Inserts go out in JDBC batches on flush; clearing keeps the session small. */
+    @Transactional
+    public void addAll(List<Student> students) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Insert {} new students", students.size());
+        }
+        
+        Map<Integer, Integer> countsByGroup = new HashMap<>();
+        for (Student student : students) {
+            entityManager.persist(student);
+            scheduleIndex.onStudentSaved(student.getId(), student.getGroup().getId());
+            countsByGroup.merge(student.getGroup().getId(), 1, Integer::sum);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        countsByGroup.forEach(enrolmentStatistics::onStudentsAdded);
+        personDirectory.onStudentsSaved(students);
+        changeTracker.onChanged(Student.class);
     }
     
     @Transactional(readOnly=true)
@@ -50,18 +156,53 @@ public class StudentRepository {
             logger.debug("Delete student with id = {}", student.getId());
         }
 
-        entityManager
-        .createQuery("DELETE Student s WHERE s.id = :studentId")
-        .setParameter("studentId", student.getId())
-        .executeUpdate();
+        List<Integer> groupIds = getGroupIds(student.getId());
+        int deleted = entityManager
+                      .createQuery("DELETE Student s WHERE s.id = :studentId")
+                      .setParameter("studentId", student.getId())
+                      .executeUpdate();
+        scheduleIndex.onStudentDeleted(student.getId());
+        if (deleted > 0) {
+            enrolmentStatistics.onStudentDeleted(groupIds.get(0));
+            personDirectory.onStudentDeleted(student.getId());
+        }
+        changeTracker.onChanged(Student.class);
     }
     
+    /* Only the previous group id is read, for the enrolment counts; the student is not loaded. */
     @Transactional
-    public void update(Student student) {
+    public int update(Student student) {
         if (logger.isDebugEnabled()) {
             logger.debug("Update student with id = {}", student.getId());
         }
         
-        entityManager.merge(student);
+        List<Integer> groupIds = getGroupIds(student.getId());
+        if (groupIds.isEmpty()) {
+            return 0;
+        }
+        int groupId = student.getGroup().getId();
+        int updated = entityManager
+                      .createQuery("UPDATE Student s SET s.firstName = :firstName, s.lastName = :lastName, "
+                                 + "s.group = :group WHERE s.id = :studentId")
+                      .setParameter("firstName", student.getFirstName())
+                      .setParameter("lastName", student.getLastName())
+                      .setParameter("group", entityManager.getReference(Group.class, groupId))
+                      .setParameter("studentId", student.getId())
+                      .executeUpdate();
+        if (updated > 0) {
+            scheduleIndex.onStudentSaved(student.getId(), groupId);
+            enrolmentStatistics.onStudentMoved(groupIds.get(0), groupId);
+            personDirectory.onStudentsSaved(Collections.singletonList(student));
+            changeTracker.onChanged(Student.class);
+        }
+        return updated;
+    }
+    
+    /* Empty for an unknown student, [null] for a student without a group. */
+    private List<Integer> getGroupIds(int studentId) {
+        return entityManager
+               .createQuery("SELECT s.group.id FROM Student s WHERE s.id = :studentId", Integer.class)
+               .setParameter("studentId", studentId)
+               .getResultList();
     }
 }
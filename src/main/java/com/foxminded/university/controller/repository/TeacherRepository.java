@@ -1,18 +1,30 @@
 package com.foxminded.university.controller.repository;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.graph.GraphSemantic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
+import com.foxminded.university.controller.cache.PersonDirectory;
 import com.foxminded.university.model.Course;
+import com.foxminded.university.model.CourseView;
 import com.foxminded.university.model.Faculty;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Teacher;
+import com.foxminded.university.model.TeacherSummary;
+import com.foxminded.university.model.TeacherView;
 
 @Transactional
 @Repository
@@ -22,6 +34,12 @@ public class TeacherRepository {
     @PersistenceContext 
     EntityManager entityManager;
     
+    @Autowired
+    ChangeTracker changeTracker;
+    
+    @Autowired
+    PersonDirectory personDirectory;
+    
     @Transactional(readOnly=true)
     public Teacher getById(int id) {
         if (logger.isDebugEnabled()) {
@@ -31,6 +49,17 @@ public class TeacherRepository {
         return entityManager.find(Teacher.class, id);
     }
     
+    @Transactional(readOnly=true)
+    public Teacher getById(int id, String entityGraph) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get teacher by id ({}, {})", id, entityGraph);
+        }
+        
+        return entityManager.find(Teacher.class, id,
+                                  Collections.singletonMap(GraphSemantic.FETCH.getJpaHintName(),
+                                                           entityManager.getEntityGraph(entityGraph)));
+    }
+    
     @Transactional
     public void add(Teacher teacher) {
         if (logger.isDebugEnabled()) {
@@ -38,6 +67,21 @@ public class TeacherRepository {
             teacher.getFirstName(), teacher.getLastName(), teacher.getFaculty().getId());
         }
         entityManager.persist(teacher);
+        personDirectory.onTeachersSaved(Collections.singletonList(teacher));
+        changeTracker.onChanged(Teacher.class);
+    }
+    
+    @Transactional
+    public void addAll(List<Teacher> teachers) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Insert {} new teachers", teachers.size());
+        }
+        
+        teachers.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+        personDirectory.onTeachersSaved(teachers);
+        changeTracker.onChanged(Teacher.class);
     }
     
     @Transactional(readOnly=true)
@@ -63,6 +107,79 @@ public class TeacherRepository {
                .getResultList();
     }
     
+    /* Rows of one teacher are adjacent, so each view is completed before the next one starts. */
+    @Transactional(readOnly=true)
+    public List<TeacherView> getViewsWithCourses() {
+        logger.debug("Get teacher views with courses");
+        
+        List<TeacherView> output = new ArrayList<>();
+        List<CourseView> courses = new ArrayList<>();
+        for (Object[] row : entityManager
+             .createQuery("SELECT t.id, t.firstName, t.lastName, c.id, c.name, c.description "
+                        + "FROM Teacher t LEFT JOIN t.courses c ORDER BY t.id, c.id", Object[].class)
+             .getResultList()) {
+            int teacherId = (Integer) row[0];
+            if (output.isEmpty() || output.get(output.size() - 1).getId() != teacherId) {
+                courses = new ArrayList<>();
+                output.add(new TeacherView(teacherId, (String) row[1], (String) row[2], courses));
+            }
+            if (row[3] != null) {
+                courses.add(new CourseView((Integer) row[3], (String) row[4], (String) row[5]));
+            }
+        }
+        return output;
+    }
+    
+    /* Teachers ordered by id with all of their courses, in two queries whatever the page. */
+    @Transactional(readOnly=true)
+    public KeysetPage<TeacherView> getViewPage(String after, int size) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get page of teacher views after {} (size = {})", after, size);
+        }
+        
+        KeysetCursor cursor = KeysetCursor.parse(after, false);
+        List<Object[]> rows = entityManager
+             .createQuery("SELECT t.id, t.firstName, t.lastName FROM Teacher t "
+                        + "WHERE t.id > :teacherId ORDER BY t.id", Object[].class)
+             .setParameter("teacherId", cursor == null ? 0 : cursor.getId())
+             .setMaxResults(size + 1)
+             .getResultList();
+        
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = KeysetCursor.of((Integer) rows.get(size - 1)[0]);
+        }
+        Map<Integer, List<CourseView>> coursesByTeacher = new HashMap<>();
+        List<Integer> teacherIds = new ArrayList<>();
+        rows.forEach(row -> teacherIds.add((Integer) row[0]));
+        if (teacherIds.isEmpty() == false) {
+            entityManager
+            .createQuery("SELECT c.teacher.id, c.id, c.name, c.description FROM Course c "
+                       + "WHERE c.teacher.id IN :teacherIds ORDER BY c.id", Object[].class)
+            .setParameter("teacherIds", teacherIds)
+            .getResultList()
+            .forEach(row -> coursesByTeacher.computeIfAbsent((Integer) row[0], id -> new ArrayList<>())
+                            .add(new CourseView((Integer) row[1], (String) row[2], (String) row[3])));
+        }
+        List<TeacherView> output = new ArrayList<>();
+        for (Object[] row : rows) {
+            output.add(new TeacherView((Integer) row[0], (String) row[1], (String) row[2], 
+                                       coursesByTeacher.getOrDefault(row[0], Collections.emptyList())));
+        }
+        return new KeysetPage<>(output, after, nextCursor);
+    }
+    
+    @Transactional(readOnly=true)
+    public List<TeacherSummary> getSummaries() {
+        logger.debug("Get teacher summaries");
+        
+        return entityManager
+               .createQuery("SELECT NEW com.foxminded.university.model.TeacherSummary(t.id, t.firstName, t.lastName, f.id) "
+                          + "FROM Teacher t JOIN t.faculty f ORDER BY t.id", TeacherSummary.class)
+               .getResultList();
+    }
+    
     @Transactional(readOnly=true)
     private List<Course> getCoursesByTeacher(Teacher teacher) {
         if (logger.isDebugEnabled()) {
@@ -85,14 +202,29 @@ public class TeacherRepository {
         .createQuery("DELETE FROM Teacher t WHERE t.id = :teacherId")
         .setParameter("teacherId", teacher.getId())
         .executeUpdate();
+        personDirectory.onTeacherDeleted(teacher.getId());
+        changeTracker.onChanged(Teacher.class);
     }
     
     @Transactional
-    public void update(Teacher teacher) {
+    public int update(Teacher teacher) {
         if (logger.isDebugEnabled()) {
             logger.debug("Update teacher with id ({})", teacher.getId());
         }
         
-        entityManager.merge(teacher);
+        int updated = entityManager
+                      .createQuery("UPDATE Teacher t SET t.firstName = :firstName, t.lastName = :lastName, "
+                                 + "t.faculty = :faculty WHERE t.id = :teacherId")
+                      .setParameter("firstName", teacher.getFirstName())
+                      .setParameter("lastName", teacher.getLastName())
+                      .setParameter("faculty", teacher.getFaculty() == null ? null 
+                                     : entityManager.getReference(Faculty.class, teacher.getFaculty().getId()))
+                      .setParameter("teacherId", teacher.getId())
+                      .executeUpdate();
+        if (updated > 0) {
+            personDirectory.onTeachersSaved(Collections.singletonList(teacher));
+            changeTracker.onChanged(Teacher.class);
+        }
+        return updated;
     }
 }
@@ -5,12 +5,17 @@ import java.util.List;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.annotations.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
+import com.foxminded.university.controller.cache.ScheduleIndex;
 import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.TimeslotView;
 
 @Repository
 public class TimeslotRepository {
@@ -19,6 +24,12 @@ public class TimeslotRepository {
     @PersistenceContext 
     EntityManager entityManager;
     
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
+    @Autowired
+    ChangeTracker changeTracker;
+    
     @Transactional(readOnly=true)
     public List<Timeslot> getAll() {
         if (logger.isDebugEnabled()) {
@@ -26,7 +37,22 @@ public class TimeslotRepository {
         }
         
         return entityManager
-               .createQuery("from Timeslot t ORDER BY t.description", Timeslot.class).getResultList();
+               .createQuery("from Timeslot t ORDER BY t.description", Timeslot.class)
+               .setHint(QueryHints.CACHEABLE, true)
+               .getResultList();
+    }
+    
+    @Transactional(readOnly=true)
+    public List<TimeslotView> getAllViews() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get all timeslot views");
+        }
+        
+        return entityManager
+               .createQuery("SELECT NEW com.foxminded.university.model.TimeslotView(t.id, t.description) "
+                          + "FROM Timeslot t ORDER BY t.description", TimeslotView.class)
+               .setHint(QueryHints.CACHEABLE, true)
+               .getResultList();
     }
     
     @Transactional
@@ -36,6 +62,7 @@ public class TimeslotRepository {
         }
         
         entityManager.persist(timeslot);
+        changeTracker.onChanged(Timeslot.class);
     }
     
     @Transactional
@@ -44,18 +71,30 @@ public class TimeslotRepository {
             logger.debug("Delete timeslot with ID = {}", timeslot.getId());
         }
         
-        entityManager
-        .createQuery("DELETE FROM Timeslot t WHERE t.id = :timeslotId")
-        .setParameter("timeslotId", timeslot.getId()).executeUpdate();
+        Timeslot currentTimeslot = entityManager.find(Timeslot.class, timeslot.getId());
+        if (currentTimeslot != null) {
+            entityManager.remove(currentTimeslot);
+            entityManager.flush();
+        }
+        changeTracker.onChanged(Timeslot.class);
     }
     
     @Transactional
-    public void update(Timeslot timeslot) {
+    public int update(Timeslot timeslot) {
         if (logger.isDebugEnabled()) {
             logger.debug("Update timeslot with ID = {}", timeslot.getId());
         }
         
-        entityManager.merge(timeslot);
+        int updated = entityManager
+                      .createQuery("UPDATE Timeslot t SET t.description = :description WHERE t.id = :timeslotId")
+                      .setParameter("description", timeslot.getDescription())
+                      .setParameter("timeslotId", timeslot.getId())
+                      .executeUpdate();
+        if (updated > 0) {
+            scheduleIndex.onReferenceDataChanged();
+            changeTracker.onChanged(Timeslot.class);
+        }
+        return updated;
     }
     
     @Transactional(readOnly=true)
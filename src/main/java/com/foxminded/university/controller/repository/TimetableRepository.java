@@ -1,16 +1,30 @@
 package com.foxminded.university.controller.repository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.graph.GraphSemantic;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.foxminded.university.controller.cache.ScheduleIndex;
 import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.EntityGraphs;
+import com.foxminded.university.model.Faculty;
+import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Lesson;
 import com.foxminded.university.model.Student;
 import com.foxminded.university.model.Teacher;
@@ -18,11 +32,22 @@ import com.foxminded.university.model.Timetable;
 
 @Repository
 public class TimetableRepository {
+    private static final int STREAM_FETCH_SIZE = 200;
+    private static final String STREAM_QUERY = "SELECT l FROM Lesson l "
+                                             + "JOIN FETCH l.time t "
+                                             + "JOIN FETCH l.classroom "
+                                             + "JOIN FETCH l.course c "
+                                             + "WHERE l.date BETWEEN :startDate AND :endDate ";
+    private static final String STREAM_ORDER = "ORDER BY l.date, t.id";
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     @PersistenceContext 
     EntityManager entityManager;
     
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
     @Transactional(readOnly=true)
     public Timetable getByStudent(Student student, DateInterval dateInterval) {
         if (logger.isDebugEnabled()) {
@@ -49,30 +74,147 @@ public class TimetableRepository {
         return timetable;
     }
     
-    private List<Lesson> getLessonsByStudent(Student student, DateInterval dateInterval) {       
-        return entityManager
-               .createQuery("SELECT l FROM Lesson l "
-                          + "JOIN FETCH l.course c "
-                          + "JOIN c.groups g "
-                          + "JOIN g.students s "
-                          + "WHERE s.id = :studentId "
-                          + "AND (l.date BETWEEN :startDate AND :endDate)", Lesson.class)
-               .setParameter("studentId", student.getId())
+    @Transactional(readOnly=true)
+    public Timetable getByGroup(Group group, DateInterval dateInterval) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get timetable by group ({}, {}, {})", 
+                     group.getId(), dateInterval.getStartDate(), dateInterval.getEndDate());
+        }
+        
+        Timetable timetable = new Timetable();
+        timetable.setDateInterval(dateInterval);
+        timetable.setLessons(getLessonsByGroup(group, dateInterval));
+        return timetable;
+    }
+    
+    /* One row per group, course and lesson; groups without lessons come back with empty timetables. */
+    @Transactional(readOnly=true)
+    public Map<Group, Timetable> getByFaculty(Faculty faculty, DateInterval dateInterval) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get timetable by faculty ({}, {}, {})", 
+                     faculty.getId(), dateInterval.getStartDate(), dateInterval.getEndDate());
+        }
+        
+        List<Object[]> rows = entityManager
+               .createQuery("SELECT g.id, g.groupName, c, l FROM Group g "
+                          + "LEFT JOIN g.courses c "
+                          + "LEFT JOIN Lesson l ON l.course = c AND l.date BETWEEN :startDate AND :endDate "
+                          + "LEFT JOIN FETCH l.time t "
+                          + "LEFT JOIN FETCH l.classroom "
+                          + "WHERE g.faculty.id = :facultyId "
+                          + "ORDER BY g.id, l.date, t.id", Object[].class)
+               .setParameter("facultyId", faculty.getId())
                .setParameter("startDate", dateInterval.getStartDate())
                .setParameter("endDate", dateInterval.getEndDate())
                .getResultList();
+        
+        Map<Group, Timetable> output = new LinkedHashMap<>();
+        Group group = null;
+        for (Object[] row : rows) {
+            int groupId = (Integer) row[0];
+            if (group == null || group.getId() != groupId) {
+                group = new Group();
+                group.setId(groupId);
+                group.setGroupName((String) row[1]);
+                group.setFaculty(faculty);
+                Timetable timetable = new Timetable();
+                timetable.setDateInterval(dateInterval);
+                timetable.setLessons(new ArrayList<>());
+                output.put(group, timetable);
+            }
+            if (row[3] != null) {
+                output.get(group).getLessons().add((Lesson) row[3]);
+            }
+        }
+        return output;
     }
     
-    private List<Lesson> getLessonsByTeacher(Teacher teacher, DateInterval dateInterval) {
-        return entityManager
-               .createQuery("SELECT l FROM Lesson l "
-                          + "JOIN FETCH l.course c "
-                          + "JOIN c.teacher t "
-                          + "WHERE t.id = :teacherID "
-                          + "AND (l.date BETWEEN :startDate AND :endDate)", Lesson.class)
-               .setParameter("teacherID", teacher.getId())
-               .setParameter("startDate", dateInterval.getStartDate())
-               .setParameter("endDate", dateInterval.getEndDate())
+    @Transactional(readOnly=true)
+    public Integer getGroupIdByStudent(Student student) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Get group id by student (id = {})", student.getId());
+        }
+        
+        Integer indexedGroupId = scheduleIndex.getGroupIdByStudent(student.getId());
+        if (indexedGroupId != null) {
+            return indexedGroupId;
+        }
+        List<Integer> groupIds = entityManager
+               .createQuery("SELECT s.group.id FROM Student s WHERE s.id = :studentId", Integer.class)
+               .setParameter("studentId", student.getId())
                .getResultList();
+        return groupIds.isEmpty() ? null : groupIds.get(0);
+    }
+    
+    public long getChecksumByGroup(Group group, DateInterval dateInterval) {
+        return scheduleIndex.getChecksumByGroup(group.getId(), dateInterval);
+    }
+    
+    public long getChecksumByTeacher(Teacher teacher, DateInterval dateInterval) {
+        return scheduleIndex.getChecksumByTeacher(teacher.getId(), dateInterval);
+    }
+    
+    @Transactional(readOnly=true)
+    public void streamByGroup(Group group, DateInterval dateInterval, Consumer<Lesson> consumer) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Stream lessons by group ({}, {}, {})", 
+                     group.getId(), dateInterval.getStartDate(), dateInterval.getEndDate());
+        }
+        
+        stream(entityManager.createQuery(STREAM_QUERY
+                           + "AND c.id IN (SELECT gc.id FROM Group g JOIN g.courses gc WHERE g.id = :groupId) "
+                           + STREAM_ORDER, Lesson.class)
+               .setParameter("groupId", group.getId()), dateInterval, consumer);
+    }
+    
+    @Transactional(readOnly=true)
+    public void streamByTeacher(Teacher teacher, DateInterval dateInterval, Consumer<Lesson> consumer) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Stream lessons by teacher ({}, {}, {})", 
+                     teacher.getId(), dateInterval.getStartDate(), dateInterval.getEndDate());
+        }
+        
+        stream(entityManager.createQuery(STREAM_QUERY + "AND c.teacher.id = :teacherId " + STREAM_ORDER, Lesson.class)
+               .setParameter("teacherId", teacher.getId()), dateInterval, consumer);
+    }
+    
+    /* Rows come from a forward-only cursor and leave the persistence context once consumed. */
+    private void stream(TypedQuery<Lesson> query, DateInterval dateInterval, Consumer<Lesson> consumer) {
+        try (Stream<Lesson> lessons = query
+                .setParameter("startDate", dateInterval.getStartDate())
+                .setParameter("endDate", dateInterval.getEndDate())
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream()) {
+            lessons.forEach(lesson -> {
+                consumer.accept(lesson);
+                entityManager.detach(lesson);
+            });
+        }
+    }
+    
+    private List<Lesson> getLessonsByStudent(Student student, DateInterval dateInterval) {
+        Integer groupId = getGroupIdByStudent(student);
+        if (groupId == null) {
+            return new ArrayList<>();
+        }
+        return findLessons(scheduleIndex.getLessonIdsByGroup(groupId, dateInterval));
+    }
+    
+    private List<Lesson> getLessonsByGroup(Group group, DateInterval dateInterval) {
+        return findLessons(scheduleIndex.getLessonIdsByGroup(group.getId(), dateInterval));
+    }
+    
+    private List<Lesson> getLessonsByTeacher(Teacher teacher, DateInterval dateInterval) {
+        return findLessons(scheduleIndex.getLessonIdsByTeacher(teacher.getId(), dateInterval));
+    }
+    
+    private List<Lesson> findLessons(int[] lessonIds) {
+        return scheduleIndex.getLessons(lessonIds, missingIds -> entityManager
+               .createQuery("SELECT l FROM Lesson l WHERE l.id IN :lessonIds", Lesson.class)
+               .setParameter("lessonIds", missingIds)
+               .setHint(GraphSemantic.FETCH.getJpaHintName(),
+                        entityManager.getEntityGraph(EntityGraphs.LESSON_FOR_TIMETABLE))
+               .getResultList());
     }
 }
@@ -0,0 +1,117 @@
+package com.foxminded.university.controller.service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.foxminded.university.model.AdminDashboard;
+import com.foxminded.university.model.FacultySummary;
+import com.foxminded.university.model.GroupSummary;
+import com.foxminded.university.model.TeacherSummary;
+
+/*
+ * Loads the admin page as flat projections in three queries. Groups and teachers
+ * are read on a small bounded pool while the calling thread reads the faculties;
+ * every query runs in its own read-only transaction. When the pool is saturated
+ * the caller runs the query itself.
+ */
+@Service
+public class AdminDashboardQuery {
+    private static final int POOL_SIZE = 2;
+    private static final int QUEUE_CAPACITY = 16;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public AdminDashboardQuery(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "admin-dashboard-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public AdminDashboard load() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Load admin dashboard");
+        }
+        Future<List<GroupSummary>> groups = executor.submit(() -> inTransaction(this::getGroups));
+        Future<List<TeacherSummary>> teachers = executor.submit(() -> inTransaction(this::getTeachers));
+        List<FacultySummary> faculties = inTransaction(this::getFaculties);
+
+        return new AdminDashboard(faculties, await(groups), await(teachers));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<FacultySummary> getFaculties() {
+        return entityManager.createQuery("SELECT NEW com.foxminded.university.model.FacultySummary("
+                + "f.id, f.shortName, f.fullName, "
+                + "(SELECT COUNT(g) FROM Group g WHERE g.faculty = f), "
+                + "(SELECT COUNT(t) FROM Teacher t WHERE t.faculty = f)) "
+                + "FROM Faculty f ORDER BY f.id", FacultySummary.class)
+                .getResultList();
+    }
+
+    private List<GroupSummary> getGroups() {
+        return entityManager.createQuery("SELECT NEW com.foxminded.university.model.GroupSummary("
+                + "g.id, g.groupName, f.id) "
+                + "FROM Group g JOIN g.faculty f ORDER BY f.id, g.id", GroupSummary.class)
+                .getResultList();
+    }
+
+    private List<TeacherSummary> getTeachers() {
+        return entityManager.createQuery("SELECT NEW com.foxminded.university.model.TeacherSummary("
+                + "t.id, t.firstName, t.lastName, f.id) "
+                + "FROM Teacher t JOIN t.faculty f ORDER BY f.id, t.id", TeacherSummary.class)
+                .getResultList();
+    }
+
+    private <T> T inTransaction(Supplier<T> query) {
+        return transactionTemplate.execute(status -> query.get());
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading admin dashboard", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Could not load admin dashboard", ex.getCause());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import com.foxminded.university.controller.repository.ClassroomRepository;
@@ -91,7 +92,10 @@ public class AdministrativeService {
     }
     
     public void updateGroup(Group group) {
-        groupRepository.update(group);
+        if (groupRepository.update(group) == 0) {
+            throw new OptimisticLockingFailureException("Group (id = " + group.getId() 
+                                                        + ") was changed or deleted by someone else");
+        }
     }
     
     public void createTeacher(String firstName, String lastName, int facultyId) {
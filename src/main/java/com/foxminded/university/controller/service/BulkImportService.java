@@ -0,0 +1,135 @@
+package com.foxminded.university.controller.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.foxminded.university.controller.repository.StudentRepository;
+import com.foxminded.university.controller.repository.TeacherRepository;
+import com.foxminded.university.model.Faculty;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.ImportReport;
+import com.foxminded.university.model.Student;
+import com.foxminded.university.model.Teacher;
+
+/*
+ * Reads CSV lines of first_name,last_name,group_id (faculty_id for teachers) and
+ * writes them in chunks, every chunk in its own transaction. A header line is
+ * skipped and an empty last name is stored as null. Import stops at the first bad
+ * line or failed chunk; chunks written before it stay committed.
+ */
+@Service
+public class BulkImportService {
+    public static final int CHUNK_SIZE = 1000;
+    private static final int FIELDS_COUNT = 3;
+    
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+    
+    @Autowired
+    public BulkImportService(StudentRepository studentRepository, TeacherRepository teacherRepository) {
+        this.studentRepository = studentRepository;
+        this.teacherRepository = teacherRepository;
+    }
+    
+    public ImportReport importStudents(Reader csv) throws IOException {
+        return importRows("students", csv, this::toStudent, studentRepository::addAll);
+    }
+    
+    public ImportReport importTeachers(Reader csv) throws IOException {
+        return importRows("teachers", csv, this::toTeacher, teacherRepository::addAll);
+    }
+    
+    private <T> ImportReport importRows(String entityName, Reader csv, Function<String[], T> mapper,
+                                        Consumer<List<T>> writer) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(csv);
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        int rows = 0;
+        int lineNumber = 0;
+        String failure = null;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+                chunk.add(mapper.apply(split(line)));
+                if (chunk.size() == CHUNK_SIZE) {
+                    writer.accept(chunk);
+                    rows += chunk.size();
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (chunk.isEmpty() == false) {
+                writer.accept(chunk);
+                rows += chunk.size();
+            }
+        } catch (IllegalArgumentException | DataAccessException ex) {
+            failure = "Stopped at line " + lineNumber + ": " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+        }
+        
+        ImportReport report = new ImportReport(entityName, rows, 
+                                               TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failure);
+        if (logger.isInfoEnabled()) {
+            logger.info("Import {} {} in {} ms ({} rows/s)", report.getRows(), entityName, 
+                        report.getElapsedMillis(), report.getRowsPerSecond());
+        }
+        if (failure != null && logger.isWarnEnabled()) {
+            logger.warn("Import of {} failed: {}", entityName, failure);
+        }
+        return report;
+    }
+    
+    private boolean isHeader(String line) {
+        return line.trim().toLowerCase().startsWith("first_name");
+    }
+    
+    private String[] split(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != FIELDS_COUNT || fields[0].trim().isEmpty()) {
+            throw new IllegalArgumentException("expected first_name,last_name,id but was '" + line + "'");
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+        return fields;
+    }
+    
+    private Student toStudent(String[] fields) {
+        Group group = new Group();
+        group.setId(Integer.parseInt(fields[2]));
+        
+        Student student = new Student();
+        student.setFirstName(fields[0]);
+        student.setLastName(fields[1].isEmpty() ? null : fields[1]);
+        student.setGroup(group);
+        return student;
+    }
+    
+    private Teacher toTeacher(String[] fields) {
+        Faculty faculty = new Faculty();
+        faculty.setId(Integer.parseInt(fields[2]));
+        
+        Teacher teacher = new Teacher();
+        teacher.setFirstName(fields[0]);
+        teacher.setLastName(fields[1].isEmpty() ? null : fields[1]);
+        teacher.setFaculty(faculty);
+        return teacher;
+    }
+}
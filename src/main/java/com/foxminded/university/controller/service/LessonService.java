@@ -2,40 +2,68 @@ package com.foxminded.university.controller.service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import com.foxminded.university.controller.cache.ScheduleIndex;
 import com.foxminded.university.controller.repository.ClassroomRepository;
 import com.foxminded.university.controller.repository.CourseRepository;
 import com.foxminded.university.controller.repository.LessonRepository;
 import com.foxminded.university.controller.repository.TimeslotRepository;
 
 import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.ClassroomView;
 import com.foxminded.university.model.Course;
+import com.foxminded.university.model.EntityGraphs;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.LessonSeries;
+import com.foxminded.university.model.ScheduleConflict;
 import com.foxminded.university.model.Teacher;
 import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.TimeslotView;
 
 @Service
 public class LessonService {
+    private static final int SLOT_LOCKS_COUNT = 64;
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
+    /* 
+     * Check and write of one (date, timeslot) run under the same lock until the index sees the commit.
+     * The locks only order writers of this instance; a lesson saved by another instance or straight
+     * into the database is caught by the unique slot constraints and reported as SLOT_TAKEN.
+     */
+    private final ReentrantLock[] slotLocks = new ReentrantLock[SLOT_LOCKS_COUNT];
+    
     private final ClassroomRepository classroomRepository;
     private final LessonRepository lessonRepository;
     private final TimeslotRepository timeslotRepository;
     private final CourseRepository courseRepository;
+    private final ScheduleConflictChecker scheduleConflictChecker;
+    private final ScheduleIndex scheduleIndex;
     
     @Autowired
     public LessonService(ClassroomRepository classroomRepository, LessonRepository lessonRepository,
-            TimeslotRepository timeslotRepository, CourseRepository courseRepository) {
+            TimeslotRepository timeslotRepository, CourseRepository courseRepository,
+            ScheduleConflictChecker scheduleConflictChecker, ScheduleIndex scheduleIndex) {
         this.classroomRepository = classroomRepository;
         this.lessonRepository = lessonRepository;
         this.timeslotRepository = timeslotRepository;
         this.courseRepository = courseRepository;
+        this.scheduleConflictChecker = scheduleConflictChecker;
+        this.scheduleIndex = scheduleIndex;
+        for (int i = 0; i < SLOT_LOCKS_COUNT; i++) {
+            slotLocks[i] = new ReentrantLock();
+        }
     }
       
     public List<Classroom> getAllClassrooms() {
@@ -45,6 +73,10 @@ public class LessonService {
         return classroomRepository.getAll();
     }
     
+    public KeysetPage<ClassroomView> getClassroomPage(String after) {
+        return classroomRepository.getViewPage(after, KeysetPage.DEFAULT_SIZE);
+    }
+    
     public Classroom getClassroomById(int id) {
         return classroomRepository.getById(id);
     }
@@ -70,6 +102,10 @@ public class LessonService {
         return timeslotRepository.getAll();
     }
     
+    public List<TimeslotView> getTimeslotViews() {
+        return timeslotRepository.getAllViews();
+    }
+    
     public Timeslot getTimeslotById(int id) {
         return timeslotRepository.getById(id);
     }
@@ -95,7 +131,8 @@ public class LessonService {
         return courseRepository.getByTeacher(teacher);
     }
     
-    public void createLesson(String date, int timeslotId, int classroomId, int courseId) {
+    public List<ScheduleConflict> createLesson(String date, int timeslotId, int classroomId, int courseId) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
         try {
             if (logger.isInfoEnabled()) {
                 logger.info("Try to create lesson ({}, {}, {}, {})", date, timeslotId, classroomId, courseId);
@@ -117,23 +154,34 @@ public class LessonService {
             lesson.setClassroom(classroom);
             lesson.setCourse(course);
             
-            lessonRepository.add(lesson);
-            if (logger.isInfoEnabled()) {
+            conflicts = saveIfNoConflicts(lesson, lessonRepository::add);
+            if (conflicts.isEmpty() && logger.isInfoEnabled()) {
                 logger.info("Lesson created");
             }
         } catch (DateTimeParseException ex) {
             if (logger.isErrorEnabled()) {
                 logger.error("Error while creating new lesson", ex);
             }
-        }  
+        }
+        return conflicts;
     }
     
     public Lesson getLessonById(int id) {
-        return lessonRepository.getById(id);
+        return lessonRepository.getById(id, EntityGraphs.LESSON_FOR_TIMETABLE);
     }
     
-    public void updateLesson(Lesson lesson) {
-        lessonRepository.update(lesson);
+    /* An edit made on an older version of the lesson is reported; retrying it would undo the newer edit. */
+    public List<ScheduleConflict> updateLesson(Lesson lesson) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        conflicts.addAll(saveIfNoConflicts(lesson, edited -> {
+            if (lessonRepository.update(edited) == 0) {
+                if (logger.isInfoEnabled()) {
+                    logger.info("Lesson {} changed after version {}", edited.getId(), edited.getVersion());
+                }
+                conflicts.add(new ScheduleConflict(ScheduleConflict.Type.LESSON_CHANGED, edited.getId()));
+            }
+        }));
+        return conflicts;
     }
     
     public void deleteLesson(int id) {
@@ -141,4 +189,159 @@ public class LessonService {
         lesson.setId(id);
         lessonRepository.delete(lesson);
     }
+    
+    public LessonSeries getSeriesById(int id) {
+        return lessonRepository.getSeriesById(id);
+    }
+    
+    /* All occurrences are checked first and inserted together, or none is. */
+    public List<ScheduleConflict> createSeries(LessonSeries series) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Try to create lesson series ({} - {}, {}, {}, {}, {})", series.getStartDate(), 
+                        series.getEndDate(), series.getDays(), series.getTime().getId(), 
+                        series.getClassroom().getId(), series.getCourse().getId());
+        }
+        List<Lesson> lessons = new ArrayList<>();
+        for (LocalDate date : series.getDates()) {
+            Lesson lesson = new Lesson();
+            lesson.setDate(date);
+            lesson.setTime(series.getTime());
+            lesson.setClassroom(series.getClassroom());
+            lesson.setCourse(series.getCourse());
+            lessons.add(lesson);
+        }
+        if (lessons.isEmpty()) {
+            if (logger.isInfoEnabled()) {
+                logger.info("Lesson series has no occurrences");
+            }
+            return new ArrayList<>();
+        }
+        
+        List<ScheduleConflict> conflicts = saveAllIfNoConflicts(lessons, 
+                                                                 saved -> lessonRepository.addSeries(series, saved));
+        if (conflicts.isEmpty() && logger.isInfoEnabled()) {
+            logger.info("Lesson series created ({} lessons)", lessons.size());
+        }
+        return conflicts;
+    }
+    
+    /* Moves every lesson of the series to the given timeslot, classroom and course. */
+    public List<ScheduleConflict> updateSeries(LessonSeries changes) {
+        LessonSeries series = lessonRepository.getSeriesById(changes.getId());
+        if (series == null) {
+            return new ArrayList<>();
+        }
+        series.setTime(changes.getTime());
+        series.setClassroom(changes.getClassroom());
+        series.setCourse(changes.getCourse());
+        List<Lesson> lessons = lessonRepository.getBySeries(series.getId());
+        for (Lesson lesson : lessons) {
+            lesson.setTime(series.getTime());
+            lesson.setClassroom(series.getClassroom());
+            lesson.setCourse(series.getCourse());
+        }
+        return saveAllIfNoConflicts(lessons, saved -> lessonRepository.updateSeries(series, saved));
+    }
+    
+    public void deleteSeries(int id) {
+        lessonRepository.deleteSeries(id);
+    }
+    
+    /* 
+     * Lessons of any courses, such as a generated timetable. Each one is checked under its slot
+     * lock; those that conflict are left out and the rest are inserted together.
+     */
+    public List<Lesson> addAllWithoutConflicts(List<Lesson> lessons) {
+        List<Lesson> saved = new ArrayList<>();
+        int[] lockIndexes = lockSlots(lessons);
+        try {
+            for (Lesson lesson : lessons) {
+                if (scheduleConflictChecker.check(lesson).isEmpty()) {
+                    saved.add(lesson);
+                }
+            }
+            lessonRepository.addAll(saved);
+        } catch (DataIntegrityViolationException ex) {
+            onSlotTaken(ex);
+            saved.clear();
+        } finally {
+            unlockSlots(lockIndexes);
+        }
+        return saved;
+    }
+    
+    private List<ScheduleConflict> saveIfNoConflicts(Lesson lesson, Consumer<Lesson> save) {
+        ReentrantLock slotLock = getSlotLock(lesson.getDate(), lesson.getTime().getId());
+        slotLock.lock();
+        try {
+            List<ScheduleConflict> conflicts = scheduleConflictChecker.check(lesson);
+            if (conflicts.isEmpty()) {
+                save.accept(lesson);
+            }
+            return conflicts;
+        } catch (DataIntegrityViolationException ex) {
+            onSlotTaken(ex);
+            return slotTaken(lesson.getTime().getId());
+        } finally {
+            slotLock.unlock();
+        }
+    }
+    
+    private List<ScheduleConflict> saveAllIfNoConflicts(List<Lesson> lessons, Consumer<List<Lesson>> save) {
+        int[] lockIndexes = lockSlots(lessons);
+        try {
+            List<ScheduleConflict> conflicts = scheduleConflictChecker.checkAll(lessons);
+            if (conflicts.isEmpty()) {
+                save.accept(lessons);
+            }
+            return conflicts;
+        } catch (DataIntegrityViolationException ex) {
+            onSlotTaken(ex);
+            return slotTaken(lessons.get(0).getTime().getId());
+        } finally {
+            unlockSlots(lockIndexes);
+        }
+    }
+    
+    /* The index missed the write that took the slot, so it is loaded again on the next check. */
+    private void onSlotTaken(DataIntegrityViolationException ex) {
+        if (logger.isWarnEnabled()) {
+            logger.warn("Lesson slot was taken by a write the schedule index did not see", ex);
+        }
+        scheduleIndex.invalidate();
+    }
+    
+    private List<ScheduleConflict> slotTaken(int timeslotId) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        conflicts.add(new ScheduleConflict(ScheduleConflict.Type.SLOT_TAKEN, timeslotId));
+        return conflicts;
+    }
+    
+    /* Locks are taken in index order, so two writers sharing slots cannot deadlock. */
+    private int[] lockSlots(List<Lesson> lessons) {
+        int[] lockIndexes = lessons.stream()
+                                   .mapToInt(lesson -> getSlotLockIndex(lesson.getDate(), lesson.getTime().getId()))
+                                   .distinct()
+                                   .sorted()
+                                   .toArray();
+        for (int lockIndex : lockIndexes) {
+            slotLocks[lockIndex].lock();
+        }
+        return lockIndexes;
+    }
+    
+    private void unlockSlots(int[] lockIndexes) {
+        for (int i = lockIndexes.length - 1; i >= 0; i--) {
+            slotLocks[lockIndexes[i]].unlock();
+        }
+    }
+    
+    private ReentrantLock getSlotLock(LocalDate date, int timeslotId) {
+        return slotLocks[getSlotLockIndex(date, timeslotId)];
+    }
+    
+    private int getSlotLockIndex(LocalDate date, int timeslotId) {
+        int hash = 31 * Long.hashCode(date.toEpochDay()) + timeslotId;
+        return Math.floorMod(hash, SLOT_LOCKS_COUNT);
+    }
 }
@@ -0,0 +1,103 @@
+package com.foxminded.university.controller.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.foxminded.university.controller.cache.EnrolmentStatistics;
+import com.foxminded.university.controller.cache.ScheduleIndex;
+import com.foxminded.university.controller.cache.SlotOccupancy;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.ScheduleConflict;
+
+@Service
+public class ScheduleConflictChecker {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
+    private final ScheduleIndex scheduleIndex;
+    private final EnrolmentStatistics enrolmentStatistics;
+    
+    @Autowired
+    public ScheduleConflictChecker(ScheduleIndex scheduleIndex, EnrolmentStatistics enrolmentStatistics) {
+        this.scheduleIndex = scheduleIndex;
+        this.enrolmentStatistics = enrolmentStatistics;
+    }
+    
+    public List<ScheduleConflict> check(Lesson lesson) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        int courseId = lesson.getCourse().getId();
+        int classroomId = lesson.getClassroom().getId();
+        int[] groupIds = scheduleIndex.getGroupIdsByCourse(courseId);
+        addSlotConflicts(conflicts, lesson, groupIds, null);
+        addCapacityConflict(conflicts, classroomId, groupIds);
+        
+        if (conflicts.isEmpty() == false && logger.isInfoEnabled()) {
+            logger.info("Lesson ({}, {}, {}, {}) has {} conflicts", lesson.getDate(), lesson.getTime().getId(),
+                        courseId, classroomId, conflicts.size());
+        }
+        return conflicts;
+    }
+    
+    /* 
+     * Lessons of one course in one classroom, such as the occurrences of a series. Slots are
+     * checked per lesson and reported with their date, the capacity only once.
+     */
+    public List<ScheduleConflict> checkAll(List<Lesson> lessons) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        if (lessons.isEmpty()) {
+            return conflicts;
+        }
+        int courseId = lessons.get(0).getCourse().getId();
+        int classroomId = lessons.get(0).getClassroom().getId();
+        int[] groupIds = scheduleIndex.getGroupIdsByCourse(courseId);
+        for (Lesson lesson : lessons) {
+            addSlotConflicts(conflicts, lesson, groupIds, lesson.getDate());
+        }
+        addCapacityConflict(conflicts, classroomId, groupIds);
+        
+        if (conflicts.isEmpty() == false && logger.isInfoEnabled()) {
+            logger.info("{} lessons of course {} in classroom {} have {} conflicts", lessons.size(), courseId,
+                        classroomId, conflicts.size());
+        }
+        return conflicts;
+    }
+    
+    private void addSlotConflicts(List<ScheduleConflict> conflicts, Lesson lesson, int[] groupIds, LocalDate date) {
+        int courseId = lesson.getCourse().getId();
+        int classroomId = lesson.getClassroom().getId();
+        SlotOccupancy occupancy = scheduleIndex.getOccupancy(lesson.getDate(), lesson.getTime().getId(), lesson.getId());
+        
+        if (occupancy.isClassroomBusy(classroomId)) {
+            conflicts.add(new ScheduleConflict(ScheduleConflict.Type.CLASSROOM_BUSY, classroomId, date));
+        }
+        Integer teacherId = scheduleIndex.getTeacherIdByCourse(courseId);
+        if (teacherId != null && occupancy.isTeacherBusy(teacherId)) {
+            conflicts.add(new ScheduleConflict(ScheduleConflict.Type.TEACHER_BUSY, teacherId, date));
+        }
+        for (int groupId : groupIds) {
+            if (occupancy.isGroupBusy(groupId)) {
+                conflicts.add(new ScheduleConflict(ScheduleConflict.Type.GROUP_BUSY, groupId, date));
+            }
+        }
+    }
+    
+    /* Capacities and group sizes are both kept in memory, so no check reaches the database under a slot lock. */
+    private void addCapacityConflict(List<ScheduleConflict> conflicts, int classroomId, int[] groupIds) {
+        Integer capacity = scheduleIndex.getClassroomCapacity(classroomId);
+        if (capacity == null || groupIds.length == 0) {
+            return;
+        }
+        int audience = 0;
+        for (int groupId : groupIds) {
+            audience += enrolmentStatistics.getStudentsCountByGroup(groupId);
+        }
+        if (capacity < audience) {
+            conflicts.add(new ScheduleConflict(ScheduleConflict.Type.CLASSROOM_TOO_SMALL, classroomId));
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.foxminded.university.controller.service;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -8,23 +7,42 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
+import com.foxminded.university.controller.cache.EnrolmentStatistics;
+import com.foxminded.university.controller.cache.PersonDirectory;
 import com.foxminded.university.controller.repository.GroupRepository;
 import com.foxminded.university.controller.repository.StudentRepository;
+import com.foxminded.university.model.ContentVersion;
 import com.foxminded.university.model.Group;
+import com.foxminded.university.model.GroupSummary;
+import com.foxminded.university.model.GroupView;
+import com.foxminded.university.model.KeysetPage;
+import com.foxminded.university.model.PersonMatch;
 import com.foxminded.university.model.Student;
 
 @Service
 public class StudentsService {
+    public static final int SEARCH_LIMIT = 10;
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final GroupRepository groupRepository;
     private final StudentRepository studentRepository;
+    private final ChangeTracker changeTracker;
+    private final EnrolmentStatistics enrolmentStatistics;
+    private final PersonDirectory personDirectory;
     
     @Autowired
     public StudentsService(GroupRepository groupRepository, 
-                           StudentRepository studentRepository) {
+                           StudentRepository studentRepository,
+                           ChangeTracker changeTracker,
+                           EnrolmentStatistics enrolmentStatistics,
+                           PersonDirectory personDirectory) {
         this.groupRepository = groupRepository;
         this.studentRepository = studentRepository;
+        this.changeTracker = changeTracker;
+        this.enrolmentStatistics = enrolmentStatistics;
+        this.personDirectory = personDirectory;
     }
 
     public Student getStudent(int studentId) {
@@ -48,13 +66,29 @@ public class StudentsService {
         return groupRepository.getById(groupId);
     }
     
-    public List<Group> getAllGroups() {
-        List<Group> output = new ArrayList<>();
-        output = groupRepository.getAll();
-        for (int i = 0; i < output.size(); i++) {
-            output.set(i, groupRepository.getById(output.get(i).getId()));
-        }
-        return output;
+    public KeysetPage<GroupView> getStudentPage(String after) {
+        return studentRepository.getViewPage(after, KeysetPage.DEFAULT_SIZE);
+    }
+    
+    public List<GroupSummary> getGroupOptions() {
+        return groupRepository.getSummaries();
+    }
+    
+    public List<PersonMatch> searchStudents(String query) {
+        return personDirectory.searchStudents(query, SEARCH_LIMIT);
+    }
+    
+    public int getStudentsCount() {
+        return enrolmentStatistics.getStudentsCount();
+    }
+    
+    public int getGroupsCount() {
+        return enrolmentStatistics.getGroupsCount();
+    }
+    
+    public ContentVersion getGroupsVersion() {
+        return changeTracker.getContentVersion("groups", 
+                changeTracker.getVersion(Group.class), changeTracker.getVersion(Student.class));
     }
     
     public void addStudent(String firstName, String lastName, int groupId) {
@@ -1,35 +1,64 @@
 package com.foxminded.university.controller.service;
 
 import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
+import com.foxminded.university.controller.cache.PersonDirectory;
+import com.foxminded.university.controller.repository.BatchLoader;
+import com.foxminded.university.controller.repository.BatchLoaders;
 import com.foxminded.university.controller.repository.CourseRepository;
 import com.foxminded.university.controller.repository.GroupRepository;
 import com.foxminded.university.controller.repository.TeacherRepository;
+import com.foxminded.university.model.ContentVersion;
 import com.foxminded.university.model.Course;
+import com.foxminded.university.model.CourseView;
+import com.foxminded.university.model.EntityGraphs;
 import com.foxminded.university.model.Group;
+import com.foxminded.university.model.GroupView;
+import com.foxminded.university.model.KeysetPage;
+import com.foxminded.university.model.PersonMatch;
 import com.foxminded.university.model.Teacher;
+import com.foxminded.university.model.TeacherSummary;
+import com.foxminded.university.model.TeacherView;
 
 @Service
 public class TeachersService {
+    public static final int SEARCH_LIMIT = 10;
+    
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
     private final TeacherRepository teacherRepository;
     private final CourseRepository courseRepository;
     private final GroupRepository groupRepository;
+    private final ChangeTracker changeTracker;
+    private final BatchLoaders batchLoaders;
+    private final PersonDirectory personDirectory;
     
     @Autowired
     public TeachersService(TeacherRepository teacherRepository, 
                            CourseRepository courseRepository, 
-                           GroupRepository groupRepository) {
+                           GroupRepository groupRepository,
+                           ChangeTracker changeTracker,
+                           BatchLoaders batchLoaders,
+                           PersonDirectory personDirectory) {
         this.teacherRepository = teacherRepository;
         this.courseRepository = courseRepository;
         this.groupRepository = groupRepository;
+        this.changeTracker = changeTracker;
+        this.batchLoaders = batchLoaders;
+        this.personDirectory = personDirectory;
+    }
+    
+    public List<PersonMatch> searchTeachers(String query) {
+        return personDirectory.searchTeachers(query, SEARCH_LIMIT);
     }
     
     public Teacher getTeacher(int teacherId) {
@@ -78,35 +107,57 @@ public class TeachersService {
     }
     
     public void updateCourse(Course course) {
-        courseRepository.update(course);
+        if (courseRepository.update(course) == 0) {
+            throw new OptimisticLockingFailureException("Course (id = " + course.getId() 
+                                                        + ") was changed or deleted by someone else");
+        }
     }
     
     public List<Teacher> getAll() {
         List<Teacher> teachers = teacherRepository.getAll();
-        teachers.forEach(t -> t.setCourses(courseRepository.getByTeacher(t)));
+        BatchLoader<Integer, Course> courses = batchLoaders.get("coursesByTeacher", courseRepository::getByTeachers);
+        teachers.forEach(teacher -> courses.load(teacher.getId(), teacher::setCourses));
+        courses.dispatch();
         return teachers;
     }
     
     public List<Group> getAllGroups() {
-        List<Group> allGroups = groupRepository.getAll();
-        allGroups.forEach(group -> group.setCourses(courseRepository.getByGroup(group)));
-        return allGroups;
+        return groupRepository.getAllWithCourses();
     }
     
-    public void deleteGroupsCourse(int groupId, int courseId) {
-        groupRepository.deleteGroupsCourse(groupId, courseId);
+    public KeysetPage<TeacherView> getTeacherPage(String after) {
+        return teacherRepository.getViewPage(after, KeysetPage.DEFAULT_SIZE);
     }
     
-    public void assignGroupsCourse(int groupId, int courseId) {
-        Group group = new Group();
-        group.setId(groupId);
-        Course course = new Course();
-        course.setId(courseId);
-        groupRepository.assignCourseToGroup(group, course);
+    public List<TeacherSummary> getTeacherOptions() {
+        return teacherRepository.getSummaries();
+    }
+    
+    public KeysetPage<CourseView> getCoursePage(String after) {
+        return courseRepository.getViewPage(after, KeysetPage.DEFAULT_SIZE);
+    }
+    
+    public List<GroupView> getGroupViews() {
+        return groupRepository.getViewsWithCourses();
+    }
+    
+    public ContentVersion getTeachersVersion() {
+        return changeTracker.getContentVersion("teachers", changeTracker.getVersion(Teacher.class),
+                changeTracker.getVersion(Course.class), changeTracker.getVersion(Group.class));
+    }
+    
+    public int assignCourses(Collection<Integer> groupIds, Collection<Integer> courseIds) {
+        if (logger.isInfoEnabled()) { logger.info("Assign courses {} to groups {}", courseIds, groupIds); }
+        return groupRepository.assignCourses(groupIds, courseIds);
+    }
+    
+    public int unassignCourses(Collection<Integer> groupIds, Collection<Integer> courseIds) {
+        if (logger.isInfoEnabled()) { logger.info("Unassign courses {} from groups {}", courseIds, groupIds); }
+        return groupRepository.unassignCourses(groupIds, courseIds);
     }
     
     public Group getGroupById(int id) {
-        return groupRepository.getById(id);
+        return groupRepository.getById(id, EntityGraphs.GROUP_WITH_COURSES);
     }
     
     public List<Course> getFreeCourses(Group group) {
@@ -0,0 +1,450 @@
+package com.foxminded.university.controller.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.foxminded.university.controller.cache.ScheduleIndex;
+import com.foxminded.university.controller.cache.SlotOccupancy;
+import com.foxminded.university.controller.repository.ClassroomRepository;
+import com.foxminded.university.controller.repository.StudentRepository;
+import com.foxminded.university.controller.repository.TimeslotRepository;
+import com.foxminded.university.controller.util.DateIntervalGenerator;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.TimetablePlan;
+
+/*
+ * Builds one conflict-free week (Monday to Friday) for every assigned course and
+ * repeats it over the semester. Each search attempt is a greedy placement in a
+ * randomised order; attempts run on a fork/join pool until the time budget ends
+ * and the plan with the lowest score wins.
+ */
+@Service
+public class TimetableGenerator {
+    private static final int WORKING_DAYS = 5;
+    private static final int ATTEMPTS_PER_WORKER = 16;
+    private static final int SEQUENTIAL_ATTEMPTS = 4;
+    private static final int UNPLACED_PENALTY = 1000;
+    private static final int GAP_PENALTY = 10;
+    private static final int SAME_DAY_PENALTY = 20;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ForkJoinPool searchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final ScheduleIndex scheduleIndex;
+    private final ClassroomRepository classroomRepository;
+    private final TimeslotRepository timeslotRepository;
+    private final StudentRepository studentRepository;
+    private final LessonService lessonService;
+    private final DateIntervalGenerator dateIntervalGenerator;
+
+    @Autowired
+    public TimetableGenerator(ScheduleIndex scheduleIndex, ClassroomRepository classroomRepository,
+            TimeslotRepository timeslotRepository, StudentRepository studentRepository,
+            LessonService lessonService, DateIntervalGenerator dateIntervalGenerator) {
+        this.scheduleIndex = scheduleIndex;
+        this.classroomRepository = classroomRepository;
+        this.timeslotRepository = timeslotRepository;
+        this.studentRepository = studentRepository;
+        this.lessonService = lessonService;
+        this.dateIntervalGenerator = dateIntervalGenerator;
+    }
+
+    public TimetablePlan generate(DateInterval semester, int lessonsPerWeek, Duration budget) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Generate timetable for {} - {} ({} lessons per week, budget {})",
+                        semester.getStartDate(), semester.getEndDate(), lessonsPerWeek, budget);
+        }
+        Problem problem = loadProblem(semester, lessonsPerWeek);
+        long deadline = System.nanoTime() + budget.toNanos();
+        int attempts = searchPool.getParallelism() * ATTEMPTS_PER_WORKER;
+        WeeklyPlan weeklyPlan = searchPool.invoke(new SearchTask(problem, 0, attempts, deadline));
+
+        TimetablePlan plan = save(problem, weeklyPlan, semester);
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Generated {} lessons (score {}, gaps {}, unplaced courses {}, skipped {})",
+                        plan.getLessons().size(), plan.getScore(), plan.getGaps(),
+                        plan.getUnplacedCourseIds(), plan.getSkippedLessons());
+        }
+        return plan;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        searchPool.shutdownNow();
+    }
+
+    private Problem loadProblem(DateInterval semester, int lessonsPerWeek) {
+        List<Classroom> classrooms = new ArrayList<>(classroomRepository.getAll());
+        classrooms.sort(Comparator.comparingInt(Classroom::getCapacity));
+        List<Timeslot> timeslots = timeslotRepository.getAll();
+        Map<Integer, Integer> groupSizes = studentRepository.getCountsByGroup();
+
+        List<int[]> courses = new ArrayList<>();
+        for (int courseId : scheduleIndex.getAssignedCourseIds()) {
+            Integer teacherId = scheduleIndex.getTeacherIdByCourse(courseId);
+            if (teacherId != null) {
+                courses.add(new int[] {courseId, teacherId});
+            }
+        }
+
+        Problem problem = new Problem(classrooms, timeslots, courses.size(), lessonsPerWeek);
+        Map<Integer, Integer> teacherIndexes = new HashMap<>();
+        Map<Integer, Integer> groupIndexes = new HashMap<>();
+        for (int course = 0; course < courses.size(); course++) {
+            int courseId = courses.get(course)[0];
+            int[] groupIds = scheduleIndex.getGroupIdsByCourse(courseId);
+            problem.courseIds[course] = courseId;
+            problem.teachers[course] = teacherIndexes.computeIfAbsent(courses.get(course)[1],
+                                                                      id -> teacherIndexes.size());
+            problem.groups[course] = new int[groupIds.length];
+            for (int i = 0; i < groupIds.length; i++) {
+                problem.groups[course][i] = groupIndexes.computeIfAbsent(groupIds[i], id -> groupIndexes.size());
+                problem.audiences[course] += groupSizes.getOrDefault(groupIds[i], 0);
+            }
+        }
+        problem.teachersCount = teacherIndexes.size();
+        problem.groupsCount = groupIndexes.size();
+        occupyTakenSlots(problem, semester, teacherIndexes, groupIndexes);
+        return problem;
+    }
+
+    /* 
+     * A weekly slot is taken for a teacher, group or classroom when any week of the semester
+     * already has a lesson of theirs there, so the repeated week never clashes with one.
+     */
+    private void occupyTakenSlots(Problem problem, DateInterval semester, Map<Integer, Integer> teacherIndexes,
+                                  Map<Integer, Integer> groupIndexes) {
+        problem.teacherTaken = createBitSets(problem.teachersCount);
+        problem.groupTaken = createBitSets(problem.groupsCount);
+        problem.roomTaken = createBitSets(problem.classrooms.size());
+        int timeslotsCount = problem.timeslots.size();
+        for (LocalDate date = semester.getStartDate(); date.isAfter(semester.getEndDate()) == false;
+                date = date.plusDays(1)) {
+            int day = date.getDayOfWeek().getValue() - 1;
+            if (day >= WORKING_DAYS) {
+                continue;
+            }
+            for (int timeslot = 0; timeslot < timeslotsCount; timeslot++) {
+                int slot = day * timeslotsCount + timeslot;
+                SlotOccupancy occupancy = scheduleIndex.getOccupancy(date, problem.timeslots.get(timeslot).getId(), 0);
+                teacherIndexes.forEach((teacherId, teacher) -> {
+                    if (occupancy.isTeacherBusy(teacherId)) {
+                        problem.teacherTaken[teacher].set(slot);
+                    }
+                });
+                groupIndexes.forEach((groupId, group) -> {
+                    if (occupancy.isGroupBusy(groupId)) {
+                        problem.groupTaken[group].set(slot);
+                    }
+                });
+                for (int room = 0; room < problem.roomTaken.length; room++) {
+                    if (occupancy.isClassroomBusy(problem.classrooms.get(room).getId())) {
+                        problem.roomTaken[room].set(slot);
+                    }
+                }
+            }
+        }
+    }
+
+    /* 
+     * Repeats the week over the semester and saves it through the slot-locked check, so a lesson
+     * entered by hand during the search stays and the generated one for that slot is dropped.
+     */
+    private TimetablePlan save(Problem problem, WeeklyPlan weeklyPlan, DateInterval semester) {
+        List<Lesson> lessons = new ArrayList<>();
+        int timeslotsCount = problem.timeslots.size();
+        LocalDate weekStart = dateIntervalGenerator.getWeekByDate(semester.getStartDate()).getStartDate();
+        while (weekStart.isAfter(semester.getEndDate()) == false) {
+            for (int occurrence = 0; occurrence < weeklyPlan.slots.length; occurrence++) {
+                int slot = weeklyPlan.slots[occurrence];
+                if (slot < 0) {
+                    continue;
+                }
+                LocalDate date = weekStart.plusDays(slot / timeslotsCount);
+                if (date.isBefore(semester.getStartDate()) || date.isAfter(semester.getEndDate())) {
+                    continue;
+                }
+                int course = problem.occurrences[occurrence];
+                Timeslot timeslot = problem.timeslots.get(slot % timeslotsCount);
+                Classroom classroom = problem.classrooms.get(weeklyPlan.rooms[occurrence]);
+                lessons.add(createLesson(problem.courseIds[course], date, timeslot, classroom));
+            }
+            weekStart = weekStart.plusWeeks(1);
+        }
+        List<Lesson> saved = lessonService.addAllWithoutConflicts(lessons);
+
+        TreeSet<Integer> unplacedCourseIds = new TreeSet<>();
+        for (int occurrence = 0; occurrence < weeklyPlan.slots.length; occurrence++) {
+            if (weeklyPlan.slots[occurrence] < 0) {
+                unplacedCourseIds.add(problem.courseIds[problem.occurrences[occurrence]]);
+            }
+        }
+        return new TimetablePlan(saved, new ArrayList<>(unplacedCourseIds), lessons.size() - saved.size(),
+                                 weeklyPlan.gaps, weeklyPlan.score);
+    }
+
+    private Lesson createLesson(int courseId, LocalDate date, Timeslot timeslot, Classroom classroom) {
+        Course course = new Course();
+        course.setId(courseId);
+
+        Lesson lesson = new Lesson();
+        lesson.setDate(date);
+        lesson.setTime(timeslot);
+        lesson.setClassroom(classroom);
+        lesson.setCourse(course);
+        return lesson;
+    }
+
+    static WeeklyPlan solve(Problem problem, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int timeslotsCount = problem.timeslots.size();
+        BitSet[] teacherBusy = copyBitSets(problem.teacherTaken);
+        BitSet[] groupBusy = copyBitSets(problem.groupTaken);
+        BitSet[] roomBusy = copyBitSets(problem.roomTaken);
+        BitSet[] courseDays = createBitSets(problem.courseIds.length);
+        int[] slots = new int[problem.occurrences.length];
+        int[] rooms = new int[problem.occurrences.length];
+        Arrays.fill(slots, -1);
+        Arrays.fill(rooms, -1);
+
+        for (int occurrence : getPlacementOrder(problem, random, seed == 0)) {
+            int course = problem.occurrences[occurrence];
+            int bestCost = Integer.MAX_VALUE;
+            for (int slot = 0; slot < problem.slotsCount; slot++) {
+                if (teacherBusy[problem.teachers[course]].get(slot) || isAnyBusy(groupBusy, problem.groups[course], slot)) {
+                    continue;
+                }
+                int room = findRoom(problem, roomBusy, problem.audiences[course], slot);
+                if (room < 0) {
+                    continue;
+                }
+                int day = slot / timeslotsCount;
+                int cost = problem.capacities[room] - problem.audiences[course];
+                if (courseDays[course].get(day)) {
+                    cost += SAME_DAY_PENALTY;
+                }
+                for (int group : problem.groups[course]) {
+                    if (opensGap(groupBusy[group], slot, day * timeslotsCount, (day + 1) * timeslotsCount)) {
+                        cost += GAP_PENALTY;
+                    }
+                }
+                if (seed != 0) {
+                    cost += random.nextInt(GAP_PENALTY);
+                }
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    slots[occurrence] = slot;
+                    rooms[occurrence] = room;
+                }
+            }
+
+            int slot = slots[occurrence];
+            if (slot >= 0) {
+                teacherBusy[problem.teachers[course]].set(slot);
+                roomBusy[rooms[occurrence]].set(slot);
+                courseDays[course].set(slot / timeslotsCount);
+                for (int group : problem.groups[course]) {
+                    groupBusy[group].set(slot);
+                }
+            }
+        }
+        return new WeeklyPlan(problem, slots, rooms, groupBusy);
+    }
+
+    private static Integer[] getPlacementOrder(Problem problem, SplittableRandom random, boolean deterministic) {
+        double[] priorities = new double[problem.occurrences.length];
+        Integer[] order = new Integer[problem.occurrences.length];
+        for (int occurrence = 0; occurrence < order.length; occurrence++) {
+            int course = problem.occurrences[occurrence];
+            double priority = problem.groups[course].length * (double) problem.slotsCount + problem.audiences[course];
+            priorities[occurrence] = deterministic ? priority : priority * (0.5 + random.nextDouble());
+            order[occurrence] = occurrence;
+        }
+        Arrays.sort(order, (first, second) -> Double.compare(priorities[second], priorities[first]));
+        return order;
+    }
+
+    private static boolean isAnyBusy(BitSet[] busy, int[] indexes, int slot) {
+        for (int index : indexes) {
+            if (busy[index].get(slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Classrooms are sorted by capacity, so the first free one that fits wastes the fewest seats. */
+    private static int findRoom(Problem problem, BitSet[] roomBusy, int audience, int slot) {
+        for (int room = 0; room < roomBusy.length; room++) {
+            if (problem.capacities[room] >= audience && roomBusy[room].get(slot) == false) {
+                return room;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean opensGap(BitSet busy, int slot, int dayStart, int dayEnd) {
+        int first = busy.nextSetBit(dayStart);
+        if (first < 0 || first >= dayEnd) {
+            return false;
+        }
+        boolean before = slot > dayStart && busy.get(slot - 1);
+        boolean after = slot + 1 < dayEnd && busy.get(slot + 1);
+        return before == false && after == false;
+    }
+
+    private static BitSet[] createBitSets(int count) {
+        BitSet[] bitSets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            bitSets[i] = new BitSet();
+        }
+        return bitSets;
+    }
+
+    private static BitSet[] copyBitSets(BitSet[] source) {
+        BitSet[] bitSets = new BitSet[source.length];
+        for (int i = 0; i < source.length; i++) {
+            bitSets[i] = (BitSet) source[i].clone();
+        }
+        return bitSets;
+    }
+
+    static final class Problem {
+        final List<Classroom> classrooms;
+        final int[] capacities;
+        final List<Timeslot> timeslots;
+        final int slotsCount;
+        final int[] courseIds;
+        final int[] teachers;
+        final int[][] groups;
+        final int[] audiences;
+        final int[] occurrences;
+        int teachersCount;
+        int groupsCount;
+        BitSet[] teacherTaken;
+        BitSet[] groupTaken;
+        BitSet[] roomTaken;
+
+        Problem(List<Classroom> classrooms, List<Timeslot> timeslots, int coursesCount, int lessonsPerWeek) {
+            this.classrooms = classrooms;
+            this.capacities = classrooms.stream().mapToInt(Classroom::getCapacity).toArray();
+            this.timeslots = timeslots;
+            this.slotsCount = WORKING_DAYS * timeslots.size();
+            this.courseIds = new int[coursesCount];
+            this.teachers = new int[coursesCount];
+            this.groups = new int[coursesCount][];
+            this.audiences = new int[coursesCount];
+            this.occurrences = new int[coursesCount * Math.max(lessonsPerWeek, 0)];
+            for (int occurrence = 0; occurrence < occurrences.length; occurrence++) {
+                occurrences[occurrence] = occurrence % coursesCount;
+            }
+        }
+    }
+
+    static final class WeeklyPlan {
+        final int[] slots;
+        final int[] rooms;
+        final int gaps;
+        final int score;
+
+        WeeklyPlan(Problem problem, int[] slots, int[] rooms, BitSet[] groupBusy) {
+            this.slots = slots;
+            this.rooms = rooms;
+
+            int unplaced = 0;
+            int wastedSeats = 0;
+            for (int occurrence = 0; occurrence < slots.length; occurrence++) {
+                if (slots[occurrence] < 0) {
+                    unplaced++;
+                } else {
+                    wastedSeats += problem.capacities[rooms[occurrence]]
+                                   - problem.audiences[problem.occurrences[occurrence]];
+                }
+            }
+
+            int timeslotsCount = problem.timeslots.size();
+            int gapsCount = 0;
+            for (BitSet busy : groupBusy) {
+                for (int day = 0; day < WORKING_DAYS; day++) {
+                    int first = busy.nextSetBit(day * timeslotsCount);
+                    if (first < 0 || first >= (day + 1) * timeslotsCount) {
+                        continue;
+                    }
+                    int last = busy.previousSetBit((day + 1) * timeslotsCount - 1);
+                    gapsCount += last - first + 1 - busy.get(first, last + 1).cardinality();
+                }
+            }
+            this.gaps = gapsCount;
+            this.score = unplaced * UNPLACED_PENALTY + gapsCount * GAP_PENALTY + wastedSeats;
+        }
+
+        boolean isBetterThan(WeeklyPlan other) {
+            return other == null || score < other.score;
+        }
+    }
+
+    /* Splits the attempt range in halves; attempt 0 is deterministic and always runs. */
+    private static final class SearchTask extends RecursiveTask<WeeklyPlan> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Problem problem;
+        private final int fromAttempt;
+        private final int toAttempt;
+        private final long deadline;
+
+        SearchTask(Problem problem, int fromAttempt, int toAttempt, long deadline) {
+            this.problem = problem;
+            this.fromAttempt = fromAttempt;
+            this.toAttempt = toAttempt;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected WeeklyPlan compute() {
+            if (toAttempt - fromAttempt <= SEQUENTIAL_ATTEMPTS) {
+                WeeklyPlan best = null;
+                for (int attempt = fromAttempt; attempt < toAttempt; attempt++) {
+                    if (attempt > 0 && System.nanoTime() - deadline > 0) {
+                        break;
+                    }
+                    WeeklyPlan plan = solve(problem, attempt);
+                    if (plan.isBetterThan(best)) {
+                        best = plan;
+                    }
+                }
+                return best;
+            }
+
+            int middle = (fromAttempt + toAttempt) >>> 1;
+            SearchTask left = new SearchTask(problem, fromAttempt, middle, deadline);
+            left.fork();
+            WeeklyPlan right = new SearchTask(problem, middle, toAttempt, deadline).compute();
+            WeeklyPlan best = left.join();
+            return right != null && right.isBetterThan(best) ? right : best;
+        }
+    }
+}
@@ -1,15 +1,29 @@
 package com.foxminded.university.controller.service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
 import com.foxminded.university.controller.repository.TimetableRepository;
 import com.foxminded.university.controller.util.DateIntervalGenerator;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.ContentVersion;
+import com.foxminded.university.model.Course;
 import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Faculty;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.Lesson;
 import com.foxminded.university.model.Student;
 import com.foxminded.university.model.Teacher;
+import com.foxminded.university.model.Timeslot;
 import com.foxminded.university.model.Timetable;
 
 @Service
@@ -18,11 +32,14 @@ public class TimetableService {
     
     private final TimetableRepository timetableRepository;
     private final DateIntervalGenerator dateIntervalGenerator;
+    private final ChangeTracker changeTracker;
     
     @Autowired
-    public TimetableService(TimetableRepository timetableRepository, DateIntervalGenerator dateIntervalGenerator) {
+    public TimetableService(TimetableRepository timetableRepository, DateIntervalGenerator dateIntervalGenerator,
+                            ChangeTracker changeTracker) {
         this.timetableRepository = timetableRepository;
         this.dateIntervalGenerator = dateIntervalGenerator;
+        this.changeTracker = changeTracker;
     }
     
     public Timetable getTeacherTimetable(String startDate, String endDate, int teacherId) {
@@ -46,7 +63,116 @@ public class TimetableService {
         
         DateInterval dateInterval = generateDateInterval(startDate, endDate);
         
-        return timetableRepository.getByStudent(student, dateInterval);
+        Timetable timetable = new Timetable();
+        timetable.setDateInterval(dateInterval);
+        Integer groupId = timetableRepository.getGroupIdByStudent(student);
+        if (groupId == null) {
+            timetable.setLessons(new ArrayList<>());
+        } else {
+            timetable.setLessons(loadGroupLessons(groupId, dateInterval));
+        }
+        return timetable;
+    }
+    
+    public Map<Group, Timetable> getFacultyTimetable(DateInterval dateInterval, int facultyId) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Get timetable for faculty ({}, {}, {})", 
+                    dateInterval.getStartDate(), dateInterval.getEndDate(), facultyId);
+        }
+        Faculty faculty = new Faculty();
+        faculty.setId(facultyId);
+        return timetableRepository.getByFaculty(faculty, dateInterval);
+    }
+    
+    public ContentVersion getStudentTimetableVersion(int studentId, DateInterval dateInterval) {
+        Student student = new Student();
+        student.setId(studentId);
+        Integer groupId = timetableRepository.getGroupIdByStudent(student);
+        return changeTracker.getContentVersion("s" + studentId + "-" + getIntervalTag(dateInterval),
+                changeTracker.getVersion(Student.class),
+                groupId == null ? 0 : changeTracker.getGroupVersion(groupId),
+                changeTracker.getVersion(Course.class),
+                changeTracker.getVersion(Classroom.class),
+                changeTracker.getVersion(Timeslot.class));
+    }
+    
+    public ContentVersion getTeacherTimetableVersion(int teacherId, DateInterval dateInterval) {
+        return changeTracker.getContentVersion("t" + teacherId + "-" + getIntervalTag(dateInterval),
+                changeTracker.getTeacherVersion(teacherId),
+                changeTracker.getVersion(Course.class),
+                changeTracker.getVersion(Classroom.class),
+                changeTracker.getVersion(Timeslot.class));
+    }
+    
+    public String getStudentCalendarTag(int studentId) {
+        Student student = new Student();
+        student.setId(studentId);
+        Integer groupId = timetableRepository.getGroupIdByStudent(student);
+        if (groupId == null) {
+            return null;
+        }
+        DateInterval semester = getCalendarInterval();
+        Group group = new Group();
+        group.setId(groupId);
+        return "g" + groupId + "-" + semester.getStartDate() + "-"
+               + Long.toHexString(timetableRepository.getChecksumByGroup(group, semester));
+    }
+    
+    public String getTeacherCalendarTag(int teacherId) {
+        DateInterval semester = getCalendarInterval();
+        Teacher teacher = new Teacher();
+        teacher.setId(teacherId);
+        return "t" + teacherId + "-" + semester.getStartDate() + "-"
+               + Long.toHexString(timetableRepository.getChecksumByTeacher(teacher, semester));
+    }
+    
+    public void streamStudentCalendar(int studentId, Consumer<Lesson> consumer) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Stream calendar for student (id = {})", studentId);
+        }
+        Student student = new Student();
+        student.setId(studentId);
+        Integer groupId = timetableRepository.getGroupIdByStudent(student);
+        if (groupId != null) {
+            Group group = new Group();
+            group.setId(groupId);
+            timetableRepository.streamByGroup(group, getCalendarInterval(), consumer);
+        }
+    }
+    
+    public void streamTeacherCalendar(int teacherId, Consumer<Lesson> consumer) {
+        if (logger.isInfoEnabled()) {
+            logger.info("Stream calendar for teacher (id = {})", teacherId);
+        }
+        Teacher teacher = new Teacher();
+        teacher.setId(teacherId);
+        timetableRepository.streamByTeacher(teacher, getCalendarInterval(), consumer);
+    }
+    
+    private String getIntervalTag(DateInterval dateInterval) {
+        return dateInterval.getStartDate().toEpochDay() + "-" + dateInterval.getEndDate().toEpochDay();
+    }
+    
+    private DateInterval getCalendarInterval() {
+        return dateIntervalGenerator.getSemesterByDate(LocalDate.now());
+    }
+    
+    public DateInterval getViewInterval(String view, String date) {
+        DateInterval week = generateDateInterval(date, date);
+        LocalDate startDate = week.getStartDate();
+        if ("month".equals(view)) {
+            return dateIntervalGenerator.getMonthByDate(startDate);
+        }
+        if ("semester".equals(view)) {
+            return dateIntervalGenerator.getSemesterByDate(startDate);
+        }
+        return dateIntervalGenerator.getWeekByDate(startDate);
+    }
+    
+    private List<Lesson> loadGroupLessons(int groupId, DateInterval dateInterval) {
+        Group group = new Group();
+        group.setId(groupId);
+        return timetableRepository.getByGroup(group, dateInterval).getLessons();
     }
     
     private DateInterval generateDateInterval(String startDate, String endDate) {
@@ -13,6 +13,8 @@ import com.foxminded.university.model.DateInterval;
 public class DateIntervalGenerator {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private static final int NUM_DAYS_TO_END_OF_WEEK = 6;
+    private static final int SPRING_SEMESTER_START = 2;
+    private static final int AUTUMN_SEMESTER_START = 9;
 
     public DateInterval getMonthByDate(LocalDate date) {
         LocalDate startDate = getFirstDayOfMonth(date);
@@ -26,6 +28,24 @@ public class DateIntervalGenerator {
         return new DateInterval(startDate, endDate);
     }
     
+    /* Autumn semester runs from September to January, spring semester from February to August. */
+    public DateInterval getSemesterByDate(LocalDate date) {
+        LocalDate firstDayOfMonth = getFirstDayOfMonth(date);
+        int month = firstDayOfMonth.getMonthValue();
+        LocalDate startDate;
+        if (month >= SPRING_SEMESTER_START && month < AUTUMN_SEMESTER_START) {
+            startDate = firstDayOfMonth.withMonth(SPRING_SEMESTER_START);
+        } else if (month >= AUTUMN_SEMESTER_START) {
+            startDate = firstDayOfMonth.withMonth(AUTUMN_SEMESTER_START);
+        } else {
+            startDate = firstDayOfMonth.minusYears(1).withMonth(AUTUMN_SEMESTER_START);
+        }
+        int length = startDate.getMonthValue() == AUTUMN_SEMESTER_START 
+                     ? 12 - AUTUMN_SEMESTER_START + SPRING_SEMESTER_START
+                     : AUTUMN_SEMESTER_START - SPRING_SEMESTER_START;
+        return new DateInterval(startDate, startDate.plusMonths(length).minusDays(1));
+    }
+    
     public DateInterval getCurrentMonth() {
         return getMonthByDate(LocalDate.now());
     }
@@ -0,0 +1,85 @@
+package com.foxminded.university.controller.util;
+
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.foxminded.university.model.Lesson;
+
+/*
+ * Writes RFC 5545 calendars line by line. Lesson times come from timeslot
+ * descriptions such as "09:00 - 10:30"; a lesson whose timeslot has no such
+ * range becomes an all-day event.
+ */
+@Component
+public class ICalendarWriter {
+    private static final Pattern TIME_RANGE = Pattern.compile("(\\d{1,2}):(\\d{2})\\s*-\\s*(\\d{1,2}):(\\d{2})");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final int MAX_LINE_LENGTH = 75;
+    private static final String LINE_END = "\r\n";
+
+    public void writeHeader(PrintWriter writer, String calendarName) {
+        writeLine(writer, "BEGIN:VCALENDAR");
+        writeLine(writer, "VERSION:2.0");
+        writeLine(writer, "PRODID:-//Foxminded//University timetable//EN");
+        writeLine(writer, "CALSCALE:GREGORIAN");
+        writeLine(writer, "X-WR-CALNAME:" + escape(calendarName));
+    }
+
+    public void writeEvent(PrintWriter writer, Lesson lesson) {
+        writeLine(writer, "BEGIN:VEVENT");
+        writeLine(writer, "UID:lesson-" + lesson.getId() + "@university");
+        writeLine(writer, "DTSTAMP:" + LocalDateTime.now(ZoneOffset.UTC).format(DATE_TIME_FORMAT) + "Z");
+        Matcher timeRange = lesson.getTime() == null || lesson.getTime().getDescription() == null
+                            ? null : TIME_RANGE.matcher(lesson.getTime().getDescription());
+        if (timeRange != null && timeRange.find()) {
+            LocalTime start = LocalTime.of(Integer.parseInt(timeRange.group(1)), Integer.parseInt(timeRange.group(2)));
+            LocalTime end = LocalTime.of(Integer.parseInt(timeRange.group(3)), Integer.parseInt(timeRange.group(4)));
+            writeLine(writer, "DTSTART:" + lesson.getDate().atTime(start).format(DATE_TIME_FORMAT));
+            writeLine(writer, "DTEND:" + lesson.getDate().atTime(end).format(DATE_TIME_FORMAT));
+        } else {
+            writeLine(writer, "DTSTART;VALUE=DATE:" + lesson.getDate().format(DATE_FORMAT));
+        }
+        writeLine(writer, "SUMMARY:" + escape(lesson.getCourse().getName()));
+        if (lesson.getClassroom() != null) {
+            writeLine(writer, "LOCATION:" + escape(lesson.getClassroom().getNumber()));
+        }
+        writeLine(writer, "END:VEVENT");
+    }
+
+    public void writeFooter(PrintWriter writer) {
+        writeLine(writer, "END:VCALENDAR");
+        writer.flush();
+    }
+
+    private void writeLine(PrintWriter writer, String line) {
+        int position = 0;
+        while (line.length() - position > MAX_LINE_LENGTH) {
+            int end = position + (position == 0 ? MAX_LINE_LENGTH : MAX_LINE_LENGTH - 1);
+            writer.write(line, position, end - position);
+            writer.write(LINE_END);
+            writer.write(' ');
+            position = end;
+        }
+        writer.write(line, position, line.length() - position);
+        writer.write(LINE_END);
+    }
+
+    private String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("\\", "\\\\")
+                   .replace(";", "\\;")
+                   .replace(",", "\\,")
+                   .replace("\r\n", "\\n")
+                   .replace("\n", "\\n");
+    }
+}
@@ -1,53 +1,65 @@
 package com.foxminded.university.controller.util;
 
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import com.foxminded.university.model.DateInterval;
 import com.foxminded.university.model.Lesson;
 import com.foxminded.university.model.Timeslot;
 import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
 
 @Component
-public class TimetableFormatter {   
-    public Map<LocalDate, Lesson[]> generateFormattedTable(Timetable timeTable, List<Timeslot> timeslots) {        
-        List<LocalDate> dates = generateDatesList(timeTable.getDateInterval());
-        Map<LocalDate, Lesson[]> output = new LinkedHashMap<>();
-        for(LocalDate date : dates) {
-            output.put(date, new Lesson[timeslots.size()]);
-        }
+public class TimetableFormatter {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
+    /* Timeslot id -> column table, rebuilt only when the list of timeslots changes. */
+    private volatile TimeslotColumns timeslotColumns = new TimeslotColumns(new int[0]);
+    
+    public TimetableGrid generateFormattedTable(Timetable timeTable, List<Timeslot> timeslots) {
+        TimeslotColumns columns = getTimeslotColumns(timeslots);
+        TimetableGrid output = new TimetableGrid(timeTable.getDateInterval(), timeslots.size());
         
-        for(Lesson lesson : timeTable.getLessons()) {
-            Lesson[] lessonsOfDay = output.get(lesson.getDate());
-            lessonsOfDay[findTimeslotIndex(timeslots, lesson.getTime())] = lesson;
+        for (Lesson lesson : timeTable.getLessons()) {
+            int column = lesson.getTime() == null ? -1 : columns.getColumn(lesson.getTime().getId());
+            if (output.put(lesson, column) == false && logger.isDebugEnabled()) {
+                logger.debug("Lesson (id = {}) is outside of the timetable grid", lesson.getId());
+            }
         }
         
         return output;
     }
     
-    private List<LocalDate> generateDatesList(DateInterval dateInterval) {
-        List<LocalDate> output = new ArrayList<>();
-        LocalDate currentDate = dateInterval.getStartDate(); 
-        while(currentDate.isAfter(dateInterval.getEndDate()) == false) {
-            output.add(currentDate);
-            currentDate = currentDate.plusDays(1);
+    private TimeslotColumns getTimeslotColumns(List<Timeslot> timeslots) {
+        int[] ids = timeslots.stream().mapToInt(Timeslot::getId).toArray();
+        TimeslotColumns columns = timeslotColumns;
+        if (Arrays.equals(columns.ids, ids) == false) {
+            columns = new TimeslotColumns(ids);
+            timeslotColumns = columns;
         }
-        return output;
+        return columns;
     }
     
-    private int findTimeslotIndex(List<Timeslot> timeslots, Timeslot timeslot) {
-        int index = -1;
-        for (int i = 0 ; i < timeslots.size(); i++) {
-            if (timeslots.get(i).getId() == timeslot.getId()) {
-                index = i;
-                break;
+    private static final class TimeslotColumns {
+        private final int[] ids;
+        private final int[] columnById;
+        
+        private TimeslotColumns(int[] ids) {
+            this.ids = ids;
+            this.columnById = new int[Arrays.stream(ids).max().orElse(-1) + 1];
+            Arrays.fill(columnById, -1);
+            for (int column = 0; column < ids.length; column++) {
+                if (ids[column] >= 0 && columnById[ids[column]] < 0) {
+                    columnById[ids[column]] = column;
+                }
             }
         }
-        return index;
+        
+        private int getColumn(int timeslotId) {
+            return timeslotId >= 0 && timeslotId < columnById.length ? columnById[timeslotId] : -1;
+        }
     }
 }
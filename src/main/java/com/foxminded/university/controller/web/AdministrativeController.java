@@ -1,9 +1,15 @@
 package com.foxminded.university.controller.web;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,19 +17,33 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.foxminded.university.controller.service.AdminDashboardQuery;
 import com.foxminded.university.controller.service.AdministrativeService;
+import com.foxminded.university.controller.service.BulkImportService;
+import com.foxminded.university.model.AdminDashboard;
 import com.foxminded.university.model.Faculty;
 import com.foxminded.university.model.Group;
+import com.foxminded.university.model.ImportReport;
 import com.foxminded.university.model.Teacher;
 
 @Controller
 public class AdministrativeController {
+    private static final String CSV_CONTENT_TYPE = "text/csv";
+    private static final String REPORT_CONTENT_TYPE = "text/plain;charset=UTF-8";
+    
     private AdministrativeService administrativeService;
+    private AdminDashboardQuery adminDashboardQuery;
+    private BulkImportService bulkImportService;
     
     @Autowired 
-    public AdministrativeController(AdministrativeService administrativeService) {
+    public AdministrativeController(AdministrativeService administrativeService,
+                                    AdminDashboardQuery adminDashboardQuery,
+                                    BulkImportService bulkImportService) {
         this.administrativeService = administrativeService;
+        this.adminDashboardQuery = adminDashboardQuery;
+        this.bulkImportService = bulkImportService;
     }
     
     @RequestMapping("/admin")
@@ -32,17 +52,11 @@ public class AdministrativeController {
         model.addAttribute("teacher", new Teacher());
         model.addAttribute("group", new Group());
         
-        List<Faculty> faculties = administrativeService.getAllFaculties();
-        
-        List<Group> groups = new ArrayList<>();
-        faculties.forEach(f -> groups.addAll(administrativeService.getGroupsByFaculty(f.getId())));
-
-        List<Teacher> teachers = new ArrayList<>();
-        faculties.forEach(f -> teachers.addAll(administrativeService.getTeachersByFaculty(f.getId())));
+        AdminDashboard dashboard = adminDashboardQuery.load();
         
-        model.addAttribute("faculties", faculties);
-        model.addAttribute("groups", groups);
-        model.addAttribute("teachers", teachers);
+        model.addAttribute("faculties", dashboard.getFaculties());
+        model.addAttribute("groups", dashboard.getGroups());
+        model.addAttribute("teachers", dashboard.getTeachers());
         return "admin";
     }
     
@@ -159,8 +173,41 @@ public class AdministrativeController {
     }
     
     @PostMapping("/admin/editgroup")
-    public String updateGroup(@ModelAttribute Group group, Model model) {
-        administrativeService.updateGroup(group);
+    public String updateGroup(@ModelAttribute Group group, RedirectAttributes redirectAttributes) {
+        try {
+            administrativeService.updateGroup(group);
+        } catch (OptimisticLockingFailureException ex) {
+            redirectAttributes.addFlashAttribute("conflict", ex.getMessage());
+        }
         return "redirect:/admin";
     }
+    
+    @PostMapping(value = "/admin/import/students", consumes = CSV_CONTENT_TYPE)
+    public void importStudents(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        writeReport(response, bulkImportService.importStudents(getCsvReader(request)));
+    }
+    
+    @PostMapping(value = "/admin/import/teachers", consumes = CSV_CONTENT_TYPE)
+    public void importTeachers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        writeReport(response, bulkImportService.importTeachers(getCsvReader(request)));
+    }
+    
+    private Reader getCsvReader(HttpServletRequest request) throws IOException {
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding("UTF-8");
+        }
+        return request.getReader();
+    }
+    
+    private void writeReport(HttpServletResponse response, ImportReport report) throws IOException {
+        response.setStatus(report.isSuccessful() ? HttpServletResponse.SC_OK : HttpServletResponse.SC_BAD_REQUEST);
+        response.setContentType(REPORT_CONTENT_TYPE);
+        PrintWriter writer = response.getWriter();
+        writer.println(String.format("Imported %d %s in %d ms (%d rows/s)", report.getRows(), 
+                       report.getEntityName(), report.getElapsedMillis(), report.getRowsPerSecond()));
+        if (report.isSuccessful() == false) {
+            writer.println(report.getFailure());
+        }
+        writer.flush();
+    }
 }
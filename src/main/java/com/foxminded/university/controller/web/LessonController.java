@@ -1,8 +1,15 @@
 package com.foxminded.university.controller.web;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,26 +17,42 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.foxminded.university.controller.service.LessonService;
+import com.foxminded.university.controller.service.TimetableGenerator;
 import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.ClassroomView;
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.TimeslotView;
+import com.foxminded.university.model.TimetablePlan;
 
 @Controller
 public class LessonController {
+    private static final int MAX_LESSONS_PER_WEEK = 30;
+    private static final int MAX_BUDGET_SECONDS = 30;
+    private static final int MAX_GENERATED_DAYS = 366;
+    
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    
     private LessonService lessonService;
+    private TimetableGenerator timetableGenerator;
     
     @Autowired
-    public LessonController(LessonService lessonService) {
+    public LessonController(LessonService lessonService, TimetableGenerator timetableGenerator) {
         this.lessonService = lessonService;
+        this.timetableGenerator = timetableGenerator;
     }
     
     @RequestMapping("/lesson")
-    public String lessonsInfo(Model model) {
-        List<Classroom> classrooms = lessonService.getAllClassrooms();
-        List<Timeslot> timeslots = lessonService.getAllTimeslots();
+    public String lessonsInfo(@RequestParam(required = false) String after, Model model) {
+        KeysetPage<ClassroomView> page = lessonService.getClassroomPage(after);
+        List<TimeslotView> timeslots = lessonService.getTimeslotViews();
         
-        model.addAttribute("classrooms", classrooms);
+        model.addAttribute("page", page);
+        model.addAttribute("classrooms", page.getItems());
         model.addAttribute("timeslots", timeslots);
         model.addAttribute("classroom", new Classroom());
         model.addAttribute("timeslot", new Timeslot());
@@ -103,4 +126,34 @@ public class LessonController {
         }
         return "redirect:/lesson";
     }
+    
+    /* The search and the inserts run on the request thread, so the budget, the load and the range are bounded. */
+    @PostMapping("/lesson/generate")
+    public String generateTimetable(@RequestParam String startDate,
+                                    @RequestParam String endDate,
+                                    @RequestParam(defaultValue = "1") int lessonsPerWeek,
+                                    @RequestParam(defaultValue = "10") int budget,
+                                    Model model) {
+        DateInterval semester;
+        try {
+            semester = new DateInterval(LocalDate.parse(startDate), LocalDate.parse(endDate));
+        } catch (DateTimeParseException ex) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Timetable not generated, dates {} - {} cannot be read", startDate, endDate, ex);
+            }
+            return "redirect:/lesson";
+        }
+        long days = ChronoUnit.DAYS.between(semester.getStartDate(), semester.getEndDate());
+        if (days < 0 || days > MAX_GENERATED_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                    "End date must be on or after the start date and at most " + MAX_GENERATED_DAYS + " days later");
+        }
+        int clampedLessonsPerWeek = Math.min(Math.max(lessonsPerWeek, 1), MAX_LESSONS_PER_WEEK);
+        int clampedBudget = Math.min(Math.max(budget, 0), MAX_BUDGET_SECONDS);
+        TimetablePlan plan = timetableGenerator.generate(semester, clampedLessonsPerWeek, 
+                                                         Duration.ofSeconds(clampedBudget));
+        return "redirect:/lesson?generated=" + plan.getLessons().size()
+               + "&unplaced=" + plan.getUnplacedCourseIds().size()
+               + "&skipped=" + plan.getSkippedLessons();
+    }
 }
@@ -0,0 +1,39 @@
+package com.foxminded.university.controller.web;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObjectBuilder;
+import javax.servlet.http.HttpServletResponse;
+
+import com.foxminded.university.model.PersonMatch;
+
+/* Writes search results as a JSON array of {id, firstName, lastName} objects. */
+final class PersonMatchWriter {
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private PersonMatchWriter() {
+    }
+
+    static void write(HttpServletResponse response, List<PersonMatch> matches) throws IOException {
+        JsonArrayBuilder array = Json.createArrayBuilder();
+        for (PersonMatch match : matches) {
+            JsonObjectBuilder object = Json.createObjectBuilder().add("id", match.getId());
+            addName(object, "firstName", match.getFirstName());
+            addName(object, "lastName", match.getLastName());
+            array.add(object);
+        }
+        response.setContentType(JSON_CONTENT_TYPE);
+        Json.createWriter(response.getWriter()).writeArray(array.build());
+    }
+
+    private static void addName(JsonObjectBuilder object, String name, String value) {
+        if (value == null) {
+            object.addNull(name);
+        } else {
+            object.add(name, value);
+        }
+    }
+}
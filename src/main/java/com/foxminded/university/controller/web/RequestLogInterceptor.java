@@ -0,0 +1,64 @@
+package com.foxminded.university.controller.web;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.foxminded.university.config.logging.RequestLog;
+import com.foxminded.university.config.logging.StatementLog;
+
+/*
+ * Opens a RequestLog and a StatementLog for every handled request and writes one
+ * key=value line when it completes: the request, its handler, status, duration,
+ * SQL statement count and the service messages collected on the way. A query
+ * shape sent REPEATED_QUERY_THRESHOLD times or more is reported as a likely N+1
+ * with the handler that caused it.
+ */
+public class RequestLogInterceptor implements HandlerInterceptor {
+    static final int REPEATED_QUERY_THRESHOLD = 5;
+
+    private final Logger logger = LoggerFactory.getLogger("com.foxminded.university.request");
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestLog.start();
+        StatementLog.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        StatementLog statementLog = StatementLog.finish();
+        RequestLog requestLog = RequestLog.finish();
+        String handlerName = getHandlerName(handler);
+        if (statementLog != null && logger.isWarnEnabled()) {
+            Map<String, Integer> repeatedShapes = statementLog.getRepeatedShapes(REPEATED_QUERY_THRESHOLD);
+            repeatedShapes.forEach((shape, count) -> logger.warn("Query sent {} times by {} ({} {}): {}", count,
+                                                                 handlerName, request.getMethod(),
+                                                                 request.getRequestURI(), shape));
+        }
+        if (requestLog != null && logger.isInfoEnabled()) {
+            logger.info("method={} uri={} handler={} status={} durationMs={} error={} statements={} events={} "
+                        + "messages=\"{}\"", request.getMethod(), request.getRequestURI(), handlerName,
+                        response.getStatus(), requestLog.getElapsedMillis(),
+                        ex == null ? "-" : ex.getClass().getSimpleName(),
+                        statementLog == null ? 0 : statementLog.getCount(), requestLog.getEventCount(),
+                        requestLog.getSummary());
+        }
+    }
+
+    static String getHandlerName(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return handler.getClass().getSimpleName();
+    }
+}
@@ -1,22 +1,25 @@
 package com.foxminded.university.controller.web;
 
+import java.io.IOException;
 import java.sql.SQLException;
-import java.util.List;
 
 import javax.naming.NamingException;
+import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import com.foxminded.university.controller.service.StudentsService;
-import com.foxminded.university.model.Group;
+import com.foxminded.university.model.ContentVersion;
+import com.foxminded.university.model.GroupView;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Student;
 
 @Controller
@@ -29,20 +32,28 @@ public class StudentsController {
     }
     
     @RequestMapping("/student")
-    @Transactional
-    public String studentsInfo(Model model) throws NamingException, SQLException {        
-        List<Group> groups = studentsService.getAllGroups();
-        model.addAttribute("groups", groups);
-        model.addAttribute("groupsCount", groups.size());
+    public String studentsInfo(@RequestParam(required = false) String after, WebRequest request, 
+                               Model model) throws NamingException, SQLException {        
+        ContentVersion version = studentsService.getGroupsVersion();
+        if (request.checkNotModified(version.getTag(), version.getLastModified())) {
+            return null;
+        }
+        KeysetPage<GroupView> page = studentsService.getStudentPage(after);
+        model.addAttribute("page", page);
+        model.addAttribute("groups", page.getItems());
+        model.addAttribute("groupOptions", studentsService.getGroupOptions());
+        model.addAttribute("groupsCount", studentsService.getGroupsCount());
         model.addAttribute("student", new Student());
-        
-        int[] studentsCount = {0};
-        groups.forEach(group -> studentsCount[0] += group.getStudents().size());
-        model.addAttribute("studentsCount", studentsCount[0]);
+        model.addAttribute("studentsCount", studentsService.getStudentsCount());
         
         return "student";
     }
     
+    @GetMapping("/student/search")
+    public void searchStudents(@RequestParam String q, HttpServletResponse response) throws IOException {
+        PersonMatchWriter.write(response, studentsService.searchStudents(q));
+    }
+    
     @PostMapping("/addstudent")
     public String addStudent(@ModelAttribute Student student, Model model) {
         studentsService.addStudent(student.getFirstName(), student.getLastName(), student.getGroup().getId());
@@ -65,7 +76,7 @@ public class StudentsController {
         try {
             int studentId = Integer.parseInt(id);
             model.addAttribute("student", studentsService.getStudent(studentId));
-            model.addAttribute("groups", studentsService.getAllGroups());
+            model.addAttribute("groups", studentsService.getGroupOptions());
         } catch (NumberFormatException ex) {
             //log error
         }
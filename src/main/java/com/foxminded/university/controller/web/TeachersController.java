@@ -1,8 +1,14 @@
 package com.foxminded.university.controller.web;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,11 +16,16 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.foxminded.university.controller.service.TeachersService;
+import com.foxminded.university.model.ContentVersion;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Group;
-import com.foxminded.university.model.Teacher;
+import com.foxminded.university.model.GroupView;
+import com.foxminded.university.model.KeysetPage;
+import com.foxminded.university.model.TeacherView;
 
 @Controller
 public class TeachersController {
@@ -26,16 +37,37 @@ public class TeachersController {
     }
     
     @RequestMapping("/teacher")
-    public String teachersInfo(Model model) {
-        List<Teacher> teachers = teachersService.getAll();
-        model.addAttribute("teachers", teachers);
+    public String teachersInfo(@RequestParam(required = false) String after, WebRequest request, Model model) {
+        ContentVersion version = teachersService.getTeachersVersion();
+        if (model.containsAttribute("conflict") == false && request.checkNotModified(version.getTag(), version.getLastModified())) {
+            return null;
+        }
+        KeysetPage<TeacherView> page = teachersService.getTeacherPage(after);
+        model.addAttribute("page", page);
+        model.addAttribute("teachers", page.getItems());
+        model.addAttribute("teacherOptions", teachersService.getTeacherOptions());
         model.addAttribute("course", new Course());
         
-        List<Group> groups = teachersService.getAllGroups();
+        List<GroupView> groups = teachersService.getGroupViews();
         model.addAttribute("groups", groups);
         return "teacher";
     }
     
+    @GetMapping("/teacher/courses")
+    public String coursesInfo(@RequestParam(required = false) String after, WebRequest request, Model model) {
+        ContentVersion version = teachersService.getTeachersVersion();
+        if (model.containsAttribute("conflict") == false && request.checkNotModified(version.getTag(), version.getLastModified())) {
+            return null;
+        }
+        model.addAttribute("page", teachersService.getCoursePage(after));
+        return "teacher/courses";
+    }
+    
+    @GetMapping("/teacher/search")
+    public void searchTeachers(@RequestParam String q, HttpServletResponse response) throws IOException {
+        PersonMatchWriter.write(response, teachersService.searchTeachers(q));
+    }
+    
     @PostMapping("/addcourse")
     public String addCourse(@ModelAttribute Course course, Model mode) {
         teachersService.createCourse(course.getName(), course.getDescription(), course.getTeacher().getId());
@@ -68,14 +100,18 @@ public class TeachersController {
     }
     
     @PostMapping("/teacher/editcourse")
-    public String updateCourse(@ModelAttribute Course course, Model model) {
-        teachersService.updateCourse(course);
+    public String updateCourse(@ModelAttribute Course course, RedirectAttributes redirectAttributes) {
+        try {
+            teachersService.updateCourse(course);
+        } catch (OptimisticLockingFailureException ex) {
+            redirectAttributes.addFlashAttribute("conflict", ex.getMessage());
+        }
         return "redirect:/teacher";
     }
     
     @GetMapping("/deletegroupscourse")
     public String deleteGroupsCourse(@RequestParam int cid, @RequestParam int gid,  Model model) {
-        teachersService.deleteGroupsCourse(gid, cid);
+        teachersService.unassignCourses(Collections.singletonList(gid), Collections.singletonList(cid));
         return "redirect:/teacher";
     }
     
@@ -89,7 +125,13 @@ public class TeachersController {
     
     @PostMapping("/teacher/assigncourse")
     public String assignGroupsCourse(@ModelAttribute Group group, Model model) {
-        teachersService.assignGroupsCourse(group.getId(), group.getCourses().get(0).getId());
+        List<Integer> courseIds = new ArrayList<>();
+        for (Course course : group.getCourses()) {
+            if (course != null && course.getId() > 0) {
+                courseIds.add(course.getId());
+            }
+        }
+        teachersService.assignCourses(Collections.singletonList(group.getId()), courseIds);
         return "redirect:/teacher";
     }
 }
@@ -1,7 +1,15 @@
 package com.foxminded.university.controller.web;
 
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -9,35 +17,60 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.foxminded.university.controller.service.LessonService;
 import com.foxminded.university.controller.service.TimetableService;
+import com.foxminded.university.controller.util.ICalendarWriter;
 import com.foxminded.university.controller.util.TimetableFormatter;
+import com.foxminded.university.model.ContentVersion;
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Group;
 import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.LessonSeries;
+import com.foxminded.university.model.ScheduleConflict;
 import com.foxminded.university.model.Timeslot;
 import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
 
 @Controller
 public class TimetableController {
+    private static final String DEFAULT_DATE = "2020-06-15";
+    private static final String CALENDAR_CONTENT_TYPE = "text/calendar;charset=UTF-8";
+    private static final String LESSON_NOT_SAVED = "Lesson was not saved";
+    private static final String SERIES_NOT_SAVED = "Lesson series was not saved, none of its lessons were added";
+    
     private TimetableService timetableService;
     private LessonService lessonService;
     private TimetableFormatter timetableFormatter;
+    private ICalendarWriter iCalendarWriter;
     
     @Autowired
     public TimetableController(TimetableService timetableService, LessonService lessonService,
-                               TimetableFormatter timetableFormatter) {
+                               TimetableFormatter timetableFormatter, ICalendarWriter iCalendarWriter) {
         this.timetableService = timetableService;
         this.lessonService = lessonService;
         this.timetableFormatter = timetableFormatter;
+        this.iCalendarWriter = iCalendarWriter;
     }
     
     @RequestMapping("/timetable")
-    public String timetableInfo(Model model) {
+    public String timetableInfo(@RequestParam(defaultValue = "week") String view,
+                                @RequestParam(defaultValue = DEFAULT_DATE) String date,
+                                WebRequest request, Model model) {
         int studentId = 1;
-        Timetable timetable = timetableService.getStudentTimetable("2020-06-15", "2020-06-21", studentId);
+        DateInterval dateInterval = timetableService.getViewInterval(view, date);
+        if (isNotModified(request, timetableService.getStudentTimetableVersion(studentId, dateInterval))) {
+            return null;
+        }
+        Timetable timetable = timetableService.getStudentTimetable(dateInterval.getStartDate().toString(),
+                                                                   dateInterval.getEndDate().toString(), studentId);
         model.addAttribute("studentId", studentId);
         model.addAttribute("timetable", timetable);
 
@@ -47,12 +80,21 @@ public class TimetableController {
         return "timetable";
     }
     
+    /* Conflicts flashed by a rejected save are shown even though the timetable itself did not change. */
     @GetMapping("/teacherstimetable")
-    public String getTimetableByTeacher(Model model) {
+    public String getTimetableByTeacher(@RequestParam(defaultValue = "week") String view,
+                                        @RequestParam(defaultValue = DEFAULT_DATE) String date,
+                                        WebRequest request, Model model) {
         int teacherId = 1;
+        DateInterval dateInterval = timetableService.getViewInterval(view, date);
+        if (model.containsAttribute("conflicts") == false
+                && isNotModified(request, timetableService.getTeacherTimetableVersion(teacherId, dateInterval))) {
+            return null;
+        }
         model.addAttribute("teacherId", teacherId);
         
-        Timetable timetable = timetableService.getTeacherTimetable("2020-06-15", "2020-06-21", teacherId);
+        Timetable timetable = timetableService.getTeacherTimetable(dateInterval.getStartDate().toString(),
+                                                                   dateInterval.getEndDate().toString(), teacherId);
         List<Timeslot> timeslots = lessonService.getAllTimeslots();
         model.addAttribute("dateInterval", timetable.getDateInterval());
         model.addAttribute("timeslots", timeslots);
@@ -61,6 +103,46 @@ public class TimetableController {
         return "teacherstimetable";
     }
     
+    @GetMapping("/facultytimetable")
+    public String getTimetableByFaculty(@RequestParam int id,
+                                        @RequestParam(defaultValue = "week") String view,
+                                        @RequestParam(defaultValue = DEFAULT_DATE) String date,
+                                        Model model) {
+        DateInterval dateInterval = timetableService.getViewInterval(view, date);
+        List<Timeslot> timeslots = lessonService.getAllTimeslots();
+        Map<Group, TimetableGrid> groupTimetables = new LinkedHashMap<>();
+        timetableService.getFacultyTimetable(dateInterval, id).forEach((group, timetable) -> 
+                groupTimetables.put(group, timetableFormatter.generateFormattedTable(timetable, timeslots)));
+        
+        model.addAttribute("facultyId", id);
+        model.addAttribute("view", view);
+        model.addAttribute("dateInterval", dateInterval);
+        model.addAttribute("timeslots", timeslots);
+        model.addAttribute("groupTimetables", groupTimetables);
+        return "facultytimetable";
+    }
+    
+    @GetMapping("/timetable/student/{id}.ics")
+    public void getStudentCalendar(@PathVariable int id, ServletWebRequest request,
+                                   HttpServletResponse response) throws IOException {
+        String tag = timetableService.getStudentCalendarTag(id);
+        if (tag == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        } else if (request.checkNotModified(tag) == false) {
+            writeCalendar(response, "Student " + id, 
+                          consumer -> timetableService.streamStudentCalendar(id, consumer));
+        }
+    }
+    
+    @GetMapping("/timetable/teacher/{id}.ics")
+    public void getTeacherCalendar(@PathVariable int id, ServletWebRequest request,
+                                   HttpServletResponse response) throws IOException {
+        if (request.checkNotModified(timetableService.getTeacherCalendarTag(id)) == false) {
+            writeCalendar(response, "Teacher " + id, 
+                          consumer -> timetableService.streamTeacherCalendar(id, consumer));
+        }
+    }
+    
     @GetMapping("/timetable/addlesson")
     public String createNewLesson(@RequestParam String date, 
                                   @RequestParam int tid,
@@ -83,9 +165,10 @@ public class TimetableController {
     }
     
     @PostMapping("/timetable/addlesson")
-    public String saveNewLesson(@ModelAttribute Lesson lesson, Model model) {
-        lessonService.createLesson(lesson.getDate().toString(), lesson.getTime().getId(), 
-                                   lesson.getClassroom().getId(), lesson.getCourse().getId());
+    public String saveNewLesson(@ModelAttribute Lesson lesson, RedirectAttributes redirectAttributes) {
+        List<ScheduleConflict> conflicts = lessonService.createLesson(lesson.getDate().toString(), 
+                          lesson.getTime().getId(), lesson.getClassroom().getId(), lesson.getCourse().getId());
+        addConflicts(conflicts, LESSON_NOT_SAVED, redirectAttributes);
         return "redirect:/teacherstimetable";
     }
     
@@ -99,8 +182,8 @@ public class TimetableController {
     }
     
     @PostMapping("/timetable/editlesson")
-    public String updateLesson(@ModelAttribute Lesson lesson, Model model) {
-        lessonService.updateLesson(lesson);
+    public String updateLesson(@ModelAttribute Lesson lesson, RedirectAttributes redirectAttributes) {
+        addConflicts(lessonService.updateLesson(lesson), LESSON_NOT_SAVED, redirectAttributes);
         return "redirect:/teacherstimetable";
     }
     
@@ -109,4 +192,45 @@ public class TimetableController {
         lessonService.deleteLesson(id);
         return "redirect:/teacherstimetable";
     }
+    
+    @PostMapping("/timetable/addseries")
+    public String saveNewSeries(@ModelAttribute LessonSeries series, RedirectAttributes redirectAttributes) {
+        addConflicts(lessonService.createSeries(series), SERIES_NOT_SAVED, redirectAttributes);
+        return "redirect:/teacherstimetable";
+    }
+    
+    @PostMapping("/timetable/editseries")
+    public String updateSeries(@ModelAttribute LessonSeries series, RedirectAttributes redirectAttributes) {
+        addConflicts(lessonService.updateSeries(series), SERIES_NOT_SAVED, redirectAttributes);
+        return "redirect:/teacherstimetable";
+    }
+    
+    @GetMapping("/deleteseries")
+    public String deleteSeries(@RequestParam int id) {
+        lessonService.deleteSeries(id);
+        return "redirect:/teacherstimetable";
+    }
+    
+    private boolean isNotModified(WebRequest request, ContentVersion version) {
+        return request.checkNotModified(version.getTag(), version.getLastModified());
+    }
+    
+    private void writeCalendar(HttpServletResponse response, String calendarName,
+                               Consumer<Consumer<Lesson>> lessons) throws IOException {
+        response.setContentType(CALENDAR_CONTENT_TYPE);
+        PrintWriter writer = response.getWriter();
+        iCalendarWriter.writeHeader(writer, calendarName);
+        lessons.accept(lesson -> iCalendarWriter.writeEvent(writer, lesson));
+        iCalendarWriter.writeFooter(writer);
+    }
+    
+    private void addConflicts(List<ScheduleConflict> conflicts, String message, 
+                              RedirectAttributes redirectAttributes) {
+        if (conflicts != null && conflicts.isEmpty() == false) {
+            redirectAttributes.addFlashAttribute("conflictMessage", message);
+            redirectAttributes.addFlashAttribute("conflicts", conflicts.stream()
+                                                                       .map(ScheduleConflict::getDescription)
+                                                                       .collect(Collectors.toList()));
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package com.foxminded.university.model;
+
+import java.util.List;
+
+public class AdminDashboard {
+    private final List<FacultySummary> faculties;
+    private final List<GroupSummary> groups;
+    private final List<TeacherSummary> teachers;
+
+    public AdminDashboard(List<FacultySummary> faculties, List<GroupSummary> groups, List<TeacherSummary> teachers) {
+        this.faculties = faculties;
+        this.groups = groups;
+        this.teachers = teachers;
+    }
+
+    public List<FacultySummary> getFaculties() {
+        return faculties;
+    }
+
+    public List<GroupSummary> getGroups() {
+        return groups;
+    }
+
+    public List<TeacherSummary> getTeachers() {
+        return teachers;
+    }
+}
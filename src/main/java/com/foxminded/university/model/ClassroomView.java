@@ -0,0 +1,25 @@
+package com.foxminded.university.model;
+
+public class ClassroomView {
+    private final int id;
+    private final String number;
+    private final int capacity;
+
+    public ClassroomView(int id, String number, int capacity) {
+        this.id = id;
+        this.number = number;
+        this.capacity = capacity;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,19 @@
+package com.foxminded.university.model;
+
+public class ContentVersion {
+    private final String tag;
+    private final long lastModified;
+
+    public ContentVersion(String tag, long lastModified) {
+        this.tag = tag;
+        this.lastModified = lastModified;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -12,6 +12,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
 @Table(name="courses")
@@ -33,6 +34,10 @@ public class Course {
     
     @ManyToMany(mappedBy = "courses", fetch = FetchType.LAZY)
     private List<Group> groups;
+    
+    @Version
+    @Column(name = "version")
+    private int version;
 
     public int getId() {
         return id;
@@ -42,6 +47,14 @@ public class Course {
         this.id = id;
     }
     
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     public String getName() {
         return name;
     }
@@ -0,0 +1,25 @@
+package com.foxminded.university.model;
+
+public class CourseView {
+    private final int id;
+    private final String name;
+    private final String description;
+
+    public CourseView(int id, String name, String description) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
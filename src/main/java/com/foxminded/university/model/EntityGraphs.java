@@ -0,0 +1,15 @@
+package com.foxminded.university.model;
+
+/*
+ * Names of the entity graphs declared on the entities. Associations are lazy by
+ * default; a repository method takes one of these names when its caller reads
+ * the association after the transaction has ended.
+ */
+public final class EntityGraphs {
+    public static final String GROUP_WITH_COURSES = "group-with-courses";
+    public static final String LESSON_FOR_TIMETABLE = "lesson-for-timetable";
+    public static final String TEACHER_WITH_COURSES = "teacher-with-courses";
+
+    private EntityGraphs() {
+    }
+}
@@ -0,0 +1,37 @@
+package com.foxminded.university.model;
+
+public class FacultySummary {
+    private final int id;
+    private final String shortName;
+    private final String fullName;
+    private final long groupsCount;
+    private final long teachersCount;
+
+    public FacultySummary(int id, String shortName, String fullName, long groupsCount, long teachersCount) {
+        this.id = id;
+        this.shortName = shortName;
+        this.fullName = fullName;
+        this.groupsCount = groupsCount;
+        this.teachersCount = teachersCount;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getShortName() {
+        return shortName;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public long getGroupsCount() {
+        return groupsCount;
+    }
+
+    public long getTeachersCount() {
+        return teachersCount;
+    }
+}
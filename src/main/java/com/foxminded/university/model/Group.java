@@ -11,12 +11,16 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
 @Table(name="groups")
+@NamedEntityGraph(name = EntityGraphs.GROUP_WITH_COURSES, attributeNodes = @NamedAttributeNode("courses"))
 public class Group {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -30,7 +34,7 @@ public class Group {
     @JoinColumn(name = "faculty_id", referencedColumnName = "faculty_id")
     private Faculty faculty;
     
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "groups_courses", 
         joinColumns = { @JoinColumn(name = "group_id") }, 
@@ -40,6 +44,10 @@ public class Group {
     
     @OneToMany(mappedBy="group", fetch = FetchType.LAZY)
     private List<Student> students;
+    
+    @Version
+    @Column(name = "version")
+    private int version;
 
     public int getId() {
         return id;
@@ -49,6 +57,14 @@ public class Group {
         this.id = id;
     }
     
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     public String getGroupName() {
         return groupName;
     }
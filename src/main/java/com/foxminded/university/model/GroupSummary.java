@@ -0,0 +1,25 @@
+package com.foxminded.university.model;
+
+public class GroupSummary {
+    private final int id;
+    private final String groupName;
+    private final int facultyId;
+
+    public GroupSummary(int id, String groupName, int facultyId) {
+        this.id = id;
+        this.groupName = groupName;
+        this.facultyId = facultyId;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getGroupName() {
+        return groupName;
+    }
+
+    public int getFacultyId() {
+        return facultyId;
+    }
+}
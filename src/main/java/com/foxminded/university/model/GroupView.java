@@ -0,0 +1,34 @@
+package com.foxminded.university.model;
+
+import java.util.Collections;
+import java.util.List;
+
+public class GroupView {
+    private final int id;
+    private final String groupName;
+    private final List<CourseView> courses;
+    private final List<StudentView> students;
+
+    public GroupView(int id, String groupName, List<CourseView> courses, List<StudentView> students) {
+        this.id = id;
+        this.groupName = groupName;
+        this.courses = Collections.unmodifiableList(courses);
+        this.students = Collections.unmodifiableList(students);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getGroupName() {
+        return groupName;
+    }
+
+    public List<CourseView> getCourses() {
+        return courses;
+    }
+
+    public List<StudentView> getStudents() {
+        return students;
+    }
+}
@@ -0,0 +1,39 @@
+package com.foxminded.university.model;
+
+public class ImportReport {
+    private final String entityName;
+    private final int rows;
+    private final long elapsedMillis;
+    private final String failure;
+
+    public ImportReport(String entityName, int rows, long elapsedMillis, String failure) {
+        this.entityName = entityName;
+        this.rows = rows;
+        this.elapsedMillis = elapsedMillis;
+        this.failure = failure;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return rows * 1000L / Math.max(elapsedMillis, 1);
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+}
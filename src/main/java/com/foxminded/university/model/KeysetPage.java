@@ -0,0 +1,38 @@
+package com.foxminded.university.model;
+
+import java.util.Collections;
+import java.util.List;
+
+public class KeysetPage<T> {
+    public static final int DEFAULT_SIZE = 50;
+
+    private final List<T> items;
+    private final String cursor;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> items, String cursor, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.cursor = cursor;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isFirst() {
+        return cursor == null;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -9,16 +9,24 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import org.springframework.format.annotation.DateTimeFormat;
 
 @Entity
 @Table(name="lessons")
+@NamedEntityGraph(name = EntityGraphs.LESSON_FOR_TIMETABLE, attributeNodes = {
+        @NamedAttributeNode("time"), @NamedAttributeNode("course"), @NamedAttributeNode("classroom") })
 public class Lesson {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lessons_lesson_id_seq")
+    @SequenceGenerator(name = "lessons_lesson_id_seq", sequenceName = "lessons_lesson_id_seq", allocationSize = 50)
     @Column(name = "lesson_id") 
     private int id;
     
@@ -26,7 +34,7 @@ public class Lesson {
     @DateTimeFormat(pattern = "yyyy-MM-dd")
     private LocalDate date;
     
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "timeslot_id", referencedColumnName = "timeslot_id")
     private Timeslot time;
     
@@ -34,9 +42,18 @@ public class Lesson {
     @JoinColumn(name = "course_id", referencedColumnName = "course_id")
     private Course course;
     
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "classroom_id", referencedColumnName = "classroom_id")
     private Classroom classroom;
+    
+    /* Null for a single lesson. A lesson saved on its own leaves its series. */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id", referencedColumnName = "series_id")
+    private LessonSeries series;
+    
+    @Version
+    @Column(name = "version")
+    private int version;
 
     public int getId() {
         return id;
@@ -46,6 +63,14 @@ public class Lesson {
         this.id = id;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public LocalDate getDate() {
         return date;
     }
@@ -77,4 +102,12 @@ public class Lesson {
     public void setClassroom(Classroom classroom) {
         this.classroom = classroom;
     }
+
+    public LessonSeries getSeries() {
+        return series;
+    }
+
+    public void setSeries(LessonSeries series) {
+        this.series = series;
+    }
 }
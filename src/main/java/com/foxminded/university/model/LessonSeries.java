@@ -0,0 +1,132 @@
+package com.foxminded.university.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+@Entity
+@Table(name="lesson_series")
+public class LessonSeries {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "series_id")
+    private int id;
+    
+    @Column(name = "start_date")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+    
+    @Column(name = "end_date")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+    
+    /* Bit (day of week - 1) is set for every day the lesson takes place on. */
+    @Column(name = "weekdays")
+    private int weekdays;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "timeslot_id", referencedColumnName = "timeslot_id")
+    private Timeslot time;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", referencedColumnName = "course_id")
+    private Course course;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "classroom_id", referencedColumnName = "classroom_id")
+    private Classroom classroom;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Set<DayOfWeek> getDays() {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((weekdays & (1 << day.ordinal())) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    public void setDays(Set<DayOfWeek> days) {
+        weekdays = 0;
+        if (days != null) {
+            days.forEach(day -> weekdays |= 1 << day.ordinal());
+        }
+    }
+
+    public Timeslot getTime() {
+        return time;
+    }
+
+    public void setTime(Timeslot time) {
+        this.time = time;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public void setCourse(Course course) {
+        this.course = course;
+    }
+
+    public Classroom getClassroom() {
+        return classroom;
+    }
+
+    public void setClassroom(Classroom classroom) {
+        this.classroom = classroom;
+    }
+    
+    /* Dates of all occurrences, in order. */
+    public List<LocalDate> getDates() {
+        List<LocalDate> dates = new ArrayList<>();
+        if (startDate == null || endDate == null) {
+            return dates;
+        }
+        for (LocalDate date = startDate; date.isAfter(endDate) == false; date = date.plusDays(1)) {
+            if ((weekdays & (1 << date.getDayOfWeek().ordinal())) != 0) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+}
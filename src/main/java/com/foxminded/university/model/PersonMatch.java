@@ -0,0 +1,25 @@
+package com.foxminded.university.model;
+
+public class PersonMatch {
+    private final int id;
+    private final String firstName;
+    private final String lastName;
+
+    public PersonMatch(int id, String firstName, String lastName) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+}
@@ -0,0 +1,52 @@
+package com.foxminded.university.model;
+
+import java.time.LocalDate;
+
+public class ScheduleConflict {
+    public enum Type {
+        CLASSROOM_BUSY("Classroom is already booked"),
+        TEACHER_BUSY("Teacher already has a lesson"),
+        GROUP_BUSY("Group already has a lesson"),
+        CLASSROOM_TOO_SMALL("Classroom capacity is smaller than the audience"),
+        LESSON_CHANGED("Lesson was changed or deleted by someone else"),
+        SLOT_TAKEN("Timeslot was booked by a lesson saved elsewhere");
+        
+        private final String description;
+        
+        Type(String description) {
+            this.description = description;
+        }
+    }
+    
+    private final Type type;
+    private final int entityId;
+    private final LocalDate date;
+    
+    public ScheduleConflict(Type type, int entityId) {
+        this(type, entityId, null);
+    }
+    
+    /* A conflict of one occurrence of a lesson series. */
+    public ScheduleConflict(Type type, int entityId, LocalDate date) {
+        this.type = type;
+        this.entityId = entityId;
+        this.date = date;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public String getDescription() {
+        String description = type.description + " (id = " + entityId + ")";
+        return date == null ? description : description + " on " + date;
+    }
+}
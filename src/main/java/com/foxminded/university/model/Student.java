@@ -8,13 +8,15 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 @Entity
 @Table(name="students")
 public class Student extends Person {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "students_student_id_seq")
+    @SequenceGenerator(name = "students_student_id_seq", sequenceName = "students_student_id_seq", allocationSize = 50)
     @Column(name = "student_id") 
     private int id;
     
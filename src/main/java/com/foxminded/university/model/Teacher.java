@@ -9,15 +9,20 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 @Entity
 @Table(name="teachers")
+@NamedEntityGraph(name = EntityGraphs.TEACHER_WITH_COURSES, attributeNodes = @NamedAttributeNode("courses"))
 public class Teacher extends Person {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "teachers_teacher_id_seq")
+    @SequenceGenerator(name = "teachers_teacher_id_seq", sequenceName = "teachers_teacher_id_seq", allocationSize = 50)
     @Column(name = "teacher_id") 
     private int id;
     
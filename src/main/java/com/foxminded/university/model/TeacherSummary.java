@@ -0,0 +1,31 @@
+package com.foxminded.university.model;
+
+public class TeacherSummary {
+    private final int id;
+    private final String firstName;
+    private final String lastName;
+    private final int facultyId;
+
+    public TeacherSummary(int id, String firstName, String lastName, int facultyId) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.facultyId = facultyId;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public int getFacultyId() {
+        return facultyId;
+    }
+}
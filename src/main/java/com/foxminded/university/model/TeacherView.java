@@ -0,0 +1,34 @@
+package com.foxminded.university.model;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TeacherView {
+    private final int id;
+    private final String firstName;
+    private final String lastName;
+    private final List<CourseView> courses;
+
+    public TeacherView(int id, String firstName, String lastName, List<CourseView> courses) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.courses = Collections.unmodifiableList(courses);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public List<CourseView> getCourses() {
+        return courses;
+    }
+}
@@ -0,0 +1,19 @@
+package com.foxminded.university.model;
+
+public class TimeslotView {
+    private final int id;
+    private final String description;
+
+    public TimeslotView(int id, String description) {
+        this.id = id;
+        this.description = description;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,108 @@
+package com.foxminded.university.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Lessons of a date interval laid out in one array: the cell of a day and a
+ * timeslot column is cells[dayOffset * columnsCount + column].
+ */
+public class TimetableGrid {
+    private final LocalDate startDate;
+    private final int daysCount;
+    private final int columnsCount;
+    private final Lesson[] cells;
+
+    public TimetableGrid(DateInterval dateInterval, int columnsCount) {
+        this.startDate = dateInterval.getStartDate();
+        this.daysCount = (int) Math.max(0, ChronoUnit.DAYS.between(startDate, dateInterval.getEndDate()) + 1);
+        this.columnsCount = columnsCount;
+        this.cells = new Lesson[daysCount * columnsCount];
+    }
+
+    public boolean put(Lesson lesson, int column) {
+        int dayOffset = getDayOffset(lesson.getDate());
+        if (dayOffset < 0 || column < 0 || column >= columnsCount) {
+            return false;
+        }
+        cells[dayOffset * columnsCount + column] = lesson;
+        return true;
+    }
+
+    public Lesson get(LocalDate date, int column) {
+        int dayOffset = getDayOffset(date);
+        if (dayOffset < 0 || column < 0 || column >= columnsCount) {
+            return null;
+        }
+        return cells[dayOffset * columnsCount + column];
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return startDate.plusDays(daysCount - 1L);
+    }
+
+    public int getDaysCount() {
+        return daysCount;
+    }
+
+    public int getColumnsCount() {
+        return columnsCount;
+    }
+
+    public List<Row> getRows() {
+        return getRows(0, daysCount);
+    }
+
+    public List<Row> getRows(DateInterval dateInterval) {
+        long from = ChronoUnit.DAYS.between(startDate, dateInterval.getStartDate());
+        long to = ChronoUnit.DAYS.between(startDate, dateInterval.getEndDate()) + 1;
+        return getRows((int) Math.max(0, from), (int) Math.min(daysCount, to));
+    }
+
+    private List<Row> getRows(int fromDay, int toDay) {
+        if (fromDay >= toDay) {
+            return Collections.emptyList();
+        }
+        List<Lesson> allCells = Collections.unmodifiableList(Arrays.asList(cells));
+        List<Row> rows = new ArrayList<>(toDay - fromDay);
+        for (int day = fromDay; day < toDay; day++) {
+            rows.add(new Row(startDate.plusDays(day),
+                             allCells.subList(day * columnsCount, (day + 1) * columnsCount)));
+        }
+        return rows;
+    }
+
+    private int getDayOffset(LocalDate date) {
+        if (date == null) {
+            return -1;
+        }
+        long dayOffset = ChronoUnit.DAYS.between(startDate, date);
+        return dayOffset < 0 || dayOffset >= daysCount ? -1 : (int) dayOffset;
+    }
+
+    public static class Row {
+        private final LocalDate date;
+        private final List<Lesson> lessons;
+
+        private Row(LocalDate date, List<Lesson> lessons) {
+            this.date = date;
+            this.lessons = lessons;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public List<Lesson> getLessons() {
+            return lessons;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.foxminded.university.model;
+
+import java.util.List;
+
+public class TimetablePlan {
+    private final List<Lesson> lessons;
+    private final List<Integer> unplacedCourseIds;
+    private final int skippedLessons;
+    private final int gaps;
+    private final int score;
+
+    public TimetablePlan(List<Lesson> lessons, List<Integer> unplacedCourseIds, int skippedLessons,
+                         int gaps, int score) {
+        this.lessons = lessons;
+        this.unplacedCourseIds = unplacedCourseIds;
+        this.skippedLessons = skippedLessons;
+        this.gaps = gaps;
+        this.score = score;
+    }
+
+    public List<Lesson> getLessons() {
+        return lessons;
+    }
+
+    public List<Integer> getUnplacedCourseIds() {
+        return unplacedCourseIds;
+    }
+
+    public int getSkippedLessons() {
+        return skippedLessons;
+    }
+
+    public int getGaps() {
+        return gaps;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,6 @@
+-- H2 has no table partitioning. Lessons keeps the PostgreSQL key and indexes
+-- so queries see the same layout; only the storage differs.
+
+ALTER TABLE lessons DROP PRIMARY KEY;
+ALTER TABLE lessons ADD PRIMARY KEY (lesson_id, lesson_date);
+CREATE INDEX IF NOT EXISTS lessons_course_id_idx ON lessons(course_id);
@@ -0,0 +1,10 @@
+-- H2 keeps SERIAL values in system sequences, so the PostgreSQL sequence names are
+-- created here and become the column defaults. Blocks of 50 as in PostgreSQL.
+
+CREATE SEQUENCE IF NOT EXISTS students_student_id_seq INCREMENT BY 50;
+ALTER TABLE students ALTER COLUMN student_id SET DEFAULT NEXT VALUE FOR students_student_id_seq;
+ALTER SEQUENCE students_student_id_seq RESTART WITH (SELECT COALESCE(MAX(student_id), 0) + 50 FROM students);
+
+CREATE SEQUENCE IF NOT EXISTS teachers_teacher_id_seq INCREMENT BY 50;
+ALTER TABLE teachers ALTER COLUMN teacher_id SET DEFAULT NEXT VALUE FOR teachers_teacher_id_seq;
+ALTER SEQUENCE teachers_teacher_id_seq RESTART WITH (SELECT COALESCE(MAX(teacher_id), 0) + 50 FROM teachers);
@@ -0,0 +1,5 @@
+-- Sort keys of paged lists, so a page seeks to its cursor instead of skipping rows.
+-- H2 stores text columns as CLOB and cannot index them, so classrooms keep
+-- their primary key only.
+
+CREATE INDEX IF NOT EXISTS students_group_id_student_id_idx ON students(group_id, student_id);
@@ -0,0 +1,17 @@
+-- Lesson series as in PostgreSQL; the lessons sequence is created as in V4.
+
+CREATE TABLE IF NOT EXISTS lesson_series(
+series_id SERIAL PRIMARY KEY,
+start_date date NOT NULL,
+end_date date NOT NULL,
+weekdays integer NOT NULL,
+timeslot_id integer NOT NULL REFERENCES timeslots(timeslot_id) ON DELETE CASCADE,
+course_id integer NOT NULL REFERENCES courses(course_id) ON DELETE CASCADE,
+classroom_id integer NOT NULL REFERENCES classrooms(classroom_id) ON DELETE CASCADE);
+
+ALTER TABLE lessons ADD COLUMN IF NOT EXISTS series_id integer REFERENCES lesson_series(series_id) ON DELETE SET NULL;
+CREATE INDEX IF NOT EXISTS lessons_series_id_idx ON lessons(series_id);
+
+CREATE SEQUENCE IF NOT EXISTS lessons_lesson_id_seq INCREMENT BY 50;
+ALTER TABLE lessons ALTER COLUMN lesson_id SET DEFAULT NEXT VALUE FOR lessons_lesson_id_seq;
+ALTER SEQUENCE lessons_lesson_id_seq RESTART WITH (SELECT COALESCE(MAX(lesson_id), 0) + 50 FROM lessons);
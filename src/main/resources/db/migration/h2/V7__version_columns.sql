@@ -0,0 +1,5 @@
+-- Version counters as in PostgreSQL.
+
+ALTER TABLE lessons ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
+ALTER TABLE groups ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
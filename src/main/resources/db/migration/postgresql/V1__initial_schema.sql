@@ -0,0 +1,52 @@
+-- Schema as it existed before migrations were introduced. Safe to run on an existing database.
+
+CREATE TABLE IF NOT EXISTS faculties(
+faculty_id SERIAL PRIMARY KEY,
+faculty_short_name text,
+faculty_full_name text);
+
+CREATE TABLE IF NOT EXISTS groups(
+group_id SERIAL PRIMARY KEY,
+group_name text,
+faculty_id integer REFERENCES faculties(faculty_id) ON DELETE RESTRICT);
+
+CREATE TABLE IF NOT EXISTS students(
+student_id SERIAL PRIMARY KEY,
+first_name text,
+last_name text,
+group_id integer REFERENCES groups(group_id) ON DELETE RESTRICT);
+
+CREATE TABLE IF NOT EXISTS teachers(
+teacher_id SERIAL PRIMARY KEY,
+first_name text,
+last_name text,
+faculty_id integer REFERENCES faculties(faculty_id) ON DELETE RESTRICT);
+
+CREATE TABLE IF NOT EXISTS courses(
+course_id SERIAL PRIMARY KEY,
+course_name text,
+course_description text,
+teacher_id integer REFERENCES teachers(teacher_id) ON DELETE RESTRICT);
+
+CREATE TABLE IF NOT EXISTS classrooms(
+classroom_id SERIAL PRIMARY KEY,
+classroom_number text,
+capacity integer);
+
+CREATE TABLE IF NOT EXISTS timeslots(
+timeslot_id SERIAL PRIMARY KEY,
+timeslot_description text);
+
+CREATE TABLE IF NOT EXISTS lessons(
+lesson_id SERIAL PRIMARY KEY,
+lesson_date date NOT NULL,
+timeslot_id integer NOT NULL REFERENCES timeslots(timeslot_id) ON DELETE RESTRICT,
+course_id integer NOT NULL REFERENCES courses(course_id) ON DELETE RESTRICT,
+classroom_id integer NOT NULL REFERENCES classrooms(classroom_id) ON DELETE RESTRICT,
+UNIQUE (lesson_date, timeslot_id, course_id),
+UNIQUE (lesson_date, timeslot_id, classroom_id));
+
+CREATE TABLE IF NOT EXISTS groups_courses(
+group_id integer REFERENCES groups(group_id) ON DELETE RESTRICT,
+course_id integer REFERENCES courses(course_id) ON DELETE RESTRICT,
+PRIMARY KEY (group_id, course_id));
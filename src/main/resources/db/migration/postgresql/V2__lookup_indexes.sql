@@ -0,0 +1,6 @@
+-- Foreign keys used by timetable and roster queries. Primary keys do not cover these columns.
+
+CREATE INDEX IF NOT EXISTS lessons_lesson_date_idx ON lessons(lesson_date);
+CREATE INDEX IF NOT EXISTS courses_teacher_id_idx ON courses(teacher_id);
+CREATE INDEX IF NOT EXISTS students_group_id_idx ON students(group_id);
+CREATE INDEX IF NOT EXISTS groups_courses_course_id_idx ON groups_courses(course_id);
@@ -0,0 +1,40 @@
+-- Lessons are range-partitioned by lesson_date, one partition per semester
+-- (spring: February - August, autumn: September - January). Dates outside the
+-- created semesters land in lessons_default. The partition key has to be part
+-- of the primary key, so the key becomes (lesson_id, lesson_date).
+
+CREATE TABLE lessons_partitioned(
+lesson_id integer NOT NULL DEFAULT nextval('lessons_lesson_id_seq'),
+lesson_date date NOT NULL,
+timeslot_id integer NOT NULL REFERENCES timeslots(timeslot_id) ON DELETE RESTRICT,
+course_id integer NOT NULL REFERENCES courses(course_id) ON DELETE RESTRICT,
+classroom_id integer NOT NULL REFERENCES classrooms(classroom_id) ON DELETE RESTRICT,
+PRIMARY KEY (lesson_id, lesson_date),
+UNIQUE (lesson_date, timeslot_id, course_id),
+UNIQUE (lesson_date, timeslot_id, classroom_id))
+PARTITION BY RANGE (lesson_date);
+
+DO $$
+DECLARE
+    semester_year integer;
+BEGIN
+    FOR semester_year IN 2015..2035 LOOP
+        EXECUTE format('CREATE TABLE lessons_%s_spring PARTITION OF lessons_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       semester_year, make_date(semester_year, 2, 1), make_date(semester_year, 9, 1));
+        EXECUTE format('CREATE TABLE lessons_%s_autumn PARTITION OF lessons_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       semester_year, make_date(semester_year, 9, 1), make_date(semester_year + 1, 2, 1));
+    END LOOP;
+END $$;
+
+CREATE TABLE lessons_default PARTITION OF lessons_partitioned DEFAULT;
+
+INSERT INTO lessons_partitioned (lesson_id, lesson_date, timeslot_id, course_id, classroom_id)
+SELECT lesson_id, lesson_date, timeslot_id, course_id, classroom_id FROM lessons;
+
+ALTER SEQUENCE lessons_lesson_id_seq OWNED BY NONE;
+DROP TABLE lessons;
+ALTER TABLE lessons_partitioned RENAME TO lessons;
+ALTER SEQUENCE lessons_lesson_id_seq OWNED BY lessons.lesson_id;
+
+CREATE INDEX lessons_lesson_date_idx ON lessons(lesson_date);
+CREATE INDEX lessons_course_id_idx ON lessons(course_id);
@@ -0,0 +1,10 @@
+-- Students and teachers take their ids from sequences that hand out blocks of 50,
+-- so Hibernate can reserve ids without a round trip per row and batch the inserts.
+-- A sequence value is the upper end of its block; the next value is moved past the
+-- highest existing id so the first block does not overlap existing rows.
+
+ALTER SEQUENCE students_student_id_seq INCREMENT BY 50;
+SELECT setval('students_student_id_seq', (SELECT COALESCE(MAX(student_id), 0) + 50 FROM students), false);
+
+ALTER SEQUENCE teachers_teacher_id_seq INCREMENT BY 50;
+SELECT setval('teachers_teacher_id_seq', (SELECT COALESCE(MAX(teacher_id), 0) + 50 FROM teachers), false);
@@ -0,0 +1,4 @@
+-- Sort keys of paged lists, so a page seeks to its cursor instead of skipping rows.
+
+CREATE INDEX IF NOT EXISTS students_group_id_student_id_idx ON students(group_id, student_id);
+CREATE INDEX IF NOT EXISTS classrooms_classroom_number_classroom_id_idx ON classrooms(classroom_number, classroom_id);
@@ -0,0 +1,19 @@
+-- A lesson series repeats one lesson every week from start_date to end_date on the
+-- days set in weekdays (bit 0 is Monday). Its occurrences are ordinary lessons that
+-- point to it; a series without lessons goes away with its course, timeslot or classroom.
+-- Lesson ids now come in blocks of 50 like person ids, so occurrences are inserted in batches.
+
+CREATE TABLE IF NOT EXISTS lesson_series(
+series_id SERIAL PRIMARY KEY,
+start_date date NOT NULL,
+end_date date NOT NULL,
+weekdays integer NOT NULL,
+timeslot_id integer NOT NULL REFERENCES timeslots(timeslot_id) ON DELETE CASCADE,
+course_id integer NOT NULL REFERENCES courses(course_id) ON DELETE CASCADE,
+classroom_id integer NOT NULL REFERENCES classrooms(classroom_id) ON DELETE CASCADE);
+
+ALTER TABLE lessons ADD COLUMN series_id integer REFERENCES lesson_series(series_id) ON DELETE SET NULL;
+CREATE INDEX lessons_series_id_idx ON lessons(series_id);
+
+ALTER SEQUENCE lessons_lesson_id_seq INCREMENT BY 50;
+SELECT setval('lessons_lesson_id_seq', (SELECT COALESCE(MAX(lesson_id), 0) + 50 FROM lessons), false);
@@ -0,0 +1,5 @@
+-- Version counters for optimistic locking; an update only applies to the version it was based on.
+
+ALTER TABLE lessons ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
+ALTER TABLE groups ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
@@ -0,0 +1,34 @@
+package com.foxminded.university.config;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+import com.foxminded.university.controller.cache.LazyLoadedCache;
+
+/*
+ * Test scripts reset the database behind Hibernate's back, so the second-level
+ * and query caches and every lazily loaded cache, such as the schedule index,
+ * the enrolment counters and the name indexes, are cleared before every test
+ * method, after @Sql scripts ran.
+ */
+public class CacheResetListener extends AbstractTestExecutionListener {
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        ApplicationContext applicationContext = testContext.getApplicationContext();
+        if (applicationContext.getBeanNamesForType(EntityManagerFactory.class).length > 0) {
+            applicationContext.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+                              .getCache().evictAllRegions();
+        }
+        applicationContext.getBeansOfType(LazyLoadedCache.class).values().forEach(LazyLoadedCache::invalidate);
+    }
+}
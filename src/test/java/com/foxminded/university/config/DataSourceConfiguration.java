@@ -7,8 +7,12 @@ import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -24,6 +28,8 @@ public class DataSourceConfiguration {
     private String dpPassword;
     @Value("${jdbc.driverClassName}")
     private String jdbcDriverClassName;
+    @Value("${jdbc.initScript}")
+    private String jdbcInitScript;
     
     @Value("${cachePrepStmts}")
     private String cachePrepStmts;
@@ -50,6 +56,16 @@ public class DataSourceConfiguration {
         return new HikariDataSource(config);
     }
     
+    /* Seeds the data once the schema migrator has built the schema. */
+    @Bean
+    @DependsOn("schemaMigrator")
+    public DataSourceInitializer dataSourceInitializer(DataSource dataSource) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource(jdbcInitScript)));
+        return initializer;
+    }
+    
     @Bean
     public static PropertySourcesPlaceholderConfigurer propertyConfigInDev() {
         return new PropertySourcesPlaceholderConfigurer();
@@ -0,0 +1,19 @@
+package com.foxminded.university.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/*
+ * Fails the test when its thread sends more SQL statements through Hibernate
+ * than the given budget; the failure lists the query shapes sent more than once.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(MaxQueriesExtension.class)
+public @interface MaxQueries {
+    int value();
+}
@@ -0,0 +1,35 @@
+package com.foxminded.university.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import com.foxminded.university.config.logging.StatementLog;
+
+/*
+ * Counts the statements of a @MaxQueries test method body in a StatementLog of
+ * its own. @Sql scripts, cache resets and @BeforeEach methods are not counted;
+ * requests made through MockMvc are.
+ */
+public class MaxQueriesExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        StatementLog.start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        StatementLog statementLog = StatementLog.finish();
+        int maxQueries = context.getRequiredTestMethod().getAnnotation(MaxQueries.class).value();
+        assertTrue(statementLog.getCount() <= maxQueries, () -> "Expected at most " + maxQueries
+                + " statements, but " + statementLog.getCount() + " were sent; repeated: "
+                + statementLog.getRepeatedShapes(2).entrySet().stream()
+                              .map(entry -> entry.getValue() + "x " + entry.getKey())
+                              .collect(Collectors.joining("; ")));
+    }
+}
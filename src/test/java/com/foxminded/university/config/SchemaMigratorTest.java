@@ -0,0 +1,61 @@
+package com.foxminded.university.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+class SchemaMigratorTest {
+    DriverManagerDataSource dataSource;
+    JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void init() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:migrations;DB_CLOSE_DELAY=-1", "sa", "sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+    
+    @Test
+    void migrateShouldCreateSchemaWithLookupIndexesTest() {
+        SchemaMigrator schemaMigrator = new SchemaMigrator(dataSource);
+        
+        schemaMigrator.migrate();
+        
+        assertEquals(7, schemaMigrator.getCurrentVersion());
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES", String.class);
+        assertTrue(indexes.contains("lessons_lesson_date_idx"));
+        assertTrue(indexes.contains("lessons_course_id_idx"));
+        assertTrue(indexes.contains("courses_teacher_id_idx"));
+        assertTrue(indexes.contains("students_group_id_idx"));
+        assertTrue(indexes.contains("groups_courses_course_id_idx"));
+    }
+    
+    @Test
+    void migrateShouldApplyEveryVersionOnceTest() {
+        new SchemaMigrator(dataSource).migrate();
+        new SchemaMigrator(dataSource).migrate();
+        
+        assertEquals(7, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_version", Integer.class));
+    }
+    
+    @Test
+    void testDatabaseScriptShouldReseedDataWithoutTouchingSchemaTest() {
+        new SchemaMigrator(dataSource).migrate();
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("testDatabase.sql"));
+        
+        populator.execute(dataSource);
+        jdbcTemplate.update("INSERT INTO groups (group_name, faculty_id) VALUES ('cs-21', 1)");
+        populator.execute(dataSource);
+        
+        assertEquals(7, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_version", Integer.class));
+        assertEquals(1, (int) jdbcTemplate.queryForObject("SELECT MAX(group_id) FROM groups", Integer.class));
+    }
+}
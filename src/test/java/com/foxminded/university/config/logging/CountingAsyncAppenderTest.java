@@ -0,0 +1,125 @@
+package com.foxminded.university.config.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+class CountingAsyncAppenderTest {
+
+    @Test
+    void eventsFindingTheQueueFullShouldBeDroppedCountedAndReportedTest() throws InterruptedException {
+        LoggerContext loggerContext = new LoggerContext();
+        CountDownLatch release = new CountDownLatch(1);
+        List<ILoggingEvent> written = new CopyOnWriteArrayList<>();
+        AppenderBase<ILoggingEvent> slowAppender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(event);
+            }
+        };
+        slowAppender.setContext(loggerContext);
+        slowAppender.start();
+
+        CountingAsyncAppender appender = new CountingAsyncAppender();
+        appender.setContext(loggerContext);
+        appender.setName("async");
+        appender.setQueueSize(2);
+        appender.setNeverBlock(true);
+        appender.addAppender(slowAppender);
+        appender.start();
+        Logger logger = loggerContext.getLogger("test");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+
+        logger.warn("Event {}", 0);
+        while (appender.getNumberOfElementsInQueue() > 0) {
+            Thread.sleep(10);
+        }
+        for (int i = 1; i < 10; i++) {
+            logger.warn("Event {}", i);
+        }
+        long dropped = appender.getDroppedCount();
+        assertEquals(7, dropped);
+        release.countDown();
+        while (appender.getNumberOfElementsInQueue() > 0) {
+            Thread.sleep(10);
+        }
+        logger.warn("After release");
+        appender.stop();
+
+        assertEquals(10 - dropped, written.stream().filter(event -> event.getMessage().equals("Event {}")).count());
+        assertTrue(written.stream().anyMatch(event -> event.getLevel() == Level.WARN
+                && event.getFormattedMessage().equals("Appender async dropped " + dropped + " log events ("
+                                                      + dropped + " in total)")));
+        assertEquals("After release", written.get(written.size() - 1).getMessage());
+    }
+
+    @Test
+    void eventsDroppedUnderContentionShouldAllBeCountedTest() throws InterruptedException {
+        LoggerContext loggerContext = new LoggerContext();
+        List<ILoggingEvent> written = new CopyOnWriteArrayList<>();
+        AppenderBase<ILoggingEvent> listAppender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                LockSupport.parkNanos(1000);
+                written.add(event);
+            }
+        };
+        listAppender.setContext(loggerContext);
+        listAppender.start();
+
+        CountingAsyncAppender appender = new CountingAsyncAppender();
+        appender.setContext(loggerContext);
+        appender.setName("async");
+        appender.setQueueSize(4);
+        appender.setNeverBlock(true);
+        appender.addAppender(listAppender);
+        appender.start();
+        Logger logger = loggerContext.getLogger("test");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int j = 0; j < 2000; j++) {
+                    logger.warn("Event {}", j);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        appender.stop();
+
+        assertEquals(8 * 2000, written.stream().filter(event -> event.getMessage().equals("Event {}")).count()
+                              + appender.getDroppedCount());
+    }
+}
@@ -0,0 +1,80 @@
+package com.foxminded.university.config.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+class ReadPathLogFilterTest {
+    private LoggerContext loggerContext;
+    private ListAppender<ILoggingEvent> appender;
+    private Logger serviceLogger;
+    private Logger otherLogger;
+
+    @BeforeEach
+    void init() {
+        loggerContext = new LoggerContext();
+        ReadPathLogFilter filter = new ReadPathLogFilter();
+        filter.setContext(loggerContext);
+        filter.addPackage("com.foxminded.university.controller.service");
+        filter.setSampleEvery(3);
+        filter.start();
+        loggerContext.addTurboFilter(filter);
+
+        appender = new ListAppender<>();
+        appender.setContext(loggerContext);
+        appender.start();
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+
+        serviceLogger = loggerContext.getLogger("com.foxminded.university.controller.service.TeachersService");
+        otherLogger = loggerContext.getLogger("com.foxminded.university.request");
+    }
+
+    @AfterEach
+    void finishRequest() {
+        RequestLog.finish();
+    }
+
+    @Test
+    void messagesOfRequestShouldBeCollectedIntoItsRequestLogTest() {
+        RequestLog.start();
+        assertTrue(serviceLogger.isInfoEnabled());
+        serviceLogger.info("Get teacher by id ({})", 1);
+        serviceLogger.info("Get teacher by id ({})", 2);
+        serviceLogger.info("Get all groups");
+        serviceLogger.debug("Not enabled");
+        serviceLogger.warn("Warnings pass");
+        otherLogger.info("Other packages pass");
+
+        RequestLog requestLog = RequestLog.finish();
+        assertEquals(3, requestLog.getEventCount());
+        assertEquals("TeachersService: Get teacher by id ({}) x2; TeachersService: Get all groups",
+                     requestLog.getSummary());
+        assertEquals(2, appender.list.size());
+        assertEquals("Warnings pass", appender.list.get(0).getMessage());
+        assertEquals("Other packages pass", appender.list.get(1).getMessage());
+    }
+
+    @Test
+    void messagesOutsideOfRequestsShouldBeSampledByPatternTest() {
+        for (int i = 0; i < 7; i++) {
+            serviceLogger.info("Get teacher by id ({})", i);
+        }
+        serviceLogger.info("Get all groups");
+
+        assertEquals(4, appender.list.size());
+        assertEquals("Get teacher by id (0)", appender.list.get(0).getFormattedMessage());
+        assertEquals("Get teacher by id (3)", appender.list.get(1).getFormattedMessage());
+        assertEquals("Get teacher by id (6)", appender.list.get(2).getFormattedMessage());
+        assertEquals("Get all groups", appender.list.get(3).getFormattedMessage());
+    }
+}
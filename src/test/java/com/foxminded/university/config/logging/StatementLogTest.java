@@ -0,0 +1,48 @@
+package com.foxminded.university.config.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class StatementLogTest {
+
+    @AfterEach
+    void finishScopes() {
+        while (StatementLog.finish() != null) {
+        }
+    }
+
+    @Test
+    void shapeShouldCollapseLiteralsParameterListsAndWhitespaceTest() {
+        assertEquals("select * from students where group_id in (?) and last_name = ? limit ?",
+                     StatementLog.getShape("select * from students\n  where group_id in (?, ?,?) "
+                                           + "and last_name = 'O''Brien' limit 20"));
+    }
+
+    @Test
+    void statementsShouldCountInEveryEnclosingScopeTest() {
+        StatementLog outer = StatementLog.start();
+        StatementLog.record("select * from groups");
+        StatementLog inner = StatementLog.start();
+        StatementLog.record("select * from students where group_id = ?");
+        StatementLog.record("select * from students where group_id = ?");
+        assertSame(inner, StatementLog.finish());
+        StatementLog.record("select * from students where group_id = 3");
+
+        assertSame(outer, StatementLog.finish());
+        assertEquals(2, inner.getCount());
+        assertEquals(4, outer.getCount());
+        assertEquals(Collections.singletonMap("select * from students where group_id = ?", 3),
+                     outer.getRepeatedShapes(2));
+    }
+
+    @Test
+    void statementsOutsideOfScopesShouldNotBeCountedTest() {
+        StatementLog.record("select * from groups");
+
+        assertNull(StatementLog.finish());
+    }
+}
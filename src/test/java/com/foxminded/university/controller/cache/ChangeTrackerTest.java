@@ -0,0 +1,57 @@
+package com.foxminded.university.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.ContentVersion;
+import com.foxminded.university.model.Course;
+
+class ChangeTrackerTest {
+    ChangeTracker changeTracker;
+    
+    @BeforeEach
+    void init() {
+        changeTracker = new ChangeTracker();
+    }
+    
+    @Test
+    void onChangedShouldRaiseOnlyVersionOfChangedTypeTest() {
+        long courseVersion = changeTracker.getVersion(Course.class);
+        long classroomVersion = changeTracker.getVersion(Classroom.class);
+        
+        changeTracker.onChanged(Course.class);
+        changeTracker.onChanged(Course.class);
+        
+        assertTrue(changeTracker.getVersion(Course.class) >= courseVersion + 2);
+        assertEquals(classroomVersion, changeTracker.getVersion(Classroom.class));
+    }
+    
+    @Test
+    void onGroupChangedShouldNotAffectOtherGroupsAndTeachersTest() {
+        long otherGroupVersion = changeTracker.getGroupVersion(2);
+        long teacherVersion = changeTracker.getTeacherVersion(1);
+        long groupVersion = changeTracker.getGroupVersion(1);
+        
+        changeTracker.onGroupChanged(1);
+        
+        assertTrue(changeTracker.getGroupVersion(1) > groupVersion);
+        assertEquals(otherGroupVersion, changeTracker.getGroupVersion(2));
+        assertEquals(teacherVersion, changeTracker.getTeacherVersion(1));
+    }
+    
+    @Test
+    void getContentVersionShouldChangeTagWhenAnyVersionChangesTest() {
+        ContentVersion before = changeTracker.getContentVersion("page", 
+                changeTracker.getVersion(Course.class), changeTracker.getTeacherVersion(1));
+        changeTracker.onTeacherChanged(1);
+        ContentVersion after = changeTracker.getContentVersion("page", 
+                changeTracker.getVersion(Course.class), changeTracker.getTeacherVersion(1));
+        
+        assertNotEquals(before.getTag(), after.getTag());
+        assertTrue(after.getTag().startsWith("page-"));
+        assertEquals(changeTracker.getTeacherVersion(1), after.getLastModified());
+    }
+}
@@ -0,0 +1,154 @@
+package com.foxminded.university.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.repository.GroupRepository;
+import com.foxminded.university.controller.repository.StudentRepository;
+import com.foxminded.university.model.Faculty;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.Student;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = WebConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Sql(scripts = "classpath:testDatabase.sql")
+@WebAppConfiguration
+class EnrolmentStatisticsTest {
+    @Autowired
+    EnrolmentStatistics enrolmentStatistics;
+    
+    @Autowired
+    StudentRepository studentRepository;
+    
+    @Autowired
+    GroupRepository groupRepository;
+    
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    
+    @Test
+    void countsShouldBeLoadedOnceAndThenReadWithoutQueriesTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            assertEquals(2, enrolmentStatistics.getStudentsCount());
+            long loadStatements = statistics.getPrepareStatementCount();
+            
+            assertEquals(2, enrolmentStatistics.getStudentsCountByGroup(1));
+            assertEquals(2, enrolmentStatistics.getStudentsCountByFaculty(1));
+            assertEquals(0, enrolmentStatistics.getStudentsCountByFaculty(2));
+            assertEquals(1, enrolmentStatistics.getGroupsCount());
+            assertEquals(2, loadStatements);
+            assertEquals(loadStatements, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Test
+    void studentWritesShouldUpdateCountsTest() {
+        enrolmentStatistics.getStudentsCount();
+        Group group = group("ba-20", 2);
+        groupRepository.add(group);
+        
+        studentRepository.add(student(group.getId()));
+        Student moved = studentRepository.getById(1);
+        moved.setGroup(group);
+        studentRepository.update(moved);
+        Student deleted = new Student();
+        deleted.setId(2);
+        studentRepository.delete(deleted);
+        
+        assertEquals(2, enrolmentStatistics.getStudentsCount());
+        assertEquals(0, enrolmentStatistics.getStudentsCountByGroup(1));
+        assertEquals(2, enrolmentStatistics.getStudentsCountByGroup(group.getId()));
+        assertEquals(0, enrolmentStatistics.getStudentsCountByFaculty(1));
+        assertEquals(2, enrolmentStatistics.getStudentsCountByFaculty(2));
+        assertEquals(2, enrolmentStatistics.getGroupsCount());
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students", Integer.class),
+                     enrolmentStatistics.getStudentsCount());
+    }
+    
+    @Test
+    void groupFacultyChangeShouldMoveStudentCountsTest() {
+        enrolmentStatistics.getStudentsCount();
+        Group group = groupRepository.getById(1);
+        group.setFaculty(faculty(2));
+        
+        groupRepository.update(group);
+        
+        assertEquals(0, enrolmentStatistics.getStudentsCountByFaculty(1));
+        assertEquals(2, enrolmentStatistics.getStudentsCountByFaculty(2));
+        assertEquals(2, enrolmentStatistics.getStudentsCount());
+    }
+    
+    @Test
+    void invalidateShouldReloadCountsTest() {
+        enrolmentStatistics.getStudentsCount();
+        jdbcTemplate.update("INSERT INTO students (first_name, last_name, group_id) VALUES ('Ada', 'Lovelace', 1)");
+        
+        enrolmentStatistics.invalidate();
+        
+        assertEquals(3, enrolmentStatistics.getStudentsCount());
+        assertEquals(3, enrolmentStatistics.getStudentsCountByGroup(1));
+    }
+    
+    @Test
+    void writeCountedByLoadBeforeItsCommitShouldNotBeCountedTwiceTest() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            studentRepository.add(student(1));
+            assertEquals(3, enrolmentStatistics.getStudentsCount());
+            return null;
+        });
+        
+        assertEquals(3, enrolmentStatistics.getStudentsCount());
+        assertEquals(3, enrolmentStatistics.getStudentsCountByGroup(1));
+    }
+    
+    private Student student(int groupId) {
+        Student student = new Student();
+        student.setFirstName("Ada");
+        student.setLastName("Lovelace");
+        Group group = new Group();
+        group.setId(groupId);
+        student.setGroup(group);
+        return student;
+    }
+    
+    private Group group(String name, int facultyId) {
+        Group group = new Group();
+        group.setGroupName(name);
+        group.setFaculty(faculty(facultyId));
+        return group;
+    }
+    
+    private Faculty faculty(int id) {
+        Faculty faculty = new Faculty();
+        faculty.setId(id);
+        return faculty;
+    }
+}
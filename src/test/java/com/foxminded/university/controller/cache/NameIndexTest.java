@@ -0,0 +1,89 @@
+package com.foxminded.university.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.foxminded.university.model.PersonMatch;
+
+class NameIndexTest {
+    NameIndex index;
+    
+    @BeforeEach
+    void init() {
+        index = new NameIndex();
+        index.put(1, "John", "Smith");
+        index.put(2, "Jane", "Smithson");
+        index.put(3, "Zo\u00eb", "Adams");
+        index.put(4, "R2D2", null);
+    }
+    
+    @ParameterizedTest
+    @CsvSource({"smith, 1",
+                "SMI, 1",
+                "jo smi, 1",
+                "smtih, 1",
+                "jhon, 1",
+                "smithsno, 2",
+                "zoe, 3",
+                "r2, 4"})
+    void searchShouldRankBestMatchFirstTest(String query, int expectedId) {
+        assertEquals(expectedId, index.search(query, 10).get(0).getId());
+    }
+    
+    @Test
+    void searchShouldRequireEveryQueryWordToMatchTest() {
+        assertEquals(ids(2), ids(index.search("jane smi", 10)));
+        assertTrue(index.search("jane adams", 10).isEmpty());
+    }
+    
+    @Test
+    void searchShouldNotAllowTyposInShortWordsTest() {
+        assertTrue(index.search("jon", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+    
+    @Test
+    void searchShouldOrderEqualMatchesByNameAndApplyLimitTest() {
+        assertEquals(ids(1, 2), ids(index.search("smi", 10)));
+        assertEquals(ids(1), ids(index.search("smi", 1)));
+    }
+    
+    @Test
+    void putShouldReplaceAndRemoveShouldDropNameTest() {
+        index.put(1, "John", "Doe");
+        
+        assertEquals(ids(2), ids(index.search("smi", 10)));
+        assertEquals(ids(1), ids(index.search("doe", 10)));
+        
+        index.remove(1);
+        
+        assertTrue(index.search("john", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+    
+    @ParameterizedTest
+    @CsvSource({"smith, smith, 0",
+                "smith, smtih, 1",
+                "smith, smyth, 1",
+                "smith, smithson, 3",
+                "john, jane, 3"})
+    void getDistanceShouldCountEditsUpToLimitTest(String first, String second, int expected) {
+        assertEquals(expected, NameIndex.getDistance(first, second, 2));
+    }
+    
+    private List<Integer> ids(Integer... ids) {
+        return Arrays.asList(ids);
+    }
+    
+    private List<Integer> ids(List<PersonMatch> matches) {
+        return matches.stream().map(PersonMatch::getId).collect(Collectors.toList());
+    }
+}
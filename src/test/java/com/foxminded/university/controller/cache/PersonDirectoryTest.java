@@ -0,0 +1,119 @@
+package com.foxminded.university.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.repository.StudentRepository;
+import com.foxminded.university.controller.repository.TeacherRepository;
+import com.foxminded.university.model.Faculty;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.PersonMatch;
+import com.foxminded.university.model.Student;
+import com.foxminded.university.model.Teacher;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = WebConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Sql(scripts = "classpath:testDatabase.sql")
+@WebAppConfiguration
+class PersonDirectoryTest {
+    @Autowired
+    PersonDirectory personDirectory;
+    
+    @Autowired
+    StudentRepository studentRepository;
+    
+    @Autowired
+    TeacherRepository teacherRepository;
+    
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    
+    @Test
+    void searchShouldNotQueryDatabaseOnceLoadedTest() {
+        personDirectory.searchStudents("john", 10);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            assertEquals(Arrays.asList(1), ids(personDirectory.searchStudents("smith", 10)));
+            assertEquals(Arrays.asList(1), ids(personDirectory.searchTeachers("tur", 10)));
+            assertEquals(0, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Test
+    void studentWritesShouldUpdateIndexTest() {
+        personDirectory.searchStudents("john", 10);
+        Student added = student("Ada", "Lovelace");
+        studentRepository.add(added);
+        Student renamed = studentRepository.getById(1);
+        renamed.setLastName("Doe");
+        studentRepository.update(renamed);
+        Student deleted = new Student();
+        deleted.setId(2);
+        studentRepository.delete(deleted);
+        
+        assertEquals(Arrays.asList(added.getId()), ids(personDirectory.searchStudents("lovelace", 10)));
+        assertEquals(Arrays.asList(1), ids(personDirectory.searchStudents("john doe", 10)));
+        assertTrue(personDirectory.searchStudents("smith", 10).isEmpty());
+        assertTrue(personDirectory.searchStudents("r2d2", 10).isEmpty());
+    }
+    
+    @Test
+    void teacherWritesShouldUpdateIndexTest() {
+        personDirectory.searchTeachers("alan", 10);
+        Teacher first = teacher("Grace", "Hopper");
+        Teacher second = teacher("Ada", "Lovelace");
+        teacherRepository.addAll(Arrays.asList(first, second));
+        Teacher deleted = new Teacher();
+        deleted.setId(first.getId());
+        teacherRepository.delete(deleted);
+        
+        assertEquals(Arrays.asList(second.getId()), ids(personDirectory.searchTeachers("lovlace", 10)));
+        assertTrue(personDirectory.searchTeachers("hopper", 10).isEmpty());
+    }
+    
+    private List<Integer> ids(List<PersonMatch> matches) {
+        return matches.stream().map(PersonMatch::getId).collect(Collectors.toList());
+    }
+    
+    private Student student(String firstName, String lastName) {
+        Student student = new Student();
+        student.setFirstName(firstName);
+        student.setLastName(lastName);
+        Group group = new Group();
+        group.setId(1);
+        student.setGroup(group);
+        return student;
+    }
+    
+    private Teacher teacher(String firstName, String lastName) {
+        Teacher teacher = new Teacher();
+        teacher.setFirstName(firstName);
+        teacher.setLastName(lastName);
+        Faculty faculty = new Faculty();
+        faculty.setId(1);
+        teacher.setFaculty(faculty);
+        return teacher;
+    }
+}
@@ -0,0 +1,39 @@
+package com.foxminded.university.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class PostingListTest {
+    
+    @Test
+    void rangeShouldReturnLessonIdsOfDaysInsideIntervalTest() {
+        PostingList list = PostingList.EMPTY
+                           .with(PostingList.entry(10, 3))
+                           .with(PostingList.entry(12, 1))
+                           .with(PostingList.entry(11, 7))
+                           .with(PostingList.entry(15, 2));
+        
+        assertArrayEquals(new int[] {7, 1}, list.range(11, 12));
+        assertArrayEquals(new int[0], list.range(13, 14));
+    }
+    
+    @Test
+    void withShouldIgnoreDuplicatesAndWithoutShouldRemoveEntryTest() {
+        PostingList list = PostingList.EMPTY
+                           .with(PostingList.entry(10, 3))
+                           .with(PostingList.entry(10, 3));
+        assertEquals(1, list.size());
+        
+        assertEquals(0, list.without(PostingList.entry(10, 3)).size());
+        assertSame(list, list.without(PostingList.entry(11, 3)));
+    }
+    
+    @Test
+    void mergeShouldKeepEntriesOrderedByDayTest() {
+        PostingList first = PostingList.EMPTY.with(PostingList.entry(20, 1)).with(PostingList.entry(5, 2));
+        PostingList second = PostingList.EMPTY.with(PostingList.entry(10, 3));
+        
+        assertArrayEquals(new int[] {2, 3, 1}, PostingList.merge(first, second).range(0, 30));
+    }
+}
@@ -0,0 +1,65 @@
+package com.foxminded.university.controller.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchLoaderTest {
+    List<Collection<Integer>> batches;
+    BatchLoader<Integer, String> loader;
+    
+    @BeforeEach
+    void init() {
+        batches = new ArrayList<>();
+        loader = new BatchLoader<>(this::load);
+    }
+    
+    @Test
+    void dispatchShouldLoadAllQueuedKeysInOneBatchTest() {
+        Map<Integer, List<String>> actual = new HashMap<>();
+        
+        loader.load(1, values -> actual.put(1, values));
+        loader.load(2, values -> actual.put(2, values));
+        loader.load(1, values -> actual.put(3, values));
+        loader.dispatch();
+        
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList(1, 2), batches.get(0));
+        assertEquals(Arrays.asList("value-1"), actual.get(1));
+        assertEquals(Arrays.asList("value-2"), actual.get(2));
+        assertEquals(actual.get(1), actual.get(3));
+    }
+    
+    @Test
+    void loadManyShouldQueryOnlyKeysNotLoadedBeforeTest() {
+        loader.loadMany(Arrays.asList(1, 2));
+        Map<Integer, List<String>> actual = loader.loadMany(Arrays.asList(2, 3));
+        
+        assertEquals(2, batches.size());
+        assertEquals(Arrays.asList(3), batches.get(1));
+        assertEquals(Arrays.asList(2, 3), new ArrayList<>(actual.keySet()));
+    }
+    
+    @Test
+    void loadManyShouldReturnEmptyListForKeyWithoutValuesTest() {
+        Map<Integer, List<String>> actual = loader.loadMany(Arrays.asList(0));
+        
+        assertEquals(Collections.emptyList(), actual.get(0));
+    }
+    
+    private Map<Integer, List<String>> load(Collection<Integer> keys) {
+        batches.add(new ArrayList<>(keys));
+        Map<Integer, List<String>> output = new HashMap<>();
+        keys.stream().filter(key -> key > 0).forEach(key -> output.put(key, Arrays.asList("value-" + key)));
+        return output;
+    }
+}
@@ -4,6 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.List;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -21,7 +27,10 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.ChangeTracker;
 import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.ClassroomView;
+import com.foxminded.university.model.KeysetPage;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = WebConfig.class)
@@ -35,6 +44,12 @@ class ClassroomRepositoryTest {
     @Autowired
     JdbcTemplate jdbcTemplate;
     
+    @Autowired
+    ChangeTracker changeTracker;
+    
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    
     @Order(1)
     @Test
     void addShouldAddOneRowInClassroomTableTest() {
@@ -89,6 +104,131 @@ class ClassroomRepositoryTest {
         });
     }
     
+    @Order(6)
+    @Test
+    void getAllShouldBeServedFromQueryCacheWhenRepeatedTest() {
+        classroomRepository.getAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<Classroom> actual = classroomRepository.getAll();
+            
+            assertEquals(3, actual.size());
+            assertEquals(0, statistics.getPrepareStatementCount());
+            assertEquals(1, statistics.getQueryCacheHitCount());
+            assertEquals(3, statistics.getDomainDataRegionStatistics(Classroom.class.getName()).getHitCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Order(7)
+    @Test
+    void deleteShouldEvictOnlyDeletedClassroomFromCacheTest() {
+        Classroom classroom = new Classroom();
+        classroom.setNumber("cached");
+        classroom.setCapacity(10);
+        classroomRepository.add(classroom);
+        classroomRepository.getAll();
+        Cache cache = entityManagerFactory.getCache();
+        assertTrue(cache.contains(Classroom.class, classroom.getId()));
+        
+        classroomRepository.delete(classroom);
+        
+        assertFalse(cache.contains(Classroom.class, classroom.getId()));
+        assertTrue(cache.contains(Classroom.class, 1));
+        assertFalse(classroomRepository.getAll().stream().anyMatch(c -> c.getId() == classroom.getId()));
+    }
+    
+    @Order(8)
+    @Test
+    void getAllViewsShouldReadProjectionsWithoutLoadingEntitiesTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<ClassroomView> actual = classroomRepository.getAllViews();
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals("101A", actual.get(0).getNumber());
+            assertEquals(30, actual.get(0).getCapacity());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Test
+    void getViewPageShouldContinueAfterCursorTest() {
+        KeysetPage<ClassroomView> first = classroomRepository.getViewPage(null, 1);
+        
+        assertTrue(first.isFirst());
+        assertEquals(1, first.getItems().size());
+        assertEquals("101A", first.getItems().get(0).getNumber());
+        assertEquals("101A,1", first.getNextCursor());
+        
+        KeysetPage<ClassroomView> second = classroomRepository.getViewPage(first.getNextCursor(), 1);
+        
+        assertEquals("102A", second.getItems().get(0).getNumber());
+    }
+    
+    @Test
+    void getViewPageShouldListClassroomsWithoutNumberOnLaterPagesTest() {
+        jdbcTemplate.update("INSERT INTO classrooms (classroom_number, capacity) VALUES (NULL, 10), (NULL, 20)");
+        try {
+            KeysetPage<ClassroomView> first = classroomRepository.getViewPage(null, 1);
+            
+            assertNull(first.getItems().get(0).getNumber());
+            assertEquals(10, first.getItems().get(0).getCapacity());
+            assertEquals("," + first.getItems().get(0).getId(), first.getNextCursor());
+            
+            KeysetPage<ClassroomView> second = classroomRepository.getViewPage(first.getNextCursor(), 1);
+            
+            assertNull(second.getItems().get(0).getNumber());
+            assertEquals(20, second.getItems().get(0).getCapacity());
+            
+            KeysetPage<ClassroomView> third = classroomRepository.getViewPage(second.getNextCursor(), 1);
+            
+            assertEquals("101A", third.getItems().get(0).getNumber());
+        } finally {
+            jdbcTemplate.update("DELETE FROM classrooms WHERE classroom_number IS NULL");
+        }
+    }
+    
+    @Test
+    void getViewPageShouldNotFillQueryCacheTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            KeysetPage<ClassroomView> first = classroomRepository.getViewPage(null, 1);
+            classroomRepository.getViewPage(first.getNextCursor(), 1);
+            
+            assertEquals(0, statistics.getQueryCachePutCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Test
+    void getViewPageShouldStartOverForUnreadableCursorTest() {
+        KeysetPage<ClassroomView> actual = classroomRepository.getViewPage("101A", 1);
+        
+        assertEquals("101A", actual.getItems().get(0).getNumber());
+    }
+    
+    @Test
+    void updateShouldKeepCachedVersionsWhenNoClassroomMatchesTest() {
+        Classroom classroom = new Classroom();
+        classroom.setId(-1);
+        classroom.setNumber("999Z");
+        long version = changeTracker.getVersion(Classroom.class);
+        
+        assertEquals(0, classroomRepository.update(classroom));
+        assertEquals(version, changeTracker.getVersion(Classroom.class));
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
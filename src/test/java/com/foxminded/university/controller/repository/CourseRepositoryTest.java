@@ -2,8 +2,14 @@ package com.foxminded.university.controller.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -36,6 +42,8 @@ class CourseRepositoryTest {
     @Autowired
     CourseRepository courseRepository;
     
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
     
     @Order(1)
     @Test
@@ -72,6 +80,15 @@ class CourseRepositoryTest {
         assertTrue(actual.isEmpty());
     }
 
+    @Order(3)
+    @Test
+    void getByTeachersShouldGroupCoursesByTeacherTest() {
+        Map<Integer, List<Course>> actual = courseRepository.getByTeachers(Arrays.asList(1, 100));
+        assertEquals(3, actual.get(1).size());
+        assertEquals("Turing machine", actual.get(1).get(0).getName());
+        assertFalse(actual.containsKey(100));
+    }
+
     @Order(4)
     @ParameterizedTest
     @CsvSource({"1, 'Turing machine', Alan",
@@ -84,6 +101,35 @@ class CourseRepositoryTest {
         assertEquals(teacherName, current.getTeacher().getFirstName());
     }
     
+    @Order(5)
+    @Test
+    void updateShouldWriteFormFieldsOnlyOverTheVersionTheyWereReadAtTest() {
+        Course course = new Course();
+        course.setId(3);
+        course.setName("renamedCourse");
+        course.setDescription("renamedDescr");
+        Teacher teacher = new Teacher();
+        teacher.setId(1);
+        course.setTeacher(teacher);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            assertEquals(1, courseRepository.update(course));
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        assertEquals("renamedCourse", jdbcTemplate.queryForObject(
+                "SELECT course_name FROM courses WHERE course_id = 3", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT version FROM courses WHERE course_id = 3", Integer.class));
+        assertEquals(0, courseRepository.update(course));
+        course.setId(100);
+        assertEquals(0, courseRepository.update(course));
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
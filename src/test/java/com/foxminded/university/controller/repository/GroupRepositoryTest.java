@@ -2,8 +2,13 @@ package com.foxminded.university.controller.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
 import java.util.List;
 
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -23,8 +28,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.foxminded.university.config.WebConfig;
 import com.foxminded.university.model.Course;
+import com.foxminded.university.model.EntityGraphs;
 import com.foxminded.university.model.Faculty;
 import com.foxminded.university.model.Group;
+import com.foxminded.university.model.GroupView;
 import com.foxminded.university.model.Student;
 
 @ExtendWith(SpringExtension.class)
@@ -39,6 +46,9 @@ class GroupRepositoryTest {
     @Autowired
     GroupRepository groupRepository;
     
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    
     @Order(1)  
     @Test
     void addShouldCreateNewRowInGroupsTableTest() {
@@ -94,6 +104,44 @@ class GroupRepositoryTest {
         assertEquals(3, actual);
     }
     
+    @Order(7)
+    @Test
+    void assignCoursesShouldInsertMissingPairsWithoutLoadingEntitiesTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            int actual = groupRepository.assignCourses(Arrays.asList(1, 2, 100), Arrays.asList(1, 2, 100));
+            
+            assertEquals(1, actual);
+            assertEquals(2, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM groups_courses", Integer.class));
+            assertEquals(0, groupRepository.assignCourses(Arrays.asList(1, 2), Arrays.asList(1, 2)));
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Order(7)
+    @Test
+    void unassignCoursesShouldDeletePairsInOneStatementTest() {
+        groupRepository.assignCourses(Arrays.asList(2), Arrays.asList(1, 2));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            int actual = groupRepository.unassignCourses(Arrays.asList(2), Arrays.asList(1, 2, 100));
+            
+            assertEquals(2, actual);
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM groups_courses", Integer.class));
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        groupRepository.assignCourses(Arrays.asList(2), Arrays.asList(1));
+    }
+    
     @Order(8)
     @Test
     void getByIdShouldReturnGroupObjectTest() {
@@ -103,6 +151,55 @@ class GroupRepositoryTest {
         assertNotNull(actual.getStudents());
     }
     
+    @Order(8)
+    @Test
+    void getByIdShouldLeaveCoursesUnloadedWithoutEntityGraphTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Group actual = groupRepository.getById(1);
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertFalse(entityManagerFactory.getPersistenceUnitUtil().isLoaded(actual, "courses"));
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Order(8)
+    @Test
+    void getByIdShouldFetchCoursesInOneQueryWithGroupWithCoursesGraphTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Group actual = groupRepository.getById(1, EntityGraphs.GROUP_WITH_COURSES);
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(2, actual.getCourses().size());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Order(8)
+    @Test
+    void getAllShouldFetchCoursesInOneQueryWithGroupWithCoursesGraphTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<Group> actual = groupRepository.getAll(EntityGraphs.GROUP_WITH_COURSES);
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(1, actual.get(0).getId());
+            assertEquals(2, actual.get(0).getCourses().size());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
     @Order(9)
     @ParameterizedTest
     @CsvSource({"100", "200", "-1000"})
@@ -122,6 +219,24 @@ class GroupRepositoryTest {
         assertEquals("CS", actual.getFaculty().getShortName());
     }
 
+    @Order(10)
+    @Test
+    void getByStudentShouldFetchCoursesInOneQueryWithGroupWithCoursesGraphTest() {
+        Student student = new Student();
+        student.setId(1);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Group actual = groupRepository.getByStudent(student, EntityGraphs.GROUP_WITH_COURSES);
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(2, actual.getCourses().size());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
     @Order(11)
     @ParameterizedTest
     @CsvSource({"1000", "555500", "-1000"})
@@ -133,6 +248,45 @@ class GroupRepositoryTest {
         });
     }
     
+    @Order(12)
+    @Test
+    void getViewsWithCoursesShouldReadProjectionsInOneQueryTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<GroupView> actual = groupRepository.getViewsWithCourses();
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM groups", Integer.class), actual.size());
+            assertEquals("cs-20", actual.get(0).getGroupName());
+            assertEquals("Turing machine", actual.get(0).getCourses().get(0).getName());
+            assertEquals(2, actual.get(0).getCourses().size());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Order(12)
+    @Test
+    void getViewsWithStudentsShouldReadProjectionsInOneQueryTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<GroupView> actual = groupRepository.getViewsWithStudents();
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals("John", actual.get(0).getStudents().get(0).getFirstName());
+            assertEquals(2, actual.get(0).getStudents().size());
+            assertTrue(actual.get(0).getCourses().isEmpty());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
@@ -2,8 +2,16 @@ package com.foxminded.university.controller.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -22,9 +30,12 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.ScheduleIndex;
 import com.foxminded.university.model.Classroom;
 import com.foxminded.university.model.Course;
+import com.foxminded.university.model.EntityGraphs;
 import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.LessonSeries;
 import com.foxminded.university.model.Timeslot;
 
 @ExtendWith(SpringExtension.class)
@@ -39,6 +50,12 @@ class LessonRepositoryTest {
     @Autowired
     LessonRepository lessonRepository;
     
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
     @Order(1)
     @Test
     void addShouldCreateNewRowInLessonsTable() {      
@@ -86,6 +103,107 @@ class LessonRepositoryTest {
         });        
     }
     
+    @Order(3)
+    @Test
+    void getByIdShouldLeaveReferencesUnloadedWithoutEntityGraphTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Lesson lesson = lessonRepository.getById(1);
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertFalse(entityManagerFactory.getPersistenceUnitUtil().isLoaded(lesson, "time"));
+            assertFalse(entityManagerFactory.getPersistenceUnitUtil().isLoaded(lesson, "classroom"));
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Order(3)
+    @Test
+    void getByIdShouldFetchReferencesInOneQueryWithLessonForTimetableGraphTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Lesson lesson = lessonRepository.getById(1, EntityGraphs.LESSON_FOR_TIMETABLE);
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(1, lesson.getTime().getId());
+            assertEquals("101A", lesson.getClassroom().getNumber());
+            assertEquals("Turing machine", lesson.getCourse().getName());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
+    @Order(4)
+    @Test
+    void seriesShouldBeInsertedInBatchesAndMovedAndDeletedAsSetsTest() {
+        LessonSeries series = new LessonSeries();
+        series.setStartDate(LocalDate.of(2030, 2, 4));
+        series.setEndDate(LocalDate.of(2030, 5, 31));
+        series.setDays(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY));
+        series.setTime(timeslot(3));
+        series.setCourse(course(2));
+        series.setClassroom(classroom(2));
+        List<Lesson> lessons = new ArrayList<>();
+        for (LocalDate date : series.getDates()) {
+            Lesson lesson = new Lesson();
+            lesson.setDate(date);
+            lesson.setTime(series.getTime());
+            lesson.setCourse(series.getCourse());
+            lesson.setClassroom(series.getClassroom());
+            lessons.add(lesson);
+        }
+        assertEquals(34, lessons.size());
+        scheduleIndex.reload();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            lessonRepository.addSeries(series, lessons);
+            
+            assertEquals(35, statistics.getEntityInsertCount());
+            assertTrue(statistics.getPrepareStatementCount() <= 4);
+            
+            series.setTime(timeslot(4));
+            lessons.forEach(lesson -> lesson.setTime(series.getTime()));
+            statistics.clear();
+            
+            assertEquals(34, lessonRepository.updateSeries(series, lessons));
+            assertTrue(statistics.getPrepareStatementCount() <= 4);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        assertEquals(34, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM lessons WHERE series_id = ? AND timeslot_id = 4", Integer.class, series.getId()));
+        
+        assertEquals(34, lessonRepository.deleteSeries(series.getId()));
+        assertEquals(0, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM lessons WHERE lesson_date >= '2030-01-01'", Integer.class));
+        assertNull(lessonRepository.getSeriesById(series.getId()));
+    }
+    
+    private Timeslot timeslot(int id) {
+        Timeslot timeslot = new Timeslot();
+        timeslot.setId(id);
+        return timeslot;
+    }
+    
+    private Course course(int id) {
+        Course course = new Course();
+        course.setId(id);
+        return course;
+    }
+    
+    private Classroom classroom(int id) {
+        Classroom classroom = new Classroom();
+        classroom.setId(id);
+        return classroom;
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
@@ -2,6 +2,13 @@ package com.foxminded.university.controller.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -21,6 +28,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.foxminded.university.config.WebConfig;
 import com.foxminded.university.model.Group;
+import com.foxminded.university.model.GroupView;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Student;
 
 @ExtendWith(SpringExtension.class)
@@ -35,6 +44,9 @@ class StudentRepositoryTest {
     @Autowired
     StudentRepository studentRepository;
     
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    
     @Order(1)
     @Test
     void addShoulCreateNewRowInStudentsTableTest() {
@@ -68,6 +80,47 @@ class StudentRepositoryTest {
         assertEquals("cs-20", actual.getGroup().getGroupName());
     }
     
+    @Order(4)
+    @Test
+    void addAllShouldInsertStudentsInBatchesTest() {
+        Group group = new Group();
+        group.setId(1);
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Student student = new Student();
+            student.setFirstName("Student" + i);
+            student.setGroup(group);
+            students.add(student);
+        }
+        int before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students", Integer.class);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            studentRepository.addAll(students);
+            
+            assertEquals(120, statistics.getEntityInsertCount());
+            assertTrue(statistics.getPrepareStatementCount() <= 6);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        assertEquals(before + 120, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students", Integer.class));
+    }
+    
+    @Test
+    void getViewPageShouldSplitGroupRosterAtCursorTest() {
+        KeysetPage<GroupView> first = studentRepository.getViewPage(null, 1);
+        
+        assertEquals(1, first.getItems().size());
+        assertEquals(1, first.getItems().get(0).getStudents().get(0).getId());
+        assertEquals("1,1", first.getNextCursor());
+        
+        KeysetPage<GroupView> second = studentRepository.getViewPage(first.getNextCursor(), 1);
+        
+        assertEquals(1, second.getItems().get(0).getId());
+        assertEquals(2, second.getItems().get(0).getStudents().get(0).getId());
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
@@ -4,6 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.List;
 
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -22,8 +28,10 @@ import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.model.EntityGraphs;
 import com.foxminded.university.model.Faculty;
 import com.foxminded.university.model.Teacher;
+import com.foxminded.university.model.TeacherView;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = WebConfig.class)
@@ -37,6 +45,9 @@ class TeacherRepositoryTest {
     @Autowired
     TeacherRepository teacherRepository;
     
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    
     @Order(1)
     @Test
     void addShoulCreateNewRowInTeachersTableTest() {
@@ -77,6 +88,23 @@ class TeacherRepositoryTest {
         assertEquals("CS", teacher.getFaculty().getShortName());
     }
     
+    @Order(3)
+    @Test
+    void getByIdShouldFetchCoursesInOneQueryWithTeacherWithCoursesGraphTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Teacher teacher = teacherRepository.getById(1, EntityGraphs.TEACHER_WITH_COURSES);
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals("Turing machine", teacher.getCourses().get(0).getName());
+            assertFalse(entityManagerFactory.getPersistenceUnitUtil().isLoaded(teacher, "faculty"));
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
     @Order(4)
     @ParameterizedTest
     @CsvSource({"100", "200", "-1000"})
@@ -84,6 +112,25 @@ class TeacherRepositoryTest {
         assertNull(teacherRepository.getById(id));
     }
 
+    @Order(5)
+    @Test
+    void getViewsWithCoursesShouldReadProjectionsInOneQueryTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<TeacherView> actual = teacherRepository.getViewsWithCourses();
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals("Turing", actual.get(0).getLastName());
+            assertEquals(2, actual.get(0).getCourses().size());
+            assertEquals("Turing machine", actual.get(0).getCourses().get(0).getName());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
@@ -4,6 +4,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.List;
 
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -23,6 +28,7 @@ import org.springframework.test.context.web.WebAppConfiguration;
 
 import com.foxminded.university.config.WebConfig;
 import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.TimeslotView;
 
 @ExtendWith(SpringExtension.class) 
 @ContextConfiguration(classes = {WebConfig.class})
@@ -33,6 +39,9 @@ class TimeslotRepositoryTest {
     @Autowired
     JdbcTemplate jdbcTemplate;
     
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    
     @Autowired
     TimeslotRepository timeslotRepository;
     
@@ -60,6 +69,24 @@ class TimeslotRepositoryTest {
         assertNull(timeslotRepository.getById(id));
     }
     
+    @Order(4)
+    @Test
+    void getAllViewsShouldReadProjectionsWithoutLoadingEntitiesTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<TimeslotView> actual = timeslotRepository.getAllViews();
+            
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals(6, actual.size());
+            assertEquals("09:00 - 10:30", actual.get(0).getDescription());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
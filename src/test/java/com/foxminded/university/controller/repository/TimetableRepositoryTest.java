@@ -3,6 +3,9 @@ package com.foxminded.university.controller.repository;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -19,9 +22,16 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.ScheduleIndex;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
 import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Faculty;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.Lesson;
 import com.foxminded.university.model.Student;
 import com.foxminded.university.model.Teacher;
+import com.foxminded.university.model.Timeslot;
 import com.foxminded.university.model.Timetable;
 
 @ExtendWith(SpringExtension.class)
@@ -36,6 +46,15 @@ class TimetableRepositoryTest {
     @Autowired
     TimetableRepository TimetableRepository;
     
+    @Autowired
+    LessonRepository lessonRepository;
+    
+    @Autowired
+    TimeslotRepository timeslotRepository;
+    
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
     @Test
     void testGetByStudentShouldReturnTimetableObjectTest() {
         LocalDate startDate = LocalDate.of(2020, 1, 1);
@@ -94,6 +113,151 @@ class TimetableRepositoryTest {
         assertTrue(timetable.getLessons().isEmpty());
     }
     
+    @Test
+    void getByTeacherShouldReflectLessonWritesTest() {
+        LocalDate date = LocalDate.of(2020, 9, 1);
+        DateInterval dateInterval = new DateInterval(date, date);
+        Teacher teacher = new Teacher();
+        teacher.setId(1);
+        Lesson lesson = new Lesson();
+        lesson.setDate(date);
+        lesson.setTime(new Timeslot());
+        lesson.getTime().setId(4);
+        lesson.setCourse(new Course());
+        lesson.getCourse().setId(2);
+        lesson.setClassroom(new Classroom());
+        lesson.getClassroom().setId(2);
+        
+        lessonRepository.add(lesson);
+        Timetable afterAdd = TimetableRepository.getByTeacher(teacher, dateInterval);
+        lessonRepository.delete(lesson);
+        Timetable afterDelete = TimetableRepository.getByTeacher(teacher, dateInterval);
+        
+        assertEquals(1, afterAdd.getLessons().size());
+        assertEquals("Turing-complete languages", afterAdd.getLessons().get(0).getCourse().getName());
+        assertTrue(afterDelete.getLessons().isEmpty());
+    }
+    
+    @Test
+    void getByStudentShouldServeRepeatedReadsFromSnapshotsAndShowEditedTimeslotTest() {
+        DateInterval week = new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        Student student = new Student();
+        student.setId(1);
+        Timeslot timeslot = timeslotRepository.getById(1);
+        String description = timeslot.getDescription();
+        
+        TimetableRepository.getByStudent(student, week);
+        long hits = scheduleIndex.getSnapshotHitCount();
+        TimetableRepository.getByStudent(student, week);
+        long repeatedHits = scheduleIndex.getSnapshotHitCount() - hits;
+        timeslot.setDescription("08:00 - 09:30");
+        timeslotRepository.update(timeslot);
+        Timetable afterEdit = TimetableRepository.getByStudent(student, week);
+        timeslot.setDescription(description);
+        timeslotRepository.update(timeslot);
+        
+        assertEquals(2, repeatedHits);
+        assertEquals("08:00 - 09:30", afterEdit.getLessons().get(0).getTime().getDescription());
+    }
+    
+    @Test
+    void getByTeacherShouldNotShareLessonsBetweenCallsTest() {
+        DateInterval week = new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        Teacher teacher = new Teacher();
+        teacher.setId(1);
+        
+        TimetableRepository.getByTeacher(teacher, week);
+        Lesson first = TimetableRepository.getByTeacher(teacher, week).getLessons().get(0);
+        first.getCourse().setName("Changed by a caller");
+        Lesson second = TimetableRepository.getByTeacher(teacher, week).getLessons().get(0);
+        
+        assertNotSame(first, second);
+        assertEquals("Turing machine", second.getCourse().getName());
+        assertEquals("101A", second.getClassroom().getNumber());
+    }
+    
+    @Test
+    void streamByGroupShouldPassLessonsInDateAndTimeslotOrderTest() {
+        DateInterval dateInterval = new DateInterval(LocalDate.of(2020, 6, 1), LocalDate.of(2020, 6, 30));
+        Group group = new Group();
+        group.setId(1);
+        List<Lesson> lessons = new ArrayList<>();
+        
+        TimetableRepository.streamByGroup(group, dateInterval, lessons::add);
+        
+        assertEquals(2, lessons.size());
+        assertEquals(1, lessons.get(0).getTime().getId());
+        assertEquals(2, lessons.get(1).getTime().getId());
+        assertEquals("Turing machine", lessons.get(0).getCourse().getName());
+        assertEquals("101A", lessons.get(0).getClassroom().getNumber());
+    }
+    
+    @Test
+    void streamByTeacherShouldSkipLessonsOutsideOfIntervalTest() {
+        DateInterval dateInterval = new DateInterval(LocalDate.of(2020, 6, 19), LocalDate.of(2020, 6, 30));
+        Teacher teacher = new Teacher();
+        teacher.setId(1);
+        List<Lesson> lessons = new ArrayList<>();
+        
+        TimetableRepository.streamByTeacher(teacher, dateInterval, lessons::add);
+        
+        assertTrue(lessons.isEmpty());
+    }
+    
+    @Test
+    void getByFacultyShouldReturnTimetablePerGroupTest() {
+        DateInterval dateInterval = new DateInterval(LocalDate.of(2020, 6, 1), LocalDate.of(2020, 6, 30));
+        Faculty faculty = new Faculty();
+        faculty.setId(1);
+        
+        Map<Group, Timetable> timetables = TimetableRepository.getByFaculty(faculty, dateInterval);
+        
+        assertEquals(1, timetables.size());
+        Group group = timetables.keySet().iterator().next();
+        assertEquals("cs-20", group.getGroupName());
+        List<Lesson> lessons = timetables.get(group).getLessons();
+        assertEquals(2, lessons.size());
+        assertEquals(1, lessons.get(0).getTime().getId());
+        assertEquals("Turing machine", lessons.get(0).getCourse().getName());
+        assertEquals("101A", lessons.get(0).getClassroom().getNumber());
+    }
+    
+    @Test
+    void getByFacultyShouldKeepGroupsWithoutLessonsTest() {
+        DateInterval dateInterval = new DateInterval(LocalDate.of(2020, 7, 1), LocalDate.of(2020, 7, 31));
+        Faculty faculty = new Faculty();
+        faculty.setId(1);
+        
+        Map<Group, Timetable> timetables = TimetableRepository.getByFaculty(faculty, dateInterval);
+        
+        assertEquals(1, timetables.size());
+        assertTrue(timetables.values().iterator().next().getLessons().isEmpty());
+    }
+    
+    @Test
+    void getChecksumByTeacherShouldChangeWithLessonsTest() {
+        LocalDate date = LocalDate.of(2020, 9, 2);
+        DateInterval dateInterval = new DateInterval(date, date);
+        Teacher teacher = new Teacher();
+        teacher.setId(1);
+        Lesson lesson = new Lesson();
+        lesson.setDate(date);
+        lesson.setTime(new Timeslot());
+        lesson.getTime().setId(4);
+        lesson.setCourse(new Course());
+        lesson.getCourse().setId(2);
+        lesson.setClassroom(new Classroom());
+        lesson.getClassroom().setId(2);
+        
+        long before = TimetableRepository.getChecksumByTeacher(teacher, dateInterval);
+        lessonRepository.add(lesson);
+        long afterAdd = TimetableRepository.getChecksumByTeacher(teacher, dateInterval);
+        lessonRepository.delete(lesson);
+        
+        assertNotEquals(before, afterAdd);
+        assertEquals(before, TimetableRepository.getChecksumByTeacher(teacher, dateInterval));
+    }
+    
     @AfterAll
     @Test
     void restoreDatabaseState() {
@@ -0,0 +1,81 @@
+package com.foxminded.university.controller.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.model.AdminDashboard;
+import com.foxminded.university.model.FacultySummary;
+import com.foxminded.university.model.GroupSummary;
+import com.foxminded.university.model.TeacherSummary;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = WebConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Sql(scripts = "classpath:testDatabase.sql")
+@WebAppConfiguration
+class AdminDashboardQueryTest {
+    @Autowired
+    AdminDashboardQuery adminDashboardQuery;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void loadShouldReturnFacultiesWithCountsGroupsAndTeachersTest() {
+        jdbcTemplate.update("INSERT INTO groups (group_name, faculty_id) VALUES ('ba-20', 2), ('ba-21', 2)");
+        jdbcTemplate.update("INSERT INTO teachers (first_name, last_name, faculty_id) VALUES ('Anna', 'Pavlova', 2)");
+
+        AdminDashboard dashboard = adminDashboardQuery.load();
+
+        List<FacultySummary> faculties = dashboard.getFaculties();
+        assertEquals(2, faculties.size());
+        assertEquals(1, faculties.get(0).getId());
+        assertEquals(1, faculties.get(0).getGroupsCount());
+        assertEquals(1, faculties.get(0).getTeachersCount());
+        assertEquals(2, faculties.get(1).getGroupsCount());
+        assertEquals(1, faculties.get(1).getTeachersCount());
+
+        List<GroupSummary> groups = dashboard.getGroups();
+        assertEquals(3, groups.size());
+        assertEquals("cs-20", groups.get(0).getGroupName());
+        assertEquals(2, groups.get(2).getFacultyId());
+
+        List<TeacherSummary> teachers = dashboard.getTeachers();
+        assertEquals(2, teachers.size());
+        assertEquals("Turing", teachers.get(0).getLastName());
+        assertEquals("Anna", teachers.get(1).getFirstName());
+    }
+
+    @Test
+    void loadShouldRunThreeQueriesTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            adminDashboardQuery.load();
+
+            assertEquals(3, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.foxminded.university.controller.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.foxminded.university.controller.repository.StudentRepository;
+import com.foxminded.university.controller.repository.TeacherRepository;
+import com.foxminded.university.model.ImportReport;
+import com.foxminded.university.model.Student;
+import com.foxminded.university.model.Teacher;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkImportServiceTest {
+    @Mock
+    StudentRepository studentRepository;
+    @Mock
+    TeacherRepository teacherRepository;
+    
+    @InjectMocks
+    BulkImportService bulkImportService;
+    
+    @BeforeAll
+    void init() {
+        MockitoAnnotations.initMocks(this);
+    }
+    
+    @BeforeEach
+    void resetMocks() {
+        reset(studentRepository, teacherRepository);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void importStudentsShouldWriteRowsInChunksTest() throws IOException {
+        int rows = BulkImportService.CHUNK_SIZE * 2 + 500;
+        StringBuilder csv = new StringBuilder("first_name,last_name,group_id\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Student").append(i).append(",Smith,").append(i % 3 + 1).append('\n');
+        }
+        
+        ImportReport report = bulkImportService.importStudents(new StringReader(csv.toString()));
+        
+        ArgumentCaptor<List<Student>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(studentRepository, times(3)).addAll(chunks.capture());
+        assertEquals(BulkImportService.CHUNK_SIZE, chunks.getAllValues().get(0).size());
+        assertEquals(500, chunks.getAllValues().get(2).size());
+        Student last = chunks.getAllValues().get(2).get(499);
+        assertEquals("Student" + (rows - 1), last.getFirstName());
+        assertEquals((rows - 1) % 3 + 1, last.getGroup().getId());
+        assertTrue(report.isSuccessful());
+        assertEquals(rows, report.getRows());
+        assertEquals("students", report.getEntityName());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void importTeachersShouldStoreEmptyLastNameAsNullTest() throws IOException {
+        bulkImportService.importTeachers(new StringReader("Alan,,1\n\nGrace,Hopper,2"));
+        
+        ArgumentCaptor<List<Teacher>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(teacherRepository).addAll(chunk.capture());
+        assertEquals(2, chunk.getValue().size());
+        assertNull(chunk.getValue().get(0).getLastName());
+        assertEquals(2, chunk.getValue().get(1).getFaculty().getId());
+    }
+    
+    @Test
+    void importStudentsShouldStopAtInvalidLineTest() throws IOException {
+        ImportReport report = bulkImportService.importStudents(new StringReader("Ada,Lovelace,1\nAda,Lovelace,one\n"));
+        
+        verify(studentRepository, never()).addAll(anyList());
+        assertFalse(report.isSuccessful());
+        assertEquals(0, report.getRows());
+        assertTrue(report.getFailure().startsWith("Stopped at line 2"));
+    }
+    
+    @Test
+    void importTeachersShouldKeepCountOfCommittedChunksOnFailureTest() throws IOException {
+        doNothing()
+        .doThrow(new DataIntegrityViolationException("faculty_id"))
+        .when(teacherRepository).addAll(anyList());
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < BulkImportService.CHUNK_SIZE + 1; i++) {
+            csv.append("Teacher,").append(i).append(",1\n");
+        }
+        
+        ImportReport report = bulkImportService.importTeachers(new StringReader(csv.toString()));
+        
+        assertEquals(BulkImportService.CHUNK_SIZE, report.getRows());
+        assertEquals("Stopped at line " + (BulkImportService.CHUNK_SIZE + 1) + ": faculty_id", report.getFailure());
+    }
+}
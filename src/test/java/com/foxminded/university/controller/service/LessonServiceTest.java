@@ -3,18 +3,36 @@ package com.foxminded.university.controller.service;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.foxminded.university.controller.cache.ScheduleIndex;
 import com.foxminded.university.controller.repository.ClassroomRepository;
 import com.foxminded.university.controller.repository.CourseRepository;
 import com.foxminded.university.controller.repository.LessonRepository;
 import com.foxminded.university.controller.repository.TimeslotRepository;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Teacher;
 import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.LessonSeries;
+import com.foxminded.university.model.ScheduleConflict;
+import com.foxminded.university.model.Timeslot;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class LessonServiceTest {
@@ -26,6 +44,10 @@ class LessonServiceTest {
     ClassroomRepository classroomRepository;
     @Mock
     CourseRepository courseRepository;
+    @Mock
+    ScheduleConflictChecker scheduleConflictChecker;
+    @Mock
+    ScheduleIndex scheduleIndex;
     
     @InjectMocks
     LessonService lessonService;
@@ -59,4 +81,105 @@ class LessonServiceTest {
         verify(lessonRepository).add(any(Lesson.class));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    void createSeriesShouldSaveEveryWeeklyOccurrenceTogetherTest() {
+        LessonSeries series = new LessonSeries();
+        series.setStartDate(LocalDate.of(2021, 2, 1));
+        series.setEndDate(LocalDate.of(2021, 5, 23));
+        series.setDays(EnumSet.of(DayOfWeek.TUESDAY));
+        series.setTime(new Timeslot());
+        series.setClassroom(new Classroom());
+        series.setCourse(new Course());
+        ArgumentCaptor<List<Lesson>> lessons = ArgumentCaptor.forClass(List.class);
+        
+        lessonService.createSeries(series);
+        
+        verify(lessonRepository).addSeries(Mockito.eq(series), lessons.capture());
+        assertEquals(16, lessons.getValue().size());
+        assertEquals(LocalDate.of(2021, 2, 2), lessons.getValue().get(0).getDate());
+        assertEquals(LocalDate.of(2021, 5, 18), lessons.getValue().get(15).getDate());
+    }
+    
+    @Test
+    void createSeriesShouldNotSaveAnyLessonWhenOneOccurrenceConflictsTest() {
+        LessonSeries series = new LessonSeries();
+        series.setStartDate(LocalDate.of(2021, 9, 1));
+        series.setEndDate(LocalDate.of(2021, 9, 30));
+        series.setDays(EnumSet.of(DayOfWeek.FRIDAY));
+        series.setTime(new Timeslot());
+        series.setClassroom(new Classroom());
+        series.setCourse(new Course());
+        Mockito.when(scheduleConflictChecker.checkAll(any())).thenReturn(Arrays.asList(
+                new ScheduleConflict(ScheduleConflict.Type.CLASSROOM_BUSY, 1, LocalDate.of(2021, 9, 17))));
+        
+        List<ScheduleConflict> conflicts = lessonService.createSeries(series);
+        
+        assertEquals("Classroom is already booked (id = 1) on 2021-09-17", conflicts.get(0).getDescription());
+        verify(lessonRepository, never()).addSeries(Mockito.eq(series), any());
+        Mockito.reset(scheduleConflictChecker);
+    }
+    
+    @Test
+    void createLessonShouldReportSlotTakenByAnotherWriterTest() {
+        Mockito.doThrow(new DataIntegrityViolationException("lessons_lesson_date_timeslot_id_classroom_id_key"))
+               .when(lessonRepository).add(any(Lesson.class));
+        
+        List<ScheduleConflict> actual = lessonService.createLesson("2031-01-31", 3, 1, 1);
+        
+        assertEquals(1, actual.size());
+        assertEquals(ScheduleConflict.Type.SLOT_TAKEN, actual.get(0).getType());
+        assertEquals(3, actual.get(0).getEntityId());
+        verify(scheduleIndex).invalidate();
+        Mockito.reset(lessonRepository, scheduleIndex);
+    }
+    
+    @Test
+    void updateLessonShouldNotCallLessonRepositoryWhenConflictFoundTest() {
+        Lesson lesson = new Lesson();
+        lesson.setDate(LocalDate.of(2020, 1, 31));
+        lesson.setTime(new Timeslot());
+        Mockito.when(scheduleConflictChecker.check(lesson)).thenReturn(
+                Arrays.asList(new ScheduleConflict(ScheduleConflict.Type.CLASSROOM_BUSY, 1)));
+        
+        List<ScheduleConflict> actual = lessonService.updateLesson(lesson);
+        
+        assertEquals(1, actual.size());
+        verify(lessonRepository, never()).update(lesson);
+    }
+    
+    @Test
+    void updateLessonShouldReportLessonChangedWhenStoredVersionMovedOnTest() {
+        Lesson lesson = new Lesson();
+        lesson.setId(5);
+        lesson.setDate(LocalDate.of(2020, 2, 3));
+        lesson.setTime(new Timeslot());
+        Mockito.when(lessonRepository.update(lesson)).thenReturn(0, 1);
+        
+        List<ScheduleConflict> actual = lessonService.updateLesson(lesson);
+        
+        assertEquals(1, actual.size());
+        assertEquals(ScheduleConflict.Type.LESSON_CHANGED, actual.get(0).getType());
+        assertEquals(5, actual.get(0).getEntityId());
+        assertEquals(0, lessonService.updateLesson(lesson).size());
+    }
+    
+    @Test
+    void addAllWithoutConflictsShouldLeaveOutConflictingLessonsTest() {
+        Lesson free = new Lesson();
+        free.setDate(LocalDate.of(2021, 9, 6));
+        free.setTime(new Timeslot());
+        Lesson taken = new Lesson();
+        taken.setDate(LocalDate.of(2021, 9, 7));
+        taken.setTime(new Timeslot());
+        Mockito.when(scheduleConflictChecker.check(taken)).thenReturn(
+                Arrays.asList(new ScheduleConflict(ScheduleConflict.Type.TEACHER_BUSY, 1)));
+        
+        List<Lesson> actual = lessonService.addAllWithoutConflicts(Arrays.asList(free, taken));
+        
+        assertEquals(Arrays.asList(free), actual);
+        verify(lessonRepository).addAll(Arrays.asList(free));
+        Mockito.reset(scheduleConflictChecker);
+    }
+
 }
@@ -0,0 +1,108 @@
+package com.foxminded.university.controller.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.config.logging.StatementLog;
+import com.foxminded.university.controller.cache.EnrolmentStatistics;
+import com.foxminded.university.controller.cache.ScheduleIndex;
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.ScheduleConflict;
+import com.foxminded.university.model.Timeslot;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = WebConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Sql(scripts = "classpath:testDatabase.sql")
+@WebAppConfiguration
+class ScheduleConflictCheckerTest {
+    @Autowired
+    ScheduleConflictChecker scheduleConflictChecker;
+    
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
+    @Autowired
+    EnrolmentStatistics enrolmentStatistics;
+    
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void reloadIndex() {
+        scheduleIndex.reload();
+    }
+    
+    @Test
+    void checkShouldFindTeacherGroupAndClassroomConflictsTest() {
+        Lesson lesson = createLesson(0, LocalDate.of(2020, 6, 18), 1, 2, 1);
+        
+        List<ScheduleConflict.Type> actual = scheduleConflictChecker.check(lesson).stream()
+                                             .map(ScheduleConflict::getType)
+                                             .collect(Collectors.toList());
+        
+        assertTrue(actual.contains(ScheduleConflict.Type.CLASSROOM_BUSY));
+        assertTrue(actual.contains(ScheduleConflict.Type.TEACHER_BUSY));
+        assertTrue(actual.contains(ScheduleConflict.Type.GROUP_BUSY));
+    }
+    
+    @Test
+    void checkShouldIgnoreLessonItselfTest() {
+        Lesson lesson = createLesson(1, LocalDate.of(2020, 6, 18), 1, 1, 1);
+        
+        assertTrue(scheduleConflictChecker.check(lesson).isEmpty());
+    }
+    
+    @Test
+    void checkShouldReturnEmptyListForFreeSlotTest() {
+        Lesson lesson = createLesson(0, LocalDate.of(2020, 6, 19), 5, 2, 2);
+        
+        assertTrue(scheduleConflictChecker.check(lesson).isEmpty());
+    }
+    
+    @Test
+    void checkShouldFindTooSmallClassroomWithoutQueryingDatabaseTest() {
+        jdbcTemplate.update("UPDATE classrooms SET capacity = 1 WHERE classroom_id = 2");
+        scheduleIndex.reload();
+        enrolmentStatistics.getStudentsCount();
+        Lesson lesson = createLesson(0, LocalDate.of(2020, 6, 19), 5, 2, 2);
+        
+        StatementLog.start();
+        List<ScheduleConflict> actual = scheduleConflictChecker.check(lesson);
+        StatementLog statementLog = StatementLog.finish();
+        
+        assertEquals(1, actual.size());
+        assertEquals(ScheduleConflict.Type.CLASSROOM_TOO_SMALL, actual.get(0).getType());
+        assertEquals(0, statementLog.getCount());
+    }
+    
+    private Lesson createLesson(int id, LocalDate date, int timeslotId, int courseId, int classroomId) {
+        Lesson lesson = new Lesson();
+        lesson.setId(id);
+        lesson.setDate(date);
+        lesson.setTime(new Timeslot());
+        lesson.getTime().setId(timeslotId);
+        lesson.setCourse(new Course());
+        lesson.getCourse().setId(courseId);
+        lesson.setClassroom(new Classroom());
+        lesson.getClassroom().setId(classroomId);
+        return lesson;
+    }
+}
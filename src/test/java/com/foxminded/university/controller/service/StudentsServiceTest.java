@@ -1,6 +1,7 @@
 package com.foxminded.university.controller.service;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import org.junit.jupiter.api.BeforeAll;
@@ -41,6 +42,13 @@ class StudentsServiceTest {
         verify(groupRepository).getByStudent(any(Student.class));
     }
 
+    @Test
+    void getGroupOptionsShouldLoadSummariesOnlyTest() {
+        studentsService.getGroupOptions();
+        verify(groupRepository).getSummaries();
+        verify(groupRepository, never()).getAll();
+    }
+
     @Test
     void getGroupByIdShouldCallGroupRepositoryTest() {
         studentsService.getGroupById(333);
@@ -1,14 +1,26 @@
 package com.foxminded.university.controller.service;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.verify;
 
+import com.foxminded.university.controller.repository.BatchLoaders;
 import com.foxminded.university.controller.repository.CourseRepository;
 import com.foxminded.university.controller.repository.TeacherRepository;
 import com.foxminded.university.model.Course;
@@ -20,6 +32,8 @@ class TeachersServiceTest {
     CourseRepository courseRepository;
     @Mock
     TeacherRepository teacherRepository;
+    @Spy
+    BatchLoaders batchLoaders;
     
     @InjectMocks
     TeachersService teachersService;
@@ -47,6 +61,25 @@ class TeachersServiceTest {
         verify(courseRepository).getByTeacher(any(Teacher.class));
     }
 
+    @Test
+    void getAllShouldLoadCoursesOfAllTeachersInOneQueryTest() {
+        Teacher first = new Teacher();
+        first.setId(1);
+        Teacher second = new Teacher();
+        second.setId(2);
+        Course course = new Course();
+        Map<Integer, List<Course>> coursesByTeacher = new HashMap<>();
+        coursesByTeacher.put(1, Arrays.asList(course));
+        Mockito.when(teacherRepository.getAll()).thenReturn(Arrays.asList(first, second));
+        Mockito.when(courseRepository.getByTeachers(anyCollection())).thenReturn(coursesByTeacher);
+        
+        teachersService.getAll();
+        
+        assertEquals(Arrays.asList(course), first.getCourses());
+        assertTrue(second.getCourses().isEmpty());
+        verify(courseRepository).getByTeachers(Arrays.asList(1, 2));
+    }
+
     @Test
     void getCourseShouldCallCourseRepositoryTest() {
         teachersService.getCourse(4444);
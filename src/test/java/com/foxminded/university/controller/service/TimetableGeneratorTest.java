@@ -0,0 +1,103 @@
+package com.foxminded.university.controller.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.ScheduleIndex;
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.TimetablePlan;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = WebConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Sql(scripts = "classpath:testDatabase.sql")
+@Sql(scripts = "classpath:testDatabase.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@WebAppConfiguration
+class TimetableGeneratorTest {
+    @Autowired
+    TimetableGenerator timetableGenerator;
+    
+    @Autowired
+    ScheduleIndex scheduleIndex;
+    
+    @BeforeEach
+    void reloadIndex() {
+        scheduleIndex.reload();
+    }
+    
+    @AfterAll
+    void restoreIndex() {
+        scheduleIndex.reload();
+    }
+    
+    @Test
+    void generateShouldPersistConflictFreeWeekTest() {
+        DateInterval week = new DateInterval(LocalDate.of(2020, 9, 7), LocalDate.of(2020, 9, 13));
+        
+        TimetablePlan plan = timetableGenerator.generate(week, 3, Duration.ofSeconds(1));
+        
+        assertEquals(6, plan.getLessons().size());
+        assertTrue(plan.getUnplacedCourseIds().isEmpty());
+        assertEquals(0, plan.getSkippedLessons());
+        assertEquals(0, plan.getGaps());
+        Set<String> slots = new HashSet<>();
+        for (Lesson lesson : plan.getLessons()) {
+            assertTrue(slots.add(lesson.getDate() + "/" + lesson.getTime().getId()));
+            assertEquals("101A", lesson.getClassroom().getNumber());
+            assertTrue(lesson.getId() > 0);
+        }
+        assertEquals(6, scheduleIndex.getLessonIdsByGroup(1, week).length);
+    }
+    
+    @Test
+    void generateShouldPlaceAroundSlotsTakenByExistingLessonsTest() {
+        DateInterval week = new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21));
+        
+        TimetablePlan plan = timetableGenerator.generate(week, 15, Duration.ofMillis(100));
+        
+        assertEquals(0, plan.getSkippedLessons());
+        assertEquals(28, plan.getLessons().size());
+        assertFalse(plan.getUnplacedCourseIds().isEmpty());
+        assertEquals(30, scheduleIndex.getLessonIdsByGroup(1, week).length);
+    }
+    
+    @Test
+    void generateShouldNotRepeatSlotsOfEarlierRunTest() {
+        DateInterval weeks = new DateInterval(LocalDate.of(2020, 9, 7), LocalDate.of(2020, 9, 20));
+        
+        TimetablePlan first = timetableGenerator.generate(weeks, 3, Duration.ofMillis(100));
+        TimetablePlan second = timetableGenerator.generate(weeks, 3, Duration.ofMillis(100));
+        
+        assertEquals(12, first.getLessons().size());
+        assertEquals(12, second.getLessons().size());
+        assertEquals(0, second.getSkippedLessons());
+        assertEquals(24, scheduleIndex.getLessonIdsByGroup(1, weeks).length);
+    }
+    
+    @Test
+    void generateShouldReportCoursesThatDoNotFitTest() {
+        DateInterval week = new DateInterval(LocalDate.of(2020, 9, 7), LocalDate.of(2020, 9, 13));
+        
+        TimetablePlan plan = timetableGenerator.generate(week, 20, Duration.ZERO);
+        
+        assertEquals(30, plan.getLessons().size());
+        assertFalse(plan.getUnplacedCourseIds().isEmpty());
+    }
+}
@@ -7,16 +7,23 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.verify;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 
+import com.foxminded.university.controller.cache.ChangeTracker;
 import com.foxminded.university.controller.repository.TimetableRepository;
 import com.foxminded.university.controller.util.DateIntervalGenerator;
 import com.foxminded.university.model.Teacher;
 import com.foxminded.university.model.Student;
 import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Group;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timetable;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class TimetableServiceTest {
@@ -56,10 +63,38 @@ class TimetableServiceTest {
         LocalDate end = LocalDate.parse(endDate);
         Mockito.when(dateIntervalGenerator.getFromString(startDate, endDate))
                .thenReturn(new DateInterval(start, end));
+        Mockito.when(timetableRepository.getByGroup(any(Group.class), any(DateInterval.class)))
+               .thenReturn(new Timetable());
         
         timetableService.getStudentTimetable(startDate, endDate, 222);
         verify(dateIntervalGenerator).getFromString(startDate, endDate);
-        verify(timetableRepository).getByStudent(any(Student.class), any(DateInterval.class));
+        verify(timetableRepository).getGroupIdByStudent(any(Student.class));
+    }
+    
+    @Test
+    void getStudentTimetableShouldLoadLessonsOfStudentGroupTest() {
+        String startDate = "2020-06-15";
+        String endDate = "2020-06-21";
+        LocalDate start = LocalDate.parse(startDate);
+        LocalDate end = LocalDate.parse(endDate);
+        Lesson lesson = new Lesson();
+        lesson.setDate(LocalDate.parse("2020-06-18"));
+        Timetable groupTimetable = new Timetable();
+        groupTimetable.setLessons(Arrays.asList(lesson));
+        TimetableRepository timetableRepository = Mockito.mock(TimetableRepository.class);
+        DateIntervalGenerator dateIntervalGenerator = Mockito.mock(DateIntervalGenerator.class);
+        Mockito.when(dateIntervalGenerator.getFromString(startDate, endDate))
+               .thenReturn(new DateInterval(start, end));
+        Mockito.when(timetableRepository.getGroupIdByStudent(any(Student.class))).thenReturn(77);
+        Mockito.when(timetableRepository.getByGroup(any(Group.class), any(DateInterval.class)))
+               .thenReturn(groupTimetable);
+        TimetableService timetableService = new TimetableService(timetableRepository, dateIntervalGenerator,
+                                                                 new ChangeTracker());
+        
+        assertEquals(1, timetableService.getStudentTimetable(startDate, endDate, 1).getLessons().size());
+        verify(timetableRepository).getByGroup(argThat(group -> group.getId() == 77),
+                                               argThat(interval -> interval.getStartDate().equals(start)
+                                                                   && interval.getEndDate().equals(end)));
     }
 
 }
@@ -70,6 +70,18 @@ class DateIntervalGeneratorTest {
                                + actualDateInterval.getEndDate().toString());
     }
     
+    @ParameterizedTest
+    @CsvSource({"2020, 6, 15, '2020-02-01 - 2020-08-31'",
+                "2020, 2, 1, '2020-02-01 - 2020-08-31'",
+                "2020, 9, 1, '2020-09-01 - 2021-01-31'",
+                "2021, 1, 31, '2020-09-01 - 2021-01-31'",
+                "2020, 12, 25, '2020-09-01 - 2021-01-31'"})
+    void getSemesterByDateShouldReturnCorrectIntervalTest(int year, int month, int day, String expected) {
+        DateInterval actualDateInterval = dateIntervalGenerator.getSemesterByDate(LocalDate.of(year, month, day));
+        assertEquals(expected, actualDateInterval.getStartDate().toString() + " - " 
+                               + actualDateInterval.getEndDate().toString());
+    }
+    
     @ParameterizedTest
     @CsvSource({"'1970-11-30', '1970-12-06'",
                 "'2020-07-13', '2020-07-19'",
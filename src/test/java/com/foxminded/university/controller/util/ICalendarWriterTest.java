@@ -0,0 +1,79 @@
+package com.foxminded.university.controller.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.Course;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ICalendarWriterTest {
+    ICalendarWriter iCalendarWriter;
+    
+    @BeforeAll
+    void init() {
+        iCalendarWriter = new ICalendarWriter();
+    }
+    
+    @Test
+    void writeEventShouldUseTimeslotRangeTest() {
+        String actual = write(createLesson("09:00 - 10:30", "Turing machine, theory"));
+        
+        assertTrue(actual.startsWith("BEGIN:VEVENT\r\nUID:lesson-7@university\r\n"));
+        assertTrue(actual.contains("DTSTART:20200618T090000\r\n"));
+        assertTrue(actual.contains("DTEND:20200618T103000\r\n"));
+        assertTrue(actual.contains("SUMMARY:Turing machine\\, theory\r\n"));
+        assertTrue(actual.contains("LOCATION:101A\r\n"));
+        assertTrue(actual.endsWith("END:VEVENT\r\n"));
+    }
+    
+    @Test
+    void writeEventShouldWriteAllDayEventWithoutTimeRangeTest() {
+        String actual = write(createLesson("first lesson", "Turing machine"));
+        
+        assertTrue(actual.contains("DTSTART;VALUE=DATE:20200618\r\n"));
+        assertFalse(actual.contains("DTEND"));
+    }
+    
+    @Test
+    void writeEventShouldFoldLongLinesTest() {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            name.append("course ");
+        }
+        String actual = write(createLesson("09:00 - 10:30", name.toString()));
+        
+        for (String line : actual.split("\r\n")) {
+            assertTrue(line.length() <= 75);
+        }
+        assertTrue(actual.replace("\r\n ", "").contains("SUMMARY:" + name + "\r\n"));
+    }
+    
+    private String write(Lesson lesson) {
+        StringWriter output = new StringWriter();
+        iCalendarWriter.writeEvent(new PrintWriter(output), lesson);
+        return output.toString();
+    }
+    
+    private Lesson createLesson(String timeslotDescription, String courseName) {
+        Lesson lesson = new Lesson();
+        lesson.setId(7);
+        lesson.setDate(LocalDate.of(2020, 6, 18));
+        lesson.setTime(new Timeslot());
+        lesson.getTime().setDescription(timeslotDescription);
+        lesson.setCourse(new Course());
+        lesson.getCourse().setName(courseName);
+        lesson.setClassroom(new Classroom());
+        lesson.getClassroom().setNumber("101A");
+        return lesson;
+    }
+}
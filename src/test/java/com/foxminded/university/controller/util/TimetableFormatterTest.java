@@ -0,0 +1,93 @@
+package com.foxminded.university.controller.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.Lesson;
+import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.Timetable;
+import com.foxminded.university.model.TimetableGrid;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TimetableFormatterTest {
+    TimetableFormatter timetableFormatter;
+    List<Timeslot> timeslots;
+    
+    @BeforeAll
+    void init() {
+        timetableFormatter = new TimetableFormatter();
+        timeslots = Arrays.asList(createTimeslot(7), createTimeslot(3), createTimeslot(5));
+    }
+    
+    @Test
+    void generateFormattedTableShouldPlaceLessonsByDateAndTimeslotTest() {
+        Lesson first = createLesson(1, LocalDate.of(2020, 6, 15), 3);
+        Lesson second = createLesson(2, LocalDate.of(2020, 6, 21), 5);
+        
+        TimetableGrid actual = timetableFormatter.generateFormattedTable(
+                createTimetable(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21), first, second), timeslots);
+        
+        assertEquals(7, actual.getDaysCount());
+        assertEquals(3, actual.getColumnsCount());
+        assertSame(first, actual.get(LocalDate.of(2020, 6, 15), 1));
+        assertSame(second, actual.get(LocalDate.of(2020, 6, 21), 2));
+        assertNull(actual.get(LocalDate.of(2020, 6, 15), 0));
+        assertEquals(Arrays.asList(null, first, null), actual.getRows().get(0).getLessons());
+    }
+    
+    @Test
+    void generateFormattedTableShouldSkipLessonsOutsideOfGridTest() {
+        Lesson outsideInterval = createLesson(1, LocalDate.of(2020, 6, 22), 3);
+        Lesson unknownTimeslot = createLesson(2, LocalDate.of(2020, 6, 16), 4);
+        
+        TimetableGrid actual = timetableFormatter.generateFormattedTable(
+                createTimetable(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21), outsideInterval, unknownTimeslot),
+                timeslots);
+        
+        assertTrue(actual.getRows().stream().allMatch(row -> row.getLessons().stream().allMatch(lesson -> lesson == null)));
+    }
+    
+    @Test
+    void getRowsShouldReturnWeekOfMonthGridTest() {
+        Lesson lesson = createLesson(1, LocalDate.of(2020, 6, 18), 7);
+        
+        TimetableGrid month = timetableFormatter.generateFormattedTable(
+                createTimetable(LocalDate.of(2020, 6, 1), LocalDate.of(2020, 6, 30), lesson), timeslots);
+        List<TimetableGrid.Row> actual = month.getRows(
+                new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21)));
+        
+        assertEquals(30, month.getRows().size());
+        assertEquals(7, actual.size());
+        assertEquals(LocalDate.of(2020, 6, 15), actual.get(0).getDate());
+        assertSame(lesson, actual.get(3).getLessons().get(0));
+    }
+    
+    private Timetable createTimetable(LocalDate startDate, LocalDate endDate, Lesson... lessons) {
+        Timetable timetable = new Timetable();
+        timetable.setDateInterval(new DateInterval(startDate, endDate));
+        timetable.setLessons(Arrays.asList(lessons));
+        return timetable;
+    }
+    
+    private Lesson createLesson(int id, LocalDate date, int timeslotId) {
+        Lesson lesson = new Lesson();
+        lesson.setId(id);
+        lesson.setDate(date);
+        lesson.setTime(createTimeslot(timeslotId));
+        return lesson;
+    }
+    
+    private Timeslot createTimeslot(int id) {
+        Timeslot timeslot = new Timeslot();
+        timeslot.setId(id);
+        return timeslot;
+    }
+}
@@ -5,11 +5,12 @@ import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 
-import java.util.Arrays;
+import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -30,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockServletContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
@@ -40,9 +42,14 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.foxminded.university.config.MaxQueries;
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.service.AdminDashboardQuery;
 import com.foxminded.university.controller.service.AdministrativeService;
+import com.foxminded.university.controller.service.BulkImportService;
+import com.foxminded.university.model.AdminDashboard;
 import com.foxminded.university.model.Faculty;
 import com.foxminded.university.model.Teacher;
 import com.foxminded.university.model.Group;
@@ -57,21 +64,33 @@ class AdministrativeControllerTest {
     @Autowired
     private WebApplicationContext wac;
     
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    
     private MockMvc mockMvc;
     
     @Mock
     AdministrativeService administrativeService;
     
+    @Mock
+    AdminDashboardQuery adminDashboardQuery;
+    
+    @Mock
+    BulkImportService bulkImportService;
+    
     @Mock
     Model model;
     
+    @Mock
+    RedirectAttributes redirectAttributes;
+    
     AdministrativeController administrativeController;
 
     @BeforeAll
     void init() {
         MockitoAnnotations.initMocks(this);
         this.mockMvc = MockMvcBuilders.webAppContextSetup(this.wac).build();
-        administrativeController = new AdministrativeController(administrativeService);   
+        administrativeController = new AdministrativeController(administrativeService, adminDashboardQuery, bulkImportService);   
     }
      
     @Order(1)
@@ -98,18 +117,26 @@ class AdministrativeControllerTest {
                     .andExpect(model().attributeExists("groups"))
                     .andExpect(model().attributeExists("teachers"));
 
-        Faculty faculty = new Faculty();
-        faculty.setId(1);
-        Mockito.when(administrativeService.getAllFaculties()).thenReturn(Arrays.asList(faculty));
+        Mockito.when(adminDashboardQuery.load()).thenReturn(new AdminDashboard(Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList()));
         
         administrativeController.getInfo(model);
 
         verify(model).addAttribute(anyString(), any(Faculty.class));
         verify(model).addAttribute(anyString(), any(Teacher.class));
         verify(model).addAttribute(anyString(), any(Group.class));
-        verify(administrativeService).getAllFaculties();
-        verify(administrativeService).getGroupsByFaculty(anyInt());
-        verify(administrativeService).getTeachersByFaculty(anyInt());    
+        verify(adminDashboardQuery).load();
+    }
+
+    @MaxQueries(3)
+    @Test
+    void getInfoShouldLoadFacultyListsInConstantNumberOfQueriesTest() throws Exception {
+        jdbcTemplate.update("INSERT INTO groups (group_name, faculty_id) VALUES ('ba-20', 2), ('ba-21', 2)");
+        jdbcTemplate.update("INSERT INTO teachers (first_name, last_name, faculty_id) VALUES ('Anna', 'Pavlova', 2)");
+        this.mockMvc.perform(get("/admin"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("groups", Matchers.iterableWithSize(3)))
+                    .andExpect(model().attribute("teachers", Matchers.iterableWithSize(2)));
     }
 
     @Order(3)
@@ -222,7 +249,7 @@ class AdministrativeControllerTest {
         
         administrativeController.getTeacherById("1", model);
         verify(administrativeService).getTeacherById(anyInt());
-        verify(administrativeService, times(2)).getAllFaculties();    
+        verify(administrativeService).getAllFaculties();    
     }
 
     @Order(10)
@@ -291,7 +318,7 @@ class AdministrativeControllerTest {
         
         administrativeController.getGroupById("1", model);
         verify(administrativeService).getGroupById(anyInt());
-        verify(administrativeService, times(3)).getAllFaculties();   
+        verify(administrativeService, times(2)).getAllFaculties();   
     }
 
     @Order(14)
@@ -304,7 +331,32 @@ class AdministrativeControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/admin"));
         
-        administrativeController.updateGroup(new Group(), model);
+        administrativeController.updateGroup(new Group(), redirectAttributes);
         verify(administrativeService).updateGroup(any(Group.class));    
     }
+
+    @Test
+    void importStudentsShouldInsertRowsAndReportRateTest() throws Exception {
+        this.mockMvc.perform(post("/admin/import/students")
+                    .contentType("text/csv")
+                    .content("first_name,last_name,group_id\nAda,Lovelace,1\nGrace,Hopper,1\nC3PO,,1\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(Matchers.startsWith("Imported 3 students in ")))
+                    .andExpect(content().string(Matchers.containsString("rows/s")));
+        
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM students WHERE first_name = 'C3PO' AND last_name IS NULL", Integer.class));
+    }
+    
+    @Test
+    void importTeachersShouldReportBadRequestOnInvalidLineTest() throws Exception {
+        this.mockMvc.perform(post("/admin/import/teachers")
+                    .contentType("text/csv")
+                    .content("Ada,Lovelace,1\nGrace Hopper\n"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(Matchers.containsString("Stopped at line 2")));
+        
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM teachers", Integer.class));
+    }
 }
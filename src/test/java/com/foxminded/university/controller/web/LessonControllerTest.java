@@ -2,6 +2,7 @@ package com.foxminded.university.controller.web;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
@@ -12,6 +13,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import javax.servlet.ServletContext;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeAll;
@@ -36,8 +43,12 @@ import org.springframework.web.context.WebApplicationContext;
 
 import com.foxminded.university.config.WebConfig;
 import com.foxminded.university.controller.service.LessonService;
+import com.foxminded.university.controller.service.TimetableGenerator;
 import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.DateInterval;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Timeslot;
+import com.foxminded.university.model.TimetablePlan;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = WebConfig.class)
@@ -57,6 +68,9 @@ class LessonControllerTest {
     @Mock
     LessonService lessonService;
     
+    @Mock
+    TimetableGenerator timetableGenerator;
+    
     LessonController lessonController;
     
     
@@ -64,7 +78,7 @@ class LessonControllerTest {
     void init() {
         MockitoAnnotations.initMocks(this);
         this.mockMvc = MockMvcBuilders.webAppContextSetup(this.wac).build();
-        this.lessonController = new LessonController(lessonService);
+        this.lessonController = new LessonController(lessonService, timetableGenerator);
     }
     
     @Order(1)
@@ -82,15 +96,18 @@ class LessonControllerTest {
         this.mockMvc.perform(get("/lesson"))
                     .andExpect(view().name("lesson"))
                     .andExpect(status().isOk())
-                    .andExpect(model().size(4))
+                    .andExpect(model().size(5))
+                    .andExpect(model().attributeExists("page"))
                     .andExpect(model().attributeExists("classrooms"))
                     .andExpect(model().attributeExists("classroom"))
                     .andExpect(model().attributeExists("timeslots"))
                     .andExpect(model().attributeExists("timeslot"));
         
-        lessonController.lessonsInfo(model);
-        verify(lessonService).getAllClassrooms();
-        verify(lessonService).getAllTimeslots();
+        when(lessonService.getClassroomPage(null))
+               .thenReturn(new KeysetPage<>(Collections.emptyList(), null, null));
+        lessonController.lessonsInfo(null, model);
+        verify(lessonService).getClassroomPage(null);
+        verify(lessonService).getTimeslotViews();
     }
 
     @Order(3)
@@ -197,4 +214,42 @@ class LessonControllerTest {
         lessonController.deleteTimeslot("10", model);
         verify(lessonService).deleteTimeslot(10);
     }
+
+    @Test
+    void generateTimetableShouldRedirectWithSummaryTest() throws Exception {
+        this.mockMvc.perform(post("/lesson/generate")
+                    .param("startDate", "wrong date")
+                    .param("endDate", "2020-09-11"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/lesson"));
+        
+        TimetablePlan plan = new TimetablePlan(new ArrayList<>(), Arrays.asList(2), 1, 0, 1000);
+        when(timetableGenerator.generate(any(DateInterval.class), eq(2), eq(Duration.ofSeconds(5)))).thenReturn(plan);
+        
+        String actual = lessonController.generateTimetable("2020-09-07", "2020-09-11", 2, 5, model);
+        assertEquals("redirect:/lesson?generated=0&unplaced=1&skipped=1", actual);
+    }
+    
+    @Test
+    void generateTimetableShouldRejectReversedAndOverlongRangesTest() throws Exception {
+        this.mockMvc.perform(post("/lesson/generate")
+                    .param("startDate", "2020-09-11")
+                    .param("endDate", "2020-09-07"))
+                    .andExpect(status().isBadRequest());
+        
+        this.mockMvc.perform(post("/lesson/generate")
+                    .param("startDate", "2020-09-07")
+                    .param("endDate", "2040-09-07"))
+                    .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void generateTimetableShouldClampBudgetAndLessonsPerWeekTest() {
+        TimetablePlan plan = new TimetablePlan(new ArrayList<>(), new ArrayList<>(), 0, 0, 0);
+        when(timetableGenerator.generate(any(DateInterval.class), eq(30), eq(Duration.ofSeconds(30)))).thenReturn(plan);
+        
+        String actual = lessonController.generateTimetable("2020-09-07", "2020-09-11", 1000, 86400, model);
+        
+        assertEquals("redirect:/lesson?generated=0&unplaced=0&skipped=0", actual);
+    }
 }
@@ -0,0 +1,64 @@
+package com.foxminded.university.controller.web;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.foxminded.university.config.MaxQueries;
+import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.cache.EnrolmentStatistics;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = WebConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Sql(scripts = "classpath:testDatabase.sql")
+@WebAppConfiguration
+class StudentsControllerQueriesTest {
+    @Autowired
+    private WebApplicationContext wac;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EnrolmentStatistics enrolmentStatistics;
+
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    void init() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.wac).build();
+    }
+
+    @BeforeEach
+    void addRosterAndWarmUpStatistics() {
+        jdbcTemplate.update("INSERT INTO groups (group_name, faculty_id) VALUES ('cs-21', 1), ('cs-22', 1)");
+        jdbcTemplate.update("INSERT INTO students (first_name, last_name, group_id) "
+                          + "SELECT 'Ada', 'Lovelace', group_id FROM groups WHERE group_name <> 'cs-20'");
+        enrolmentStatistics.getStudentsCount();
+    }
+
+    @MaxQueries(2)
+    @Test
+    void studentsInfoShouldLoadRosterInTwoQueriesTest() throws Exception {
+        this.mockMvc.perform(get("/student"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("groupsCount", 3))
+                    .andExpect(model().attribute("studentsCount", 4));
+    }
+}
@@ -4,11 +4,17 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import javax.servlet.ServletContext;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -24,21 +30,30 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockServletContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.ui.Model;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.WebRequest;
 
+import com.foxminded.university.config.MaxQueries;
 import com.foxminded.university.config.WebConfig;
 import com.foxminded.university.controller.service.StudentsService;
+import com.foxminded.university.model.ContentVersion;
 import com.foxminded.university.model.Group;
+import com.foxminded.university.model.GroupSummary;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Student;
 
 @ExtendWith(SpringExtension.class)
@@ -53,6 +68,9 @@ class StudentsControllerTest {
     @Autowired
     private WebApplicationContext wac;
     
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    
     private MockMvc mockMvc;
     
     @Mock
@@ -61,6 +79,9 @@ class StudentsControllerTest {
     @Mock
     StudentsService studentsService;
     
+    @Mock
+    WebRequest webRequest;
+    
     StudentsController studentsController;
 
     @BeforeAll
@@ -86,14 +107,51 @@ class StudentsControllerTest {
         this.mockMvc.perform(get("/student"))
                     .andExpect(view().name("student"))
                     .andExpect(status().isOk())
-                    .andExpect(model().size(4))
+                    .andExpect(model().size(6))
+                    .andExpect(model().attributeExists("page"))
+                    .andExpect(model().attributeExists("groupOptions"))
                     .andExpect(model().attributeExists("groups"))
                     .andExpect(model().attributeExists("student"))
                     .andExpect(model().attributeExists("groupsCount"))
                     .andExpect(model().attributeExists("studentsCount"));
         
-        studentsController.studentsInfo(model);
-        verify(studentsService).getAllGroups();
+        Mockito.when(studentsService.getGroupsVersion()).thenReturn(new ContentVersion("groups", 0));
+        Mockito.when(studentsService.getStudentPage(null))
+               .thenReturn(new KeysetPage<>(Collections.emptyList(), null, null));
+        studentsController.studentsInfo(null, webRequest, model);
+        verify(studentsService).getStudentPage(null);
+        verify(studentsService).getGroupOptions();
+    }
+
+    @Test
+    void studentsInfoShouldReturnNotModifiedUntilStudentsChangeTest() throws Exception {
+        String tag = this.mockMvc.perform(get("/student"))
+                         .andExpect(status().isOk())
+                         .andReturn().getResponse().getHeader("ETag");
+        
+        this.mockMvc.perform(get("/student").header("If-None-Match", tag))
+                    .andExpect(status().isNotModified());
+        
+        this.mockMvc.perform(post("/student/editstudent")
+                    .param("id", "1")
+                    .param("firstName", "John")
+                    .param("lastName", "Smith")
+                    .param("group.id", "1"));
+        this.mockMvc.perform(get("/student").header("If-None-Match", tag))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("student"));
+    }
+
+    @Test
+    void searchStudentsShouldMatchPrefixesAndTyposTest() throws Exception {
+        this.mockMvc.perform(get("/student/search").param("q", "jhon smi"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(Matchers.containsString("\"lastName\":\"Smith\"")));
+        
+        this.mockMvc.perform(get("/student/search").param("q", "zzzz"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("[]"));
     }
 
     @Order(3)
@@ -134,6 +192,21 @@ class StudentsControllerTest {
         verify(studentsService).getStudent(1);
     }
 
+    @MaxQueries(2)
+    @Test
+    void getStudentShouldListGroupsWithoutTheirStudentsTest() throws Exception {
+        jdbcTemplate.update("INSERT INTO groups (group_name) VALUES ('cs-21')");
+        MvcResult result = this.mockMvc.perform(get("/student/editstudent")
+                                       .param("id", "1"))
+                                       .andExpect(status().isOk())
+                                       .andReturn();
+        
+        List<?> groups = (List<?>) result.getModelAndView().getModel().get("groups");
+        assertEquals(Arrays.asList("cs-20", "cs-21"), groups.stream()
+                     .map(group -> ((GroupSummary) group).getGroupName())
+                     .collect(Collectors.toList()));
+    }
+
     @Order(5)
     @Test
     void updateStudentTest() throws Exception {
@@ -4,19 +4,21 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import javax.servlet.ServletContext;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.times;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeAll;
@@ -31,6 +33,7 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockServletContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
@@ -41,11 +44,16 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.foxminded.university.config.MaxQueries;
 import com.foxminded.university.config.WebConfig;
 import com.foxminded.university.controller.service.TeachersService;
+import com.foxminded.university.model.ContentVersion;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.Group;
+import com.foxminded.university.model.KeysetPage;
 import com.foxminded.university.model.Teacher;
 
 @ExtendWith(SpringExtension.class)
@@ -68,9 +76,15 @@ class TeachersControllerTest {
     @Mock
     Model model;
     
+    @Mock
+    RedirectAttributes redirectAttributes;
+    
     @Mock
     TeachersService teachersService;
     
+    @Mock
+    WebRequest webRequest;
+    
     TeachersController teachersController;
 
     @BeforeAll
@@ -96,14 +110,63 @@ class TeachersControllerTest {
         this.mockMvc.perform(get("/teacher"))
                     .andExpect(view().name("teacher"))
                     .andExpect(status().isOk())
-                    .andExpect(model().size(3))
+                    .andExpect(model().size(5))
                     .andExpect(model().attributeExists("groups"))
                     .andExpect(model().attributeExists("teachers"))
+                    .andExpect(model().attributeExists("teacherOptions"))
+                    .andExpect(model().attributeExists("page"))
                     .andExpect(model().attributeExists("course"));
         
-        teachersController.teachersInfo(model);
-        verify(teachersService).getAllGroups();
-        verify(teachersService).getAll();
+        Mockito.when(teachersService.getTeachersVersion()).thenReturn(new ContentVersion("teachers", 0));
+        Mockito.when(teachersService.getTeacherPage("1"))
+               .thenReturn(new KeysetPage<>(Collections.emptyList(), "1", null));
+        teachersController.teachersInfo("1", webRequest, model);
+        verify(teachersService).getGroupViews();
+        verify(teachersService).getTeacherPage("1");
+    }
+
+    @MaxQueries(4)
+    @Test
+    void teachersInfoShouldLoadCoursesInConstantNumberOfQueriesTest() throws Exception {
+        jdbcTemplate.update("INSERT INTO teachers (first_name, last_name, faculty_id) "
+                          + "VALUES ('Ada', 'Lovelace', 1), ('Grace', 'Hopper', 1)");
+        jdbcTemplate.update("INSERT INTO courses (course_name, course_description, teacher_id) "
+                          + "SELECT 'Compilers', 'Compilers', teacher_id FROM teachers WHERE teacher_id > 1");
+        jdbcTemplate.update("INSERT INTO groups (group_name, faculty_id) VALUES ('cs-21', 1)");
+        this.mockMvc.perform(get("/teacher"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("teachers", Matchers.everyItem(
+                            Matchers.hasProperty("courses", Matchers.not(Matchers.empty())))));
+    }
+
+    @Test
+    void searchTeachersShouldMatchPrefixesAndTyposTest() throws Exception {
+        this.mockMvc.perform(get("/teacher/search").param("q", "alan turnig"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(Matchers.containsString("\"lastName\":\"Turing\"")));
+        
+        this.mockMvc.perform(get("/teacher/search").param("q", "zzzz"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("[]"));
+    }
+
+    @Test
+    void teachersInfoShouldReturnNotModifiedUntilCoursesChangeTest() throws Exception {
+        String tag = this.mockMvc.perform(get("/teacher"))
+                         .andExpect(status().isOk())
+                         .andReturn().getResponse().getHeader("ETag");
+        
+        this.mockMvc.perform(get("/teacher").header("If-None-Match", tag))
+                    .andExpect(status().isNotModified());
+        
+        this.mockMvc.perform(post("/addcourse")
+                    .param("name", "TC")
+                    .param("description", "Test course")
+                    .param("teacher.id", "1"));
+        this.mockMvc.perform(get("/teacher").header("If-None-Match", tag))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("teacher"));
     }
 
     @Order(3)
@@ -154,7 +217,7 @@ class TeachersControllerTest {
         
         teachersController.getCourse("1", model);
         verify(teachersService).getCourse(1);
-        verify(teachersService, times(2)).getAll();
+        verify(teachersService).getAll();
     }
 
     @Order(6)
@@ -168,10 +231,23 @@ class TeachersControllerTest {
                     .andExpect(status().is3xxRedirection())
                     .andExpect(redirectedUrl("/teacher"));
         
-        teachersController.updateCourse(new Course(), model);
+        teachersController.updateCourse(new Course(), redirectAttributes);
         verify(teachersService).updateCourse(any(Course.class));
     }
 
+    @Test
+    void updateCourseShouldFlashConflictForStaleVersionTest() throws Exception {
+        this.mockMvc.perform(post("/teacher/editcourse")
+                    .param("id", "1")
+                    .param("version", "7")
+                    .param("name", "TC")
+                    .param("description", "Test course")
+                    .param("teacher.id", "1"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/teacher"))
+                    .andExpect(flash().attributeExists("conflict"));
+    }
+
     @Order(7)
     @Test
     void deleteGroupsCourseTest() throws Exception {
@@ -183,7 +259,7 @@ class TeachersControllerTest {
                     .andExpect(model().size(0));
         
         teachersController.deleteGroupsCourse(10, 10, model);
-        verify(teachersService).deleteGroupsCourse(10, 10);
+        verify(teachersService).unassignCourses(Collections.singletonList(10), Collections.singletonList(10));
     }
 
     @Order(8)
@@ -222,6 +298,6 @@ class TeachersControllerTest {
         course.setId(1);
         group.setCourses(Arrays.asList(course));
         teachersController.assignGroupsCourse(group, model);
-        verify(teachersService).assignGroupsCourse(anyInt(), anyInt());
+        verify(teachersService).assignCourses(Collections.singletonList(1), Collections.singletonList(1));
     }
 }
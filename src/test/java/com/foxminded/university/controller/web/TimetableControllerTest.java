@@ -5,6 +5,9 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -39,15 +42,21 @@ import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.ui.Model;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.foxminded.university.config.WebConfig;
+import com.foxminded.university.controller.repository.ClassroomRepository;
 import com.foxminded.university.controller.service.LessonService;
 import com.foxminded.university.controller.service.TimetableService;
+import com.foxminded.university.controller.util.ICalendarWriter;
 import com.foxminded.university.controller.util.TimetableFormatter;
 import com.foxminded.university.model.Classroom;
+import com.foxminded.university.model.ContentVersion;
 import com.foxminded.university.model.Course;
 import com.foxminded.university.model.DateInterval;
 import com.foxminded.university.model.Lesson;
@@ -67,6 +76,9 @@ class TimetableControllerTest {
     @Autowired
     private WebApplicationContext wac;
     
+    @Autowired
+    ClassroomRepository classroomRepository;
+    
     private MockMvc mockMvc;
     
     
@@ -83,6 +95,15 @@ class TimetableControllerTest {
     @Mock
     TimetableFormatter timetableFormatter;
     
+    @Mock
+    ICalendarWriter iCalendarWriter;
+    
+    @Mock
+    WebRequest webRequest;
+    
+    @Mock
+    RedirectAttributes redirectAttributes;
+    
     
     TimetableController timetableController;
     
@@ -91,7 +112,7 @@ class TimetableControllerTest {
         MockitoAnnotations.initMocks(this);
         this.mockMvc = MockMvcBuilders.webAppContextSetup(this.wac).build();
         this.timetableController = new TimetableController(timetableService,
-                                            lessonService, timetableFormatter);
+                                            lessonService, timetableFormatter, iCalendarWriter);
     }
     
     @Order(1)
@@ -116,11 +137,15 @@ class TimetableControllerTest {
                     .andExpect(model().attributeExists("timeslots"))
                     .andExpect(model().attributeExists("timemap"));
         
+        Mockito.when(timetableService.getViewInterval(anyString(), anyString()))
+               .thenReturn(new DateInterval(LocalDate.of(2020, 6, 15), LocalDate.of(2020, 6, 21)));
         Mockito.when(timetableService.getStudentTimetable(anyString(), anyString(), anyInt()))
                .thenReturn(new Timetable());
         Mockito.when(lessonService.getAllTimeslots()).thenReturn(Arrays.asList(new Timeslot()));
         
-        timetableController.timetableInfo(model);
+        Mockito.when(timetableService.getStudentTimetableVersion(anyInt(), any(DateInterval.class)))
+               .thenReturn(new ContentVersion("s1", 0));
+        timetableController.timetableInfo("week", "2020-06-15", webRequest, model);
         verify(timetableService).getStudentTimetable(anyString(), anyString(), anyInt());
         verify(lessonService).getAllTimeslots();
         verify(timetableFormatter).generateFormattedTable(any(Timetable.class), anyList());
@@ -147,12 +172,98 @@ class TimetableControllerTest {
                .thenReturn(timetable);
         Mockito.when(lessonService.getAllTimeslots()).thenReturn(Arrays.asList(new Timeslot()));
     
-        timetableController.getTimetableByTeacher(model);
+        Mockito.when(timetableService.getTeacherTimetableVersion(anyInt(), any(DateInterval.class)))
+               .thenReturn(new ContentVersion("t1", 0));
+        timetableController.getTimetableByTeacher("week", "2020-06-15", webRequest, model);
         verify(timetableService).getTeacherTimetable(anyString(), anyString(), anyInt());
         verify(lessonService, times(2)).getAllTimeslots();
         verify(timetableFormatter, times(2)).generateFormattedTable(any(Timetable.class), anyList());
     }
 
+    @Test
+    void getTimetableByTeacherShouldRenderMonthViewTest() throws Exception {
+        this.mockMvc.perform(get("/teacherstimetable")
+                    .param("view", "month"))
+                    .andExpect(view().name("teacherstimetable"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("dateInterval", 
+                            Matchers.hasProperty("endDate", Matchers.equalTo(LocalDate.of(2020, 6, 30)))))
+                    .andExpect(model().attribute("timemap", 
+                            Matchers.hasProperty("daysCount", Matchers.equalTo(30))));
+    }
+
+    @Test
+    void timetableInfoShouldReturnNotModifiedUntilTimetableChangesTest() throws Exception {
+        MvcResult first = this.mockMvc.perform(get("/timetable"))
+                              .andExpect(status().isOk())
+                              .andExpect(header().string("Cache-Control", "no-cache"))
+                              .andExpect(header().exists("Last-Modified"))
+                              .andReturn();
+        String tag = first.getResponse().getHeader("ETag");
+        
+        this.mockMvc.perform(get("/timetable").header("If-None-Match", tag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        
+        classroomRepository.update(classroomRepository.getById(1));
+        this.mockMvc.perform(get("/timetable").header("If-None-Match", tag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", Matchers.not(tag)));
+    }
+
+    @Test
+    void getTimetableByTeacherShouldUseTagPerViewTest() throws Exception {
+        String weekTag = this.mockMvc.perform(get("/teacherstimetable"))
+                             .andReturn().getResponse().getHeader("ETag");
+        
+        this.mockMvc.perform(get("/teacherstimetable").param("view", "month").header("If-None-Match", weekTag))
+                    .andExpect(status().isOk());
+        this.mockMvc.perform(get("/teacherstimetable").header("If-None-Match", weekTag))
+                    .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getTimetableByFacultyShouldRenderGridPerGroupTest() throws Exception {
+        this.mockMvc.perform(get("/facultytimetable")
+                    .param("id", "1"))
+                    .andExpect(view().name("facultytimetable"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("facultyId", 1))
+                    .andExpect(model().attribute("groupTimetables", Matchers.hasKey(
+                            Matchers.hasProperty("groupName", Matchers.equalTo("cs-20")))))
+                    .andExpect(content().string(Matchers.containsString("cs-20")))
+                    .andExpect(content().string(Matchers.containsString("Turing machine")));
+    }
+
+    @Test
+    void getStudentCalendarShouldReturnNotModifiedForSameTagTest() throws Exception {
+        String tag = this.mockMvc.perform(get("/timetable/student/1.ics"))
+                         .andExpect(status().isOk())
+                         .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                         .andExpect(content().string(Matchers.startsWith("BEGIN:VCALENDAR\r\n")))
+                         .andExpect(content().string(Matchers.endsWith("END:VCALENDAR\r\n")))
+                         .andReturn().getResponse().getHeader("ETag");
+        
+        assertNotNull(tag);
+        this.mockMvc.perform(get("/timetable/student/1.ics").header("If-None-Match", tag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+    }
+    
+    @Test
+    void getStudentCalendarShouldReturnNotFoundForUnknownStudentTest() throws Exception {
+        this.mockMvc.perform(get("/timetable/student/999.ics"))
+                    .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void getTeacherCalendarShouldReturnCalendarWithTagTest() throws Exception {
+        this.mockMvc.perform(get("/timetable/teacher/1.ics"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("ETag"))
+                    .andExpect(content().string(Matchers.containsString("X-WR-CALNAME:Teacher 1")));
+    }
+
     @Order(4)
     @Test
     void createNewLessonTest() throws Exception {
@@ -198,10 +309,39 @@ class TimetableControllerTest {
         lesson.setCourse(course);
         lesson.setTime(timeslot);
         
-        timetableController.saveNewLesson(lesson, model);
+        timetableController.saveNewLesson(lesson, redirectAttributes);
         verify(lessonService).createLesson(anyString(), anyInt(), anyInt(), anyInt());
     }
 
+    @Test
+    void saveNewLessonShouldFlashConflictsWithoutPuttingThemInUrlTest() throws Exception {
+        this.mockMvc.perform(post("/timetable/addlesson")
+                    .param("date", "2020-06-18")
+                    .param("time.id", "1")
+                    .param("course.id", "2")
+                    .param("classroom.id", "1"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/teacherstimetable"))
+                    .andExpect(flash().attribute("conflictMessage", "Lesson was not saved"))
+                    .andExpect(flash().attribute("conflicts", Matchers.hasItem("Classroom is already booked (id = 1)")));
+    }
+    
+    @Test
+    void getTimetableByTeacherShouldListFlashedConflictsTest() throws Exception {
+        String tag = this.mockMvc.perform(get("/teacherstimetable"))
+                         .andExpect(status().isOk())
+                         .andReturn().getResponse().getHeader("ETag");
+        
+        this.mockMvc.perform(get("/teacherstimetable")
+                    .header("If-None-Match", tag)
+                    .flashAttr("conflictMessage", "Lesson series was not saved")
+                    .flashAttr("conflicts", Arrays.asList("Classroom is already booked (id = 1) on 2021-02-01")))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(Matchers.containsString("Lesson series was not saved:")))
+                    .andExpect(content().string(Matchers.containsString(
+                            "<li>Classroom is already booked (id = 1) on 2021-02-01</li>")));
+    }
+
     @Order(6)
     @Test
     void getLessonInfoTest() throws Exception {
@@ -236,7 +376,7 @@ class TimetableControllerTest {
                     .andExpect(status().is3xxRedirection())
                     .andExpect(redirectedUrl("/teacherstimetable"));
         
-        timetableController.updateLesson(new Lesson(), model);
+        timetableController.updateLesson(new Lesson(), redirectAttributes);
         verify(lessonService).updateLesson(any(Lesson.class));
     }
 
@@ -251,4 +391,46 @@ class TimetableControllerTest {
         timetableController.deleteLesson(10);
         verify(lessonService).deleteLesson(10);
     }
+    
+    @Test
+    void lessonSeriesShouldBeCreatedMovedAndDeletedAsAWholeTest() throws Exception {
+        this.mockMvc.perform(post("/timetable/addseries")
+                    .param("startDate", "2021-02-01")
+                    .param("endDate", "2021-05-23")
+                    .param("days", "MONDAY", "WEDNESDAY")
+                    .param("time.id", "3")
+                    .param("course.id", "1")
+                    .param("classroom.id", "1"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/teacherstimetable"));
+        assertEquals(32, countSeriesLessons("timeslot_id = 3 AND classroom_id = 1"));
+        int seriesId = jdbcTemplate.queryForObject("SELECT MAX(series_id) FROM lesson_series", Integer.class);
+        int lessonId = jdbcTemplate.queryForObject("SELECT MIN(lesson_id) FROM lessons WHERE series_id = ?", 
+                                                   Integer.class, seriesId);
+        
+        this.mockMvc.perform(get("/timetable/editlesson")
+                    .param("id", String.valueOf(lessonId))
+                    .param("tid", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(Matchers.containsString("deleteseries?id=" + seriesId)));
+        
+        this.mockMvc.perform(post("/timetable/editseries")
+                    .param("id", String.valueOf(seriesId))
+                    .param("time.id", "4")
+                    .param("course.id", "1")
+                    .param("classroom.id", "2"))
+                    .andExpect(status().is3xxRedirection());
+        assertEquals(32, countSeriesLessons("timeslot_id = 4 AND classroom_id = 2"));
+        
+        this.mockMvc.perform(get("/deleteseries")
+                    .param("id", String.valueOf(seriesId)))
+                    .andExpect(status().is3xxRedirection());
+        assertEquals(0, countSeriesLessons("TRUE"));
+        assertEquals(2, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lessons", Integer.class));
+    }
+    
+    private int countSeriesLessons(String condition) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lessons WHERE series_id IS NOT NULL AND " 
+                                           + condition, Integer.class);
+    }
 }
@@ -1,56 +1,26 @@
-DROP ALL OBJECTS;
-
-CREATE TABLE faculties(
-faculty_id SERIAL PRIMARY KEY,
-faculty_short_name text,
-faculty_full_name text);
-
-CREATE TABLE groups(
-group_id SERIAL PRIMARY KEY,
-group_name text,
-faculty_id integer REFERENCES faculties(faculty_id) ON DELETE RESTRICT);
-
-CREATE TABLE students(
-student_id SERIAL PRIMARY KEY,
-first_name text,
-last_name text,
-group_id integer REFERENCES groups(group_id) ON DELETE RESTRICT);
-
-CREATE TABLE teachers(
-teacher_id SERIAL PRIMARY KEY,
-first_name text,
-last_name text,
-faculty_id integer REFERENCES faculties(faculty_id) ON DELETE RESTRICT);
-
-CREATE TABLE courses(
-course_id SERIAL PRIMARY KEY,
-course_name text,
-course_description text,
-teacher_id integer REFERENCES teachers(teacher_id) ON DELETE RESTRICT);
-
-CREATE TABLE classrooms(
-classroom_id SERIAL PRIMARY KEY,
-classroom_number text,
-capacity integer);
-
-CREATE TABLE timeslots(
-timeslot_id SERIAL PRIMARY KEY,
-timeslot_description text);
-
-CREATE TABLE lessons(
-lesson_id SERIAL PRIMARY KEY,
-lesson_date date NOT NULL,
-timeslot_id integer NOT NULL REFERENCES timeslots(timeslot_id) ON DELETE RESTRICT,
-course_id integer NOT NULL REFERENCES courses(course_id) ON DELETE RESTRICT,
-classroom_id integer NOT NULL REFERENCES classrooms(classroom_id) ON DELETE RESTRICT,
-UNIQUE (lesson_date, timeslot_id, course_id),
-UNIQUE (lesson_date, timeslot_id, classroom_id));
-
-CREATE TABLE groups_courses(
-group_id integer REFERENCES groups(group_id) ON DELETE RESTRICT,
-course_id integer REFERENCES courses(course_id) ON DELETE RESTRICT,
-PRIMARY KEY (group_id, course_id));
-
+-- The schema comes from SchemaMigrator; this script only replaces the data.
+
+SET REFERENTIAL_INTEGRITY FALSE;
+
+TRUNCATE TABLE lessons;
+TRUNCATE TABLE lesson_series;
+TRUNCATE TABLE groups_courses;
+TRUNCATE TABLE courses;
+TRUNCATE TABLE students;
+TRUNCATE TABLE teachers;
+TRUNCATE TABLE groups;
+TRUNCATE TABLE faculties;
+TRUNCATE TABLE classrooms;
+TRUNCATE TABLE timeslots;
+
+SET REFERENTIAL_INTEGRITY TRUE;
+
+ALTER TABLE lesson_series ALTER COLUMN series_id RESTART WITH 1;
+ALTER TABLE courses ALTER COLUMN course_id RESTART WITH 1;
+ALTER TABLE groups ALTER COLUMN group_id RESTART WITH 1;
+ALTER TABLE faculties ALTER COLUMN faculty_id RESTART WITH 1;
+ALTER TABLE classrooms ALTER COLUMN classroom_id RESTART WITH 1;
+ALTER TABLE timeslots ALTER COLUMN timeslot_id RESTART WITH 1;
 
 INSERT INTO timeslots (timeslot_description)
 VALUES 
@@ -78,14 +48,17 @@ VALUES
 ('cs-20', 1);
 
 
-INSERT INTO students (first_name, last_name, group_id)
+INSERT INTO students (student_id, first_name, last_name, group_id)
 VALUES
-('John', 'Smith',1 ),
-('R2D2' , null,1);
+(1, 'John', 'Smith',1 ),
+(2, 'R2D2' , null,1);
 
-INSERT INTO teachers (first_name, last_name, faculty_id)
+INSERT INTO teachers (teacher_id, first_name, last_name, faculty_id)
 VALUES
-('Alan', 'Turing', 1);
+(1, 'Alan', 'Turing', 1);
+
+ALTER SEQUENCE students_student_id_seq RESTART WITH 52;
+ALTER SEQUENCE teachers_teacher_id_seq RESTART WITH 51;
 
 INSERT INTO courses (course_name, course_description, teacher_id)
 VALUES
@@ -97,7 +70,9 @@ VALUES
 (1, 1),
 (1, 2);
 
-INSERT INTO lessons (lesson_date, timeslot_id, course_id, classroom_id)
+INSERT INTO lessons (lesson_id, lesson_date, timeslot_id, course_id, classroom_id)
 VALUES
-('2020-06-18', 1, 1, 1),
-('2020-06-18', 2, 1, 1);
+(1, '2020-06-18', 1, 1, 1),
+(2, '2020-06-18', 2, 1, 1);
+
+ALTER SEQUENCE lessons_lesson_id_seq RESTART WITH 52;